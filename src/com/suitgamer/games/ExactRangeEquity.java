@@ -0,0 +1,317 @@
+package com.suitgamer.games;
+
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.suitgamer.tools.*;
+
+/**
+ * Computes the exact equity of a heads-up range against range spot by
+ * enumerating every board that completes the known board. On every
+ * board each live combo of both ranges is scored once with
+ * {@link BitmaskHandEvaluator}, the combos are sorted by score and a
+ * single sweep over both sorted lists yields the weight every hero
+ * combo wins and ties against the whole villain range. Card removal is
+ * accounted for by keeping, next to the running weight of the villain
+ * combos below the sweep, the running weight of those holding each
+ * card, which is taken out for the two cards of the hero combo.
+ *
+ * Boards are walked in revolving door order (see
+ * {@link RevolvingDoor}) and split in contiguous ranks of that order
+ * among as many threads as requested
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class ExactRangeEquity {
+
+  private Range hero;
+  private Range villain;
+
+  /**
+   * Mask of the known board cards
+   */
+  private long board;
+
+  /**
+   * Mask of the cards known to be out of the deck, not on the board
+   */
+  private long dead;
+
+  /**
+   * Weight of the matchups the hero wins, ties and loses
+   */
+  private double won;
+  private double tied;
+  private double lost;
+
+  /**
+   * Number of boards enumerated
+   */
+  private long boards;
+
+  /**
+   * Sets up the spot, the board and dead cards are space separated
+   * lists of cards such as 'JS 7D 2C'
+   *
+   * @param hero Range of the first player
+   * @param villain Range of the second player
+   * @param board Known board cards, zero to five cards
+   * @param dead Cards out of the deck, may be empty
+   */
+  public ExactRangeEquity(Range hero, Range villain, String board, String dead) {
+    this.hero = hero;
+    this.villain = villain;
+    this.board = PokerDeck.parseMask(board);
+    this.dead = PokerDeck.parseMask(dead);
+
+    if (Long.bitCount(this.board) > 5)
+      throw new IllegalArgumentException("A board can not have more than five cards");
+    if ((this.board & this.dead) != 0)
+      throw new IllegalArgumentException("Board and dead cards overlap");
+  }
+
+  /**
+   * Enumerates every board with the given number of threads
+   *
+   * @param threads
+   * @return
+   * @throws InterruptedException
+   */
+  public void compute(int threads) throws InterruptedException {
+
+    if (threads < 1)
+      throw new IllegalArgumentException("Number of threads can not be less than one.");
+
+    // Cards boards are completed with
+    final DeckIndexer indexer = new DeckIndexer(~(board | dead), 5 - Long.bitCount(board));
+    final int missing = indexer.getK();
+
+    boards = indexer.size();
+
+    // Splitting boards in contiguous ranks
+    long[] bounds = indexer.partition(threads);
+    List<Sweep> sweeps = new ArrayList<Sweep>();
+    List<Thread> workers = new ArrayList<Thread>();
+    for (int t = 0; t < threads; t++) {
+      final Sweep sweep = new Sweep();
+      final long from = bounds[t];
+      final long to = bounds[t + 1];
+      sweeps.add(sweep);
+      workers.add(new Thread(new Runnable() {
+        public void run() {
+          if (from >= to)
+            return;
+
+          // Walking boards in revolving door order, one card swap at a time
+          RevolvingDoor door = new RevolvingDoor(indexer.getLiveSize(), missing, from);
+          long cards = board;
+          for (int c = 0; c < missing; c++)
+            cards |= PokerDeck.maskOf(indexer.getCard(door.get(c)));
+
+          for (long rank = from; rank < to; rank++) {
+            sweep.board(cards);
+            if (rank + 1 < to && door.next())
+              cards ^= PokerDeck.maskOf(indexer.getCard(door.getOut())) | PokerDeck.maskOf(indexer.getCard(door.getIn()));
+          }
+        }
+      }));
+    }
+
+    for (Thread worker : workers)
+      worker.start();
+    for (Thread worker : workers)
+      worker.join();
+
+    // Aggregating the work of every thread
+    won = tied = lost = 0;
+    for (Sweep sweep : sweeps) {
+      won += sweep.won;
+      tied += sweep.tied;
+      lost += sweep.lost;
+    }
+  }
+
+  /**
+   * Sweeps boards one at a time, every thread owns one sweep
+   */
+  private class Sweep {
+
+    double won;
+    double tied;
+    double lost;
+
+    /*
+     * Combos live on the current board packed as their score in the
+     * high bits and their index in the low bits, so sorting by value
+     * sorts by score
+     */
+    long[] heroes = new long[hero.size()];
+    long[] villains = new long[villain.size()];
+
+    /*
+     * Villain weight below the sweep and tied with the current hero
+     * score, in total and per card
+     */
+    double[] belowCards = new double[PokerDeck.SIZE];
+    double[] tiedCards = new double[PokerDeck.SIZE];
+    double[] totalCards = new double[PokerDeck.SIZE];
+
+    /**
+     * Villain weight of every combo live on the current board,
+     * indexed by its two card positions
+     */
+    double[] villainWeights = new double[PokerDeck.SIZE * PokerDeck.SIZE];
+
+    void board(long cards) {
+
+      // Scoring every live combo once
+      int heroCount = score(hero, cards, heroes);
+      int villainCount = score(villain, cards, villains);
+      Arrays.sort(heroes, 0, heroCount);
+      Arrays.sort(villains, 0, villainCount);
+
+      Arrays.fill(belowCards, 0);
+      Arrays.fill(totalCards, 0);
+      double total = 0;
+      for (int v = 0; v < villainCount; v++) {
+        int combo = (int) villains[v];
+        double weight = villain.getWeight(combo);
+        total += weight;
+        totalCards[villain.getFirst(combo)] += weight;
+        totalCards[villain.getSecond(combo)] += weight;
+        villainWeights[villain.getFirst(combo) * PokerDeck.SIZE + villain.getSecond(combo)] = weight;
+      }
+
+      double below = 0;
+      int v = 0;
+      int h = 0;
+      while (h < heroCount) {
+
+        int score = (int) (heroes[h] >>> 32);
+
+        // Moving the villains scoring less than the hero below the sweep
+        while (v < villainCount && (int) (villains[v] >>> 32) < score) {
+          int combo = (int) villains[v++];
+          double weight = villain.getWeight(combo);
+          below += weight;
+          belowCards[villain.getFirst(combo)] += weight;
+          belowCards[villain.getSecond(combo)] += weight;
+        }
+
+        // Gathering the villains tying with the hero
+        double tie = 0;
+        int t = v;
+        while (t < villainCount && (int) (villains[t] >>> 32) == score) {
+          int combo = (int) villains[t++];
+          double weight = villain.getWeight(combo);
+          tie += weight;
+          tiedCards[villain.getFirst(combo)] += weight;
+          tiedCards[villain.getSecond(combo)] += weight;
+        }
+
+        // Crediting every hero combo with this score
+        for (; h < heroCount && (int) (heroes[h] >>> 32) == score; h++) {
+          int combo = (int) heroes[h];
+          int first = hero.getFirst(combo);
+          int second = hero.getSecond(combo);
+          double weight = hero.getWeight(combo);
+
+          // A villain holding the very same combo ties and is taken out twice
+          double same = villainWeights[first * PokerDeck.SIZE + second];
+
+          double matchups = total - totalCards[first] - totalCards[second] + same;
+          double wins = below - belowCards[first] - belowCards[second];
+          double ties = tie - tiedCards[first] - tiedCards[second] + same;
+
+          won += weight * wins;
+          tied += weight * ties;
+          lost += weight * (matchups - wins - ties);
+        }
+
+        // Clearing the tie weight per card for the next score
+        for (int c = v; c < t; c++) {
+          int combo = (int) villains[c];
+          tiedCards[villain.getFirst(combo)] = 0;
+          tiedCards[villain.getSecond(combo)] = 0;
+        }
+      }
+
+      // Clearing the villain weights of this board
+      for (int c = 0; c < villainCount; c++) {
+        int combo = (int) villains[c];
+        villainWeights[villain.getFirst(combo) * PokerDeck.SIZE + villain.getSecond(combo)] = 0;
+      }
+    }
+
+    /**
+     * Scores the combos of the range that do not collide with the
+     * board and returns how many there are
+     */
+    private int score(Range range, long cards, long[] scored) {
+      int count = 0;
+      for (int c = 0; c < range.size(); c++) {
+        long mask = range.getMask(c);
+        if ((mask & (cards | dead)) != 0)
+          continue;
+        scored[count++] = ((long) BitmaskHandEvaluator.evaluate(cards | mask) << 32) | c;
+      }
+
+      return count;
+    }
+  }
+
+  /**
+   * Returns the share of the pot the hero is expected to win, ties
+   * count as half
+   *
+   * @return
+   */
+  public double getEquity() {
+    return (won + tied / 2) / (won + tied + lost);
+  }
+
+  public double getWon() {
+    return won;
+  }
+
+  public double getTied() {
+    return tied;
+  }
+
+  public double getLost() {
+    return lost;
+  }
+
+  public long getBoards() {
+    return boards;
+  }
+
+  public String toString() {
+
+    DecimalFormat df = new DecimalFormat("00.00");
+    double matchups = won + tied + lost;
+    String divider = "-----------------------------------------\n";
+    StringBuilder out = new StringBuilder();
+
+    out.append("Exact range equity").append('\n');
+    out.append("Boards: ").append(boards).append('\n');
+    out.append('\n');
+    out.append(divider);
+    out.append(
+      "Equity (%): " + df.format(getEquity() * 100) + '\n' +
+      "Won/Tied/Lost (%): " + df.format(won / matchups * 100) + '/' + df.format(tied / matchups * 100) + '/' + df.format(lost / matchups * 100) + '\n' +
+      "Range: " + hero + '\n');
+    out.append(divider);
+    out.append(
+      "Equity (%): " + df.format((1 - getEquity()) * 100) + '\n' +
+      "Won/Tied/Lost (%): " + df.format(lost / matchups * 100) + '/' + df.format(tied / matchups * 100) + '/' + df.format(won / matchups * 100) + '\n' +
+      "Range: " + villain + '\n');
+    out.append(divider);
+
+    return out.toString();
+  }
+
+}
@@ -1,6 +1,7 @@
 package com.suitgamer.games;
 
 import com.suitgamer.ifaces.Aggregable;
+import com.suitgamer.ifaces.Sampler;
 import com.suitgamer.tools.*;
 
 import java.util.List;
@@ -51,6 +52,53 @@ public abstract class Game implements Aggregable<Game> {
      */
     protected PokerHandEvaluator evaluator = new PokerHandEvaluator();
 
+    /**
+     * Sampler which decides the cards dealt out of the {@link #deck}
+     * on every game. Plain random dealing unless a variance reduction
+     * sampler is provided
+     */
+    protected Sampler sampler = new RandomSampler();
+
+    /**
+     * Whether or not players who can not win nor tie are left out of
+     * the full evaluation of their hand. Before being fully evaluated
+     * every hand is given a ceiling, its hand combo out of the rank
+     * counts and suits of its cards alone, kickers left aside (see
+     * {@link BitmaskHandEvaluator#combo(long)}), players whose ceiling
+     * is below the best ceiling of the game lose without further
+     * scoring. Nobody is pruned when the {@link #showdown} has side
+     * pots. Off by default, as the power of a pruned player is only its
+     * ceiling followed by zeros, see {@link Player#getPower()}
+     */
+    protected boolean pruning = false;
+
+    /**
+     * Number of hands left out of the full evaluation and number of
+     * hands fully evaluated
+     */
+    protected long prunedEvaluations;
+    protected long fullEvaluations;
+
+    /**
+     * Ceiling of the hand of every player on the current game, and the
+     * score every pruned player is given, its ceiling followed by zeros,
+     * kept from game to game
+     */
+    protected int[] ceilings = new int[0];
+    protected int[][] prunedScores = new int[0][];
+
+    /**
+     * Settles the pot of every game as a multi-way all-in from the
+     * bank of every player, no pot is settled if null
+     */
+    protected Showdown showdown;
+
+    /**
+     * Packed score of every player on the current game, handed to the
+     * {@link #showdown}
+     */
+    protected int[] scores = new int[0];
+
 
     public Group getPlayers() {
         return players;
@@ -104,6 +152,45 @@ public abstract class Game implements Aggregable<Game> {
         this.evaluator = evaluator;
     }
     
+    public Sampler getSampler() {
+        return sampler;
+    }
+
+    public void setSampler(Sampler sampler) {
+        this.sampler = sampler;
+    }
+
+    public boolean isPruning() {
+      return pruning;
+    }
+
+    /**
+     * Whether or not players who can not win nor tie are left out of
+     * the full evaluation of their hand, their power then being their
+     * hand combo followed by zeros rather than the score of their hand
+     *
+     * @param pruning
+     */
+    public void setPruning(boolean pruning) {
+      this.pruning = pruning;
+    }
+
+    public long getPrunedEvaluations() {
+      return prunedEvaluations;
+    }
+
+    public long getFullEvaluations() {
+      return fullEvaluations;
+    }
+
+    public Showdown getShowdown() {
+      return showdown;
+    }
+
+    public void setShowdown(Showdown showdown) {
+      this.showdown = showdown;
+    }
+
     public Group getCommunities() {
       return communities;
     }
@@ -173,8 +260,77 @@ public abstract class Game implements Aggregable<Game> {
      * @param communitiesCards Strings containing unparsed community cards
      */
     protected void setupPlayers(List<String> playersCards, List<Double> playersBank, List<String> communitiesCards) {}
+
+    /**
+     * Takes the given cards out of the game deck for good, these are
+     * cards known to be out of play such as folded or burnt cards.
+     * Must be called before {@link #setupPlayers(List, List, List)}
+     *
+     * @param deadCards String containing unparsed dead cards
+     */
+    protected void setupDeadCards(String deadCards) {
+        if (deadCards == null)
+            return;
+
+        for (int card : PokerDeck.parseCards(deadCards))
+            deck.dealSpecificCard(PokerDeck.faceOf(card), PokerDeck.suitOf(card));
+    }
     
+    /**
+     * Computes the ceiling of the hand of every player, see
+     * {@link #pruning}, and returns the best ceiling. Hands of less
+     * than five cards are not given a ceiling, the best ceiling is then
+     * negative and nobody is pruned
+     *
+     * @return
+     */
+    protected int computeCeilings() {
+
+      // A hand that can not win the main pot may still win a side pot
+      if (showdown != null && showdown.hasSidePots())
+        return -1;
+
+      if (ceilings.length != players.size()) {
+        ceilings = new int[players.size()];
+        prunedScores = new int[players.size()][6];
+      }
+
+      int best = -1;
+      for (int p = 0; p < players.size(); p++) {
+        Player player = players.getPlayer(p);
+        long cards = PokerDeck.maskOf(player.getLockedHand()) | PokerDeck.maskOf(player.getUnlockedHand()) | PokerDeck.maskOf(player.getCommunityHand());
+        if (Long.bitCount(cards) < 5)
+          return -1;
+
+        ceilings[p] = BitmaskHandEvaluator.combo(cards);
+        best = Math.max(best, ceilings[p]);
+      }
+
+      return best;
+    }
+
+    /**
+     * Settles the pot of the game just played, if there is a
+     * {@link #showdown}, out of the power of every player
+     */
+    protected void settleShowdown() {
+
+      if (showdown == null)
+        return;
+
+      if (scores.length != players.size())
+        scores = new int[players.size()];
+      for (int p = 0; p < players.size(); p++)
+        scores[p] = PokerHandEvaluator.packScore(players.getPlayer(p).getPower());
+
+      showdown.settle(scores);
+    }
+
     public void aggregate(Game game) {
       players.aggregate(game.getPlayers());
+      if (showdown != null && game.getShowdown() != null)
+        showdown.aggregate(game.getShowdown());
+      prunedEvaluations = prunedEvaluations + game.getPrunedEvaluations();
+      fullEvaluations = fullEvaluations + game.getFullEvaluations();
     }
 }
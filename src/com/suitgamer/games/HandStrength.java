@@ -0,0 +1,449 @@
+package com.suitgamer.games;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.suitgamer.tools.BitmaskHandEvaluator;
+import com.suitgamer.tools.Combinations;
+import com.suitgamer.tools.DeckIndexer;
+import com.suitgamer.tools.PokerDeck;
+import com.suitgamer.tools.SuitCanonicalizer;
+
+/**
+ * Computes the hand strength and the hand potential of pocket cards on
+ * a board against one random opponent, as defined by Billings et al.:
+ *
+ * <ul>
+ * <li>Hand strength (HS), the share of the opponent pockets the hand
+ * beats now, ties counting half</li>
+ * <li>Positive potential (PPot), the share of the runouts on which the
+ * hand gets ahead of the pockets it is not ahead of now</li>
+ * <li>Negative potential (NPot), the share of the runouts on which the
+ * hand falls behind the pockets it is not behind now</li>
+ * <li>Effective hand strength, EHS = HS (1 - NPot) + (1 - HS) PPot</li>
+ * </ul>
+ *
+ * Potentials look ahead to the river, that is two cards on the flop and
+ * one on the turn. Every work depending on the board only is done once
+ * and serves every pocket on the board: the pockets left are scored
+ * and sorted once, the strength of a pocket is then a binary search
+ * fixed for the pockets sharing its cards, and every pocket is scored
+ * once on every runout, the potential of a pocket is then a walk over
+ * those scores, pocket by pocket, without a single evaluation.
+ *
+ * Results are equal for pockets and boards equal up to a permutation
+ * of the suits, a {@link Cache} shared by several boards keeps them
+ * under such canonical keys
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class HandStrength {
+
+  private static final int AHEAD = 0;
+  private static final int TIED = 1;
+  private static final int BEHIND = 2;
+
+  /**
+   * Mask of the board cards
+   */
+  private long board;
+
+  /**
+   * Indexes the pockets and the runouts among the cards left
+   */
+  private DeckIndexer pockets;
+  private DeckIndexer runouts;
+
+  /**
+   * Card masks and scores on the board of every pocket left
+   */
+  private long[] masks;
+  private int[] scores;
+
+  /**
+   * Scores of every pocket sorted
+   */
+  private int[] sorted;
+
+  /**
+   * Scores of every pocket on every runout, pocket by pocket, the
+   * lowest integer when the pocket and the runout share a card.
+   * Computed on the first potential
+   */
+  private int[][] finals;
+
+  /**
+   * Runouts sharing a card with one of two pockets only, and with both
+   * pockets, the same for every two pockets sharing no card
+   */
+  private long heroOnly;
+  private long both;
+
+  private Cache cache;
+
+  /**
+   * Scores every pocket left on the given board
+   *
+   * @param board Space separated cards such as 'JS 7D 2C', the flop,
+   *          the turn or the river
+   */
+  public HandStrength(String board) {
+
+    this.board = PokerDeck.parseMask(board);
+    int cards = Long.bitCount(this.board);
+    if (cards < 3 || cards > 5)
+      throw new IllegalArgumentException("A board holds three, four or five cards");
+
+    pockets = new DeckIndexer(~this.board, 2);
+    runouts = new DeckIndexer(~this.board, 5 - cards);
+
+    int size = (int) pockets.size();
+    masks = new long[size];
+    scores = new int[size];
+    for (int i = 0; i < size; i++) {
+      masks[i] = pockets.mask(i);
+      scores[i] = BitmaskHandEvaluator.evaluate(masks[i] | this.board);
+    }
+
+    sorted = scores.clone();
+    Arrays.sort(sorted);
+  }
+
+  /**
+   * Scores every pocket on every runout, once per board
+   */
+  private synchronized int[][] getFinals() {
+
+    if (finals == null) {
+      int size = masks.length;
+      int count = (int) runouts.size();
+      int[][] scored = new int[size][count];
+      for (int r = 0; r < count; r++) {
+        long runout = runouts.mask(r);
+        for (int i = 0; i < size; i++)
+          scored[i][r] = (masks[i] & runout) != 0 ? Integer.MIN_VALUE : BitmaskHandEvaluator.evaluate(masks[i] | board | runout);
+      }
+
+      // Runouts avoiding the hero, avoiding both pockets and in total
+      int left = runouts.getLiveSize();
+      int k = runouts.getK();
+      long avoiding = Combinations.binomial(left - 2, k);
+      long avoidingBoth = Combinations.binomial(left - 4, k);
+      heroOnly = avoiding - avoidingBoth;
+      both = count - 2 * avoiding + avoidingBoth;
+      finals = scored;
+    }
+
+    return finals;
+  }
+
+  /**
+   * Computes the strength and the potential of the given pocket, or
+   * returns them from the cache when one is set
+   *
+   * @param pocket Space separated pocket cards such as 'AH KH'
+   * @return
+   */
+  public Strength compute(String pocket) {
+    return compute(PokerDeck.parseMask(pocket));
+  }
+
+  /**
+   * Computes the strength and the potential of the given pocket, or
+   * returns them from the cache when one is set
+   *
+   * @param pocket Mask of the pocket cards, see {@link PokerDeck#maskOf(int)}
+   * @return
+   */
+  public Strength compute(long pocket) {
+
+    if (Long.bitCount(pocket) != 2 || (pocket & board) != 0)
+      throw new IllegalArgumentException("A pocket holds two cards off the board");
+
+    String key = null;
+    if (cache != null) {
+      key = Cache.keyOf(pocket, board);
+      Strength strength = cache.get(key);
+      if (strength != null)
+        return strength;
+    }
+
+    int hero = (int) pockets.index(pocket);
+    Strength strength = new Strength();
+    strength.strength = strength(hero);
+    if (Long.bitCount(board) < 5)
+      potential(hero, strength);
+
+    if (cache != null)
+      cache.put(key, strength);
+
+    return strength;
+  }
+
+  /**
+   * Returns the share of the pockets left the given pocket beats,
+   * counting the sorted scores then taking out the pockets sharing a
+   * card with it
+   */
+  private double strength(int hero) {
+
+    int score = scores[hero];
+    int below = lowerBound(sorted, score);
+    int equal = lowerBound(sorted, score + 1) - below;
+    int total = sorted.length;
+
+    // Pockets sharing a card with the hero can not be dealt
+    long mask = masks[hero];
+    for (int c = 0; c < PokerDeck.SIZE; c++) {
+      long card = PokerDeck.maskOf(c);
+      if ((card & (board | mask)) != 0)
+        continue;
+      for (long held = mask; held != 0; held &= held - 1) {
+        int shared = scores[(int) pockets.index(Long.lowestOneBit(held) | card)];
+        total--;
+        if (shared < score)
+          below--;
+        else if (shared == score)
+          equal--;
+      }
+    }
+
+    // The pocket itself
+    total--;
+    equal--;
+
+    return (below + equal / 2d) / total;
+  }
+
+  /**
+   * Returns the number of sorted scores below the given score
+   */
+  private static int lowerBound(int[] sorted, int score) {
+    int low = 0;
+    int high = sorted.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (sorted[middle] < score)
+        low = middle + 1;
+      else
+        high = middle;
+    }
+
+    return low;
+  }
+
+  /**
+   * Tallies, for every opponent pocket and every runout, the standing
+   * of the hero now against its standing on the river
+   */
+  private void potential(int hero, Strength strength) {
+
+    int[][] finals = getFinals();
+
+    // Opponent pockets and the standing of the hero against them now
+    long mask = masks[hero];
+    int[] opponents = new int[masks.length];
+    int[] now = new int[masks.length];
+    int count = 0;
+    for (int i = 0; i < masks.length; i++) {
+      if ((masks[i] & mask) != 0)
+        continue;
+      opponents[count] = i;
+      now[count++] = standing(scores[hero], scores[i]);
+    }
+
+    // Runouts sharing a card with a pocket score the lowest, the hero
+    // is then counted ahead, tied or behind on as many runouts whatever
+    // the opponent, which are taken back once counted
+    long[][] tallies = new long[3][3];
+    int[] heroes = finals[hero];
+    for (int o = 0; o < count; o++) {
+      int[] scored = finals[opponents[o]];
+      int ahead = 0;
+      int tied = 0;
+      for (int r = 0; r < heroes.length; r++) {
+        ahead += heroes[r] > scored[r] ? 1 : 0;
+        tied += heroes[r] == scored[r] ? 1 : 0;
+      }
+
+      long[] tally = tallies[now[o]];
+      tally[AHEAD] += ahead - heroOnly;
+      tally[TIED] += tied - both;
+      tally[BEHIND] += heroes.length - ahead - tied - heroOnly;
+    }
+
+    long[] totals = new long[3];
+    for (int s = 0; s < 3; s++)
+      totals[s] = tallies[s][AHEAD] + tallies[s][TIED] + tallies[s][BEHIND];
+
+    double positive = totals[BEHIND] + totals[TIED] / 2d;
+    double negative = totals[AHEAD] + totals[TIED] / 2d;
+    if (positive > 0)
+      strength.positive = (tallies[BEHIND][AHEAD] + tallies[BEHIND][TIED] / 2d + tallies[TIED][AHEAD] / 2d) / positive;
+    if (negative > 0)
+      strength.negative = (tallies[AHEAD][BEHIND] + tallies[TIED][BEHIND] / 2d + tallies[AHEAD][TIED] / 2d) / negative;
+  }
+
+  private static int standing(int hero, int opponent) {
+    return hero > opponent ? AHEAD : (hero == opponent ? TIED : BEHIND);
+  }
+
+  /**
+   * Returns the number of pockets left on the board
+   *
+   * @return
+   */
+  public int getPockets() {
+    return masks.length;
+  }
+
+  /**
+   * Returns the mask of the pocket with the given number, pockets are
+   * numbered from 0 to {@link #getPockets()} - 1
+   *
+   * @param i
+   * @return
+   */
+  public long getPocket(int i) {
+    return masks[i];
+  }
+
+  public Cache getCache() {
+    return cache;
+  }
+
+  /**
+   * Keeps results under canonical keys, the cache may be shared by
+   * several boards and several threads
+   *
+   * @param cache
+   */
+  public void setCache(Cache cache) {
+    this.cache = cache;
+  }
+
+  /**
+   * Strength and potential of a pocket on a board
+   */
+  public static class Strength {
+
+    private double strength;
+    private double positive;
+    private double negative;
+
+    /**
+     * Returns the hand strength against one opponent
+     *
+     * @return
+     */
+    public double getHandStrength() {
+      return strength;
+    }
+
+    /**
+     * Returns the hand strength against the given number of opponents,
+     * taken as independent
+     *
+     * @param opponents
+     * @return
+     */
+    public double getHandStrength(int opponents) {
+      return Math.pow(strength, opponents);
+    }
+
+    public double getPositivePotential() {
+      return positive;
+    }
+
+    public double getNegativePotential() {
+      return negative;
+    }
+
+    /**
+     * Returns the effective hand strength, the chance of being ahead
+     * on the river
+     *
+     * @return
+     */
+    public double getEffectiveStrength() {
+      return strength * (1 - negative) + (1 - strength) * positive;
+    }
+
+    public String toString() {
+      return "HS: " + strength + ", PPot: " + positive + ", NPot: " + negative + ", EHS: " + getEffectiveStrength();
+    }
+  }
+
+  /**
+   * Results of pockets on boards under keys equal for every pocket and
+   * board equal up to a permutation of the suits, the least recently
+   * used result is evicted once the cache is full
+   */
+  public static class Cache {
+
+    private Map<String, Strength> entries;
+
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates a cache holding at most the given number of results
+     *
+     * @param capacity
+     */
+    public Cache(final int capacity) {
+
+      if (capacity < 1)
+        throw new IllegalArgumentException("Cache capacity can not be less than one.");
+
+      // Keeping entries in access order, the eldest is the least recently used
+      entries = new LinkedHashMap<String, Strength>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        protected boolean removeEldestEntry(Map.Entry<String, Strength> eldest) {
+          return size() > capacity;
+        }
+      };
+    }
+
+    /**
+     * Returns the canonical key of the pocket on the board
+     *
+     * @param pocket
+     * @param board
+     * @return
+     */
+    public static String keyOf(long pocket, long board) {
+      long[] canonical = SuitCanonicalizer.canonicalize(new long[] { board, pocket });
+      return Long.toHexString(canonical[0]) + ':' + Long.toHexString(canonical[1]);
+    }
+
+    public synchronized Strength get(String key) {
+      Strength strength = entries.get(key);
+      if (strength == null)
+        misses++;
+      else
+        hits++;
+
+      return strength;
+    }
+
+    public synchronized void put(String key, Strength strength) {
+      entries.put(key, strength);
+    }
+
+    public synchronized int size() {
+      return entries.size();
+    }
+
+    public synchronized long getHits() {
+      return hits;
+    }
+
+    public synchronized long getMisses() {
+      return misses;
+    }
+  }
+}
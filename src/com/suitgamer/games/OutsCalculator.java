@@ -0,0 +1,398 @@
+package com.suitgamer.games;
+
+import java.text.DecimalFormat;
+import java.util.List;
+
+import com.suitgamer.tools.BitmaskHandEvaluator;
+import com.suitgamer.tools.PokerDeck;
+
+/**
+ * Lists, on the flop or the turn, what every card that may come next
+ * does to every player of a Texas Hold'em hand. For every next card and
+ * every player it tells whether the card:
+ *
+ * <ul>
+ * <li>Improves the hand, the hand combo goes up and beats the combo
+ * of the board alone</li>
+ * <li>Counterfeits the hand, the hand was made with both pocket cards,
+ * beating the combo of the board alone, and it no longer is</li>
+ * <li>Makes the nuts, no two unseen cards would beat the hand after
+ * the card while some would before</li>
+ * <li>Changes the standing, the place of the player among the hands
+ * made so far, ties sharing a place</li>
+ * </ul>
+ *
+ * along with the equity of the player once the card came and the
+ * difference with its equity now. Hands are held as card masks and
+ * scored with {@link BitmaskHandEvaluator}, so the standings of every
+ * next card take a few evaluations per player, and the equities come
+ * from a single {@link StreetEquity} enumeration
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class OutsCalculator {
+
+  /**
+   * Card masks of the pocket cards of every player, of the board and
+   * of the cards out of the deck
+   */
+  private long[] pockets;
+  private long board;
+  private long dead;
+
+  /**
+   * Poker deck positions of the cards that may come next
+   */
+  private int[] cards;
+
+  /**
+   * Scores and places of every player now and after every next card
+   */
+  private int[] scores;
+  private int[] places;
+  private int[][] nextScores;
+  private int[][] nextPlaces;
+
+  /**
+   * Next cards, as card masks, doing something to every player
+   */
+  private long[] improving;
+  private long[] counterfeiting;
+  private long[] nutting;
+  private long[] changing;
+
+  private StreetEquity equity;
+
+  /**
+   * Sets up the hand, cards are space separated lists such as
+   * 'JS 7D 2C'
+   *
+   * @param playersCards The two pocket cards of every player
+   * @param board Flop or turn, three or four cards
+   * @param dead Cards out of the deck, may be empty
+   */
+  public OutsCalculator(List<String> playersCards, String board, String dead) {
+
+    // Checking the cards along with the equities
+    this.equity = new StreetEquity(playersCards, board, dead);
+
+    this.board = PokerDeck.parseMask(board);
+    this.dead = PokerDeck.parseMask(dead);
+    if (Long.bitCount(this.board) != 3 && Long.bitCount(this.board) != 4)
+      throw new IllegalArgumentException("Outs are computed on the flop or the turn");
+
+    pockets = new long[playersCards.size()];
+    for (int p = 0; p < pockets.length; p++)
+      pockets[p] = PokerDeck.parseMask(playersCards.get(p));
+  }
+
+  /**
+   * Computes what every next card does to every player, then the
+   * equities with the given number of threads
+   *
+   * @param threads
+   * @throws InterruptedException
+   */
+  public void compute(int threads) throws InterruptedException {
+    classify();
+    equity.compute(threads);
+  }
+
+  /**
+   * Scores every player on every next card, without the equities
+   */
+  public void classify() {
+
+    int players = pockets.length;
+    long used = board | dead;
+    for (long pocket : pockets)
+      used |= pocket;
+
+    // Cards that may come next
+    int count = 0;
+    int[] left = new int[PokerDeck.SIZE];
+    for (int c = 0; c < PokerDeck.SIZE; c++)
+      if ((PokerDeck.maskOf(c) & used) == 0)
+        left[count++] = c;
+    cards = new int[count];
+    System.arraycopy(left, 0, cards, 0, count);
+
+    // Standing now
+    scores = new int[players];
+    boolean[] nuts = new boolean[players];
+    boolean[] needed = new boolean[players];
+    for (int p = 0; p < players; p++) {
+      scores[p] = BitmaskHandEvaluator.evaluate(pockets[p] | board);
+      nuts[p] = isNuts(pockets[p], board, scores[p]);
+      needed[p] = isMade(pockets[p], board, scores[p]);
+    }
+    places = places(scores);
+
+    improving = new long[players];
+    counterfeiting = new long[players];
+    nutting = new long[players];
+    changing = new long[players];
+    nextScores = new int[count][];
+    nextPlaces = new int[count][];
+    for (int i = 0; i < count; i++) {
+
+      long card = PokerDeck.maskOf(cards[i]);
+      long next = board | card;
+      int boardCombo = BitmaskHandEvaluator.combo(next);
+
+      int[] after = new int[players];
+      for (int p = 0; p < players; p++)
+        after[p] = BitmaskHandEvaluator.evaluate(pockets[p] | next);
+      int[] placed = places(after);
+      nextScores[i] = after;
+      nextPlaces[i] = placed;
+
+      for (int p = 0; p < players; p++) {
+
+        int combo = BitmaskHandEvaluator.comboOf(after[p]);
+        if (combo > BitmaskHandEvaluator.comboOf(scores[p]) && combo > boardCombo)
+          improving[p] |= card;
+
+        if (needed[p] && !isMade(pockets[p], next, after[p]))
+          counterfeiting[p] |= card;
+
+        if (!nuts[p] && isNuts(pockets[p], next, after[p]))
+          nutting[p] |= card;
+
+        if (placed[p] != places[p] || shares(placed, p) != shares(places, p))
+          changing[p] |= card;
+      }
+    }
+  }
+
+  /**
+   * Whether or not no two cards left, once the pocket and the board are
+   * known, make a better hand on the board
+   */
+  private static boolean isNuts(long pocket, long board, int score) {
+
+    // Some other hand beating it is usually found early
+    long used = pocket | board;
+    for (int first = 1; first < PokerDeck.SIZE; first++) {
+      long firstMask = PokerDeck.maskOf(first);
+      if ((firstMask & used) != 0)
+        continue;
+      for (int second = 0; second < first; second++) {
+        long secondMask = PokerDeck.maskOf(second);
+        if ((secondMask & used) != 0)
+          continue;
+        if (BitmaskHandEvaluator.evaluate(firstMask | secondMask | board) > score)
+          return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Whether or not both pocket cards are needed to make the hand, and
+   * the hand combo beats the combo of the board alone
+   */
+  private static boolean isMade(long pocket, long board, int score) {
+    long first = Long.lowestOneBit(pocket);
+    long second = pocket ^ first;
+
+    if (BitmaskHandEvaluator.comboOf(score) <= BitmaskHandEvaluator.combo(board))
+      return false;
+
+    return BitmaskHandEvaluator.evaluate(first | board) < score && BitmaskHandEvaluator.evaluate(second | board) < score;
+  }
+
+  /**
+   * Returns the place of every player, one plus the number of players
+   * holding a better hand
+   */
+  private static int[] places(int[] scores) {
+    int[] places = new int[scores.length];
+    for (int p = 0; p < scores.length; p++) {
+      places[p] = 1;
+      for (int o = 0; o < scores.length; o++)
+        if (scores[o] > scores[p])
+          places[p]++;
+    }
+
+    return places;
+  }
+
+  /**
+   * Returns the number of players sharing the place of the player
+   */
+  private static int shares(int[] places, int player) {
+    int shares = 0;
+    for (int place : places)
+      if (place == places[player])
+        shares++;
+
+    return shares;
+  }
+
+  /**
+   * Returns the number of cards that may come next
+   *
+   * @return
+   */
+  public int getSize() {
+    return cards.length;
+  }
+
+  /**
+   * Returns the next card with the given number, such as 'QH'
+   *
+   * @param i Number from 0 to {@link #getSize()} - 1
+   * @return
+   */
+  public String getCard(int i) {
+    return "" + PokerDeck.faceOf(cards[i]) + PokerDeck.suitOf(cards[i]);
+  }
+
+  /**
+   * Returns the place of the player now, one plus the number of
+   * players holding a better hand
+   *
+   * @param player
+   * @return
+   */
+  public int getPlace(int player) {
+    return places[player];
+  }
+
+  /**
+   * Returns the place of the player once the given next card came
+   *
+   * @param i
+   * @param player
+   * @return
+   */
+  public int getPlace(int i, int player) {
+    return nextPlaces[i][player];
+  }
+
+  /**
+   * Returns the packed score of the player once the given next card
+   * came
+   *
+   * @param i
+   * @param player
+   * @return
+   */
+  public int getScore(int i, int player) {
+    return nextScores[i][player];
+  }
+
+  public boolean isImproving(int i, int player) {
+    return (improving[player] & PokerDeck.maskOf(cards[i])) != 0;
+  }
+
+  public boolean isCounterfeiting(int i, int player) {
+    return (counterfeiting[player] & PokerDeck.maskOf(cards[i])) != 0;
+  }
+
+  public boolean isNutting(int i, int player) {
+    return (nutting[player] & PokerDeck.maskOf(cards[i])) != 0;
+  }
+
+  public boolean isChanging(int i, int player) {
+    return (changing[player] & PokerDeck.maskOf(cards[i])) != 0;
+  }
+
+  /**
+   * Returns the mask of the next cards improving the hand of the
+   * player, see {@link PokerDeck#maskOf(int)}
+   *
+   * @param player
+   * @return
+   */
+  public long getImproving(int player) {
+    return improving[player];
+  }
+
+  public long getCounterfeiting(int player) {
+    return counterfeiting[player];
+  }
+
+  public long getNutting(int player) {
+    return nutting[player];
+  }
+
+  public long getChanging(int player) {
+    return changing[player];
+  }
+
+  /**
+   * Returns the equity of the player now
+   *
+   * @param player
+   * @return
+   */
+  public double getEquity(int player) {
+    return equity.getEquity(player);
+  }
+
+  /**
+   * Returns the equity of the player once the given next card came
+   *
+   * @param i
+   * @param player
+   * @return
+   */
+  public double getEquity(int i, int player) {
+    return equity.getNextEquity(equity.getNextNode(PokerDeck.maskOf(cards[i])), player);
+  }
+
+  /**
+   * Returns how much the given next card adds to the equity of the
+   * player, negative when it takes some away
+   *
+   * @param i
+   * @param player
+   * @return
+   */
+  public double getDelta(int i, int player) {
+    return getEquity(i, player) - getEquity(player);
+  }
+
+  public String toString() {
+
+    DecimalFormat df = new DecimalFormat("00.00");
+    String divider = "-----------------------------------------\n";
+    StringBuilder out = new StringBuilder();
+
+    out.append("Outs").append('\n');
+    out.append("Next cards: ").append(cards.length).append('\n');
+    out.append('\n');
+    out.append(divider);
+
+    for (int p = 0; p < pockets.length; p++) {
+      out.append("Equity (%): ").append(df.format(getEquity(p) * 100)).append('\n');
+      out.append("Place: ").append(getPlace(p)).append('\n');
+      out.append("Improving: ").append(Long.bitCount(improving[p])).append('\n');
+      out.append("Counterfeiting: ").append(Long.bitCount(counterfeiting[p])).append('\n');
+      out.append("Nutting: ").append(Long.bitCount(nutting[p])).append('\n');
+      out.append("Changing: ").append(Long.bitCount(changing[p])).append('\n');
+      out.append("Player: ").append(p).append('\n');
+      out.append(divider);
+    }
+
+    // Breaking every card down, flags are improving, counterfeiting, nutting and changing
+    for (int i = 0; i < cards.length; i++) {
+      out.append(getCard(i)).append(':');
+      for (int p = 0; p < pockets.length; p++) {
+        out.append(' ').append(getDelta(i, p) >= 0 ? "+" : "").append(df.format(getDelta(i, p) * 100));
+        out.append(isImproving(i, p) ? 'I' : '-');
+        out.append(isCounterfeiting(i, p) ? 'C' : '-');
+        out.append(isNutting(i, p) ? 'N' : '-');
+        out.append(isChanging(i, p) ? 'S' : '-');
+      }
+      out.append('\n');
+    }
+    out.append(divider);
+
+    return out.toString();
+  }
+}
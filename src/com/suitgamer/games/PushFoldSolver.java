@@ -0,0 +1,472 @@
+package com.suitgamer.games;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.suitgamer.tools.StartingHandMatrix;
+
+/**
+ * Solves push or fold preflop spots: every player, when folded to, goes
+ * all-in or folds, and every player facing the all-in calls or folds.
+ * Every player starts with the same stack, given in big blinds, and
+ * players are numbered in the order they act, the small blind and the
+ * big blind being the last two.
+ *
+ * Strategies are found by fictitious play: on every iteration every
+ * player plays the best response to the average strategies of the
+ * others, and the average strategies converge to an equilibrium.
+ * Showdowns are heads-up equities of starting hands (see
+ * {@link StartingHandMatrix}) weighted by the pairs of pockets both
+ * hands can be dealt as, so the cards of the pusher are removed from
+ * the hands of the caller. The matrix is prepared once per solver and
+ * reused by every solve, a heads-up solve takes milliseconds.
+ *
+ * With more than two players it is an approximation: only the first
+ * caller plays against the pusher, every later player folds, and the
+ * cards of the players who folded are not removed from the deck
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class PushFoldSolver {
+
+  private static final int HANDS = StartingHandMatrix.STARTING_HANDS;
+
+  private double smallBlind = 0.5;
+  private double bigBlind = 1;
+  private double ante = 0;
+
+  /**
+   * Largest gain, in big blinds, a player may still get by deviating
+   * from the average strategies for the solve to be over
+   */
+  private double tolerance = 0.001;
+  private int maximumIterations = 10000;
+
+  /**
+   * Pairs of pockets of every two starting hands, and those pairs
+   * times the equity of the first hand
+   */
+  private double[][] pairs = new double[HANDS][HANDS];
+  private double[][] equities = new double[HANDS][HANDS];
+
+  /**
+   * Share of the deals every starting hand is dealt
+   */
+  private double[] frequencies = new double[HANDS];
+
+  /**
+   * Pairs of pockets every starting hand is dealt against
+   */
+  private double[] dealt = new double[HANDS];
+
+  /**
+   * Prepares the solver with the given equities, reused by every solve
+   *
+   * @param matrix
+   */
+  public PushFoldSolver(StartingHandMatrix matrix) {
+
+    double deals = 0;
+    for (int h = 0; h < HANDS; h++)
+      deals += StartingHandMatrix.getPockets(h);
+
+    for (int h = 0; h < HANDS; h++) {
+      frequencies[h] = StartingHandMatrix.getPockets(h) / deals;
+      for (int v = 0; v < HANDS; v++) {
+        pairs[h][v] = StartingHandMatrix.getPairs(h, v);
+        equities[h][v] = pairs[h][v] * matrix.getEquity(h, v);
+        dealt[h] += pairs[h][v];
+      }
+    }
+  }
+
+  /**
+   * Solves the spot of the given number of players with the given
+   * stack
+   *
+   * @param players Number of players, from 2
+   * @param stack Stack of every player, in big blinds
+   * @return
+   */
+  public Solution solve(int players, double stack) {
+
+    if (players < 2)
+      throw new IllegalArgumentException("A push or fold spot needs at least two players");
+    if (stack < bigBlind + ante)
+      throw new IllegalArgumentException("Stacks must cover the blinds and the ante");
+
+    // Blinds posted and money lost on a fold
+    double[] posts = new double[players];
+    posts[players - 2] = smallBlind;
+    posts[players - 1] = bigBlind;
+    double[] folding = new double[players];
+    double dead = 0;
+    for (int p = 0; p < players; p++) {
+      folding[p] = -(posts[p] + ante);
+      dead += posts[p] + ante;
+    }
+
+    // Everyone starts pushing and calling with every hand
+    Strategy[] pushes = new Strategy[players - 1];
+    Strategy[][] calls = new Strategy[players - 1][players];
+    for (int p = 0; p < players - 1; p++) {
+      pushes[p] = new Strategy();
+      for (int c = p + 1; c < players; c++)
+        calls[p][c] = new Strategy();
+    }
+
+    double[][] pushing = new double[players - 1][HANDS];
+    double[][][] calling = new double[players - 1][players][HANDS];
+    int iteration = 0;
+    double gap = Double.POSITIVE_INFINITY;
+    while (iteration < maximumIterations && gap >= tolerance) {
+      iteration++;
+
+      // Best responses are all played against the same average strategies
+      gap = 0;
+      for (int p = 0; p < players - 1; p++) {
+        pushValues(pushes, calls, p, stack, posts, dead, pushing[p]);
+        gap = Math.max(gap, gain(pushing[p], folding[p], pushes[p].average));
+        for (int c = p + 1; c < players; c++) {
+          callValues(pushes, p, c, stack, posts, dead, calling[p][c]);
+          gap = Math.max(gap, gain(calling[p][c], folding[c], calls[p][c].average));
+        }
+      }
+
+      if (gap < tolerance)
+        break;
+
+      // Moving the average strategies towards the best responses
+      double step = 1d / (iteration + 1);
+      for (int p = 0; p < players - 1; p++) {
+        pushes[p].update(pushing[p], folding[p], step);
+        for (int c = p + 1; c < players; c++)
+          calls[p][c].update(calling[p][c], folding[c], step);
+      }
+    }
+
+    double[][] pushed = new double[players][];
+    double[][][] called = new double[players][players][];
+    for (int p = 0; p < players - 1; p++) {
+      pushed[p] = pushes[p].average;
+      for (int c = p + 1; c < players; c++)
+        called[p][c] = calls[p][c].average;
+    }
+
+    return new Solution(players, stack, pushed, called, iteration, gap);
+  }
+
+  /**
+   * Computes the value of pushing every starting hand for the player
+   * when folded to, against the average calls of the players after it
+   */
+  private void pushValues(Strategy[] pushes, Strategy[][] calls, int p, double stack, double[] posts, double dead, double[] values) {
+
+    for (int h = 0; h < HANDS; h++) {
+
+      // Every player after the pusher calls or lets the next one act
+      double reach = 1;
+      double value = 0;
+      for (int c = p + 1; c < calls[p].length; c++) {
+        Strategy call = calls[p][c];
+        double pot = 2 * (stack - ante) + dead - posts[p] - posts[c];
+        value += reach * (call.equities[h] * pot - call.pairs[h] * stack) / dealt[h];
+        reach *= 1 - call.pairs[h] / dealt[h];
+      }
+
+      // Everyone folded, the blinds and antes of the others are won
+      values[h] = value + reach * (dead - posts[p] - ante);
+    }
+  }
+
+  /**
+   * Computes the value of calling with every starting hand for the
+   * caller against the average pushes of the pusher
+   */
+  private void callValues(Strategy[] pushes, int p, int c, double stack, double[] posts, double dead, double[] values) {
+
+    Strategy push = pushes[p];
+    double pot = 2 * (stack - ante) + dead - posts[p] - posts[c];
+    for (int v = 0; v < HANDS; v++) {
+
+      // Never facing a push, calling is worth nothing more than folding
+      values[v] = push.pairs[v] == 0 ? Double.NEGATIVE_INFINITY : push.equities[v] * pot / push.pairs[v] - stack;
+    }
+  }
+
+  /**
+   * Returns how much, on average over the hands dealt, the best
+   * response gains over the average strategy
+   */
+  private double gain(double[] values, double folding, double[] average) {
+    double gain = 0;
+    for (int h = 0; h < HANDS; h++) {
+      if (values[h] == Double.NEGATIVE_INFINITY)
+        continue;
+      double played = average[h] * values[h] + (1 - average[h]) * folding;
+      gain += frequencies[h] * (Math.max(values[h], folding) - played);
+    }
+
+    return gain;
+  }
+
+  /**
+   * Average strategy of a player, how often it goes all-in with every
+   * starting hand, along with the pairs of pockets every starting hand
+   * of the opponent meets it with, plain and times the equity of the
+   * opponent. The same is kept for the last best response, which only
+   * changes for a few hands from one iteration to the next, so those
+   * sums are updated for the hands that changed rather than recomputed
+   */
+  private class Strategy {
+
+    private double[] average = new double[HANDS];
+    private double[] pairs = new double[HANDS];
+    private double[] equities = new double[HANDS];
+
+    private boolean[] response = new boolean[HANDS];
+    private double[] responsePairs = new double[HANDS];
+    private double[] responseEquities = new double[HANDS];
+
+    private Strategy() {
+      Arrays.fill(average, 1);
+      Arrays.fill(response, true);
+      for (int o = 0; o < HANDS; o++) {
+        for (int h = 0; h < HANDS; h++) {
+          responsePairs[o] += PushFoldSolver.this.pairs[o][h];
+          responseEquities[o] += PushFoldSolver.this.equities[o][h];
+        }
+      }
+      System.arraycopy(responsePairs, 0, pairs, 0, HANDS);
+      System.arraycopy(responseEquities, 0, equities, 0, HANDS);
+    }
+
+    /**
+     * Plays the best response to the given values, going all-in with
+     * every hand worth more than folding, and moves the average towards
+     * it by the given step
+     */
+    private void update(double[] values, double folding, double step) {
+
+      for (int h = 0; h < HANDS; h++) {
+        boolean best = values[h] > folding;
+        if (best == response[h])
+          continue;
+
+        // Adding or removing the hand from the sums of the response
+        response[h] = best;
+        double sign = best ? 1 : -1;
+        for (int o = 0; o < HANDS; o++) {
+          responsePairs[o] += sign * PushFoldSolver.this.pairs[o][h];
+          responseEquities[o] += sign * PushFoldSolver.this.equities[o][h];
+        }
+      }
+
+      for (int h = 0; h < HANDS; h++) {
+        average[h] += ((response[h] ? 1 : 0) - average[h]) * step;
+        pairs[h] += (responsePairs[h] - pairs[h]) * step;
+        equities[h] += (responseEquities[h] - equities[h]) * step;
+      }
+    }
+  }
+
+  public double getSmallBlind() {
+    return smallBlind;
+  }
+
+  public void setSmallBlind(double smallBlind) {
+    this.smallBlind = smallBlind;
+  }
+
+  public double getBigBlind() {
+    return bigBlind;
+  }
+
+  public void setBigBlind(double bigBlind) {
+    this.bigBlind = bigBlind;
+  }
+
+  public double getAnte() {
+    return ante;
+  }
+
+  public void setAnte(double ante) {
+    this.ante = ante;
+  }
+
+  public double getTolerance() {
+    return tolerance;
+  }
+
+  public void setTolerance(double tolerance) {
+    this.tolerance = tolerance;
+  }
+
+  public int getMaximumIterations() {
+    return maximumIterations;
+  }
+
+  public void setMaximumIterations(int maximumIterations) {
+    this.maximumIterations = maximumIterations;
+  }
+
+  /**
+   * Average strategies of a solve: the frequency every player pushes
+   * every starting hand when folded to, and the frequency every player
+   * calls with every starting hand the push of every player before it
+   */
+  public static class Solution {
+
+    private int players;
+    private double stack;
+    private double[][] pushes;
+    private double[][][] calls;
+    private int iterations;
+    private double gap;
+
+    private Solution(int players, double stack, double[][] pushes, double[][][] calls, int iterations, double gap) {
+      this.players = players;
+      this.stack = stack;
+      this.pushes = pushes;
+      this.calls = calls;
+      this.iterations = iterations;
+      this.gap = gap;
+    }
+
+    /**
+     * Returns the frequency the player pushes the starting hand when
+     * folded to
+     *
+     * @param player
+     * @param hand
+     * @return
+     */
+    public double getPush(int player, int hand) {
+      return pushes[player][hand];
+    }
+
+    /**
+     * Returns the frequency the caller calls with the starting hand the
+     * push of the pusher, every player between them having folded
+     *
+     * @param pusher
+     * @param caller
+     * @param hand
+     * @return
+     */
+    public double getCall(int pusher, int caller, int hand) {
+      return calls[pusher][caller][hand];
+    }
+
+    /**
+     * Returns the share of the pockets dealt the player pushes
+     *
+     * @param player
+     * @return
+     */
+    public double getPushRange(int player) {
+      return range(pushes[player]);
+    }
+
+    /**
+     * Returns the share of the pockets dealt the caller calls the push
+     * of the pusher with
+     *
+     * @param pusher
+     * @param caller
+     * @return
+     */
+    public double getCallRange(int pusher, int caller) {
+      return range(calls[pusher][caller]);
+    }
+
+    private static double range(double[] strategy) {
+      double pockets = 0;
+      double played = 0;
+      for (int h = 0; h < HANDS; h++) {
+        pockets += StartingHandMatrix.getPockets(h);
+        played += StartingHandMatrix.getPockets(h) * strategy[h];
+      }
+
+      return played / pockets;
+    }
+
+    public int getPlayers() {
+      return players;
+    }
+
+    public double getStack() {
+      return stack;
+    }
+
+    public int getIterations() {
+      return iterations;
+    }
+
+    /**
+     * Largest gain, in big blinds, a player could get by deviating from
+     * the average strategies
+     *
+     * @return
+     */
+    public double getGap() {
+      return gap;
+    }
+
+    public String toString() {
+      StringBuilder out = new StringBuilder();
+      out.append("Stack (BB): ").append(stack).append(", players: ").append(players);
+      out.append(", iterations: ").append(iterations).append(", gap (BB): ").append(gap).append('\n');
+      for (int p = 0; p < players - 1; p++) {
+        out.append("Push ").append(p).append(':').append(hands(pushes[p])).append('\n');
+        for (int c = p + 1; c < players; c++)
+          out.append("Call ").append(c).append(" vs ").append(p).append(':').append(hands(calls[p][c])).append('\n');
+      }
+
+      return out.toString();
+    }
+
+    /**
+     * Lists the starting hands mostly played
+     */
+    private static String hands(double[] strategy) {
+      StringBuilder out = new StringBuilder();
+      for (int h = HANDS - 1; h >= 0; h--)
+        if (strategy[h] >= 0.5)
+          out.append(' ').append(StartingHandMatrix.nameOf(h));
+
+      return out.toString();
+    }
+  }
+
+  /**
+   * Prints the heads-up charts from 1 to 20 big blinds and the time
+   * taken to solve them. The matrix is
+   * read from the file given as first argument, or sampled and written
+   * to it when the file does not exist yet
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+
+    if (args.length < 1)
+      throw new IllegalArgumentException("Usage: PushFoldSolver <matrix file>");
+
+    File file = new File(args[0]);
+    StartingHandMatrix matrix;
+    if (file.exists()) {
+      matrix = StartingHandMatrix.load(file);
+    } else {
+      matrix = StartingHandMatrix.sample(10000, 0, Runtime.getRuntime().availableProcessors());
+      matrix.save(file);
+    }
+
+    PushFoldSolver solver = new PushFoldSolver(matrix);
+    long begin = System.currentTimeMillis();
+    for (int stack = 1; stack <= 20; stack++)
+      System.out.println(solver.solve(2, stack));
+
+    // Printing how long the charts took to solve
+    System.out.println("Solved in " + (System.currentTimeMillis() - begin) + " ms");
+  }
+}
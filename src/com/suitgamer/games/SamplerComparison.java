@@ -0,0 +1,193 @@
+package com.suitgamer.games;
+
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.suitgamer.ifaces.Sampler;
+import com.suitgamer.tools.*;
+
+/**
+ * Compares the precision of the variance reduction samplers against
+ * plain Monte-Carlo sampling on a Texas Hold'em scenario. Every method
+ * estimates the equity of the first player over a number of batches of
+ * the same size, the spread of the batch estimates tells how precise
+ * the method is. The ratio between the plain variance and the variance
+ * of a method is the number of plain hands each of its hands is worth
+ *
+ * Besides the samplers, the report includes a control variate
+ * estimator applied to plain sampling. Its control is the number of
+ * board cards which pair one of the first player's pocket ranks, whose
+ * expected value is known exactly from the cards left in the deck
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class SamplerComparison {
+
+  private static final String[] METHODS = { "Plain", "Stratified", "Antithetic", "Quasi-random", "Control variate" };
+
+  public static void main(String[] args) {
+
+    List<String> playersCards = new ArrayList<String>();
+    List<String> communitiesCards = new ArrayList<String>();
+
+    int handsPerBatch =           2000                        ;
+    int batches =                 50                          ;
+    playersCards.add(             "AS KS"                     );
+    playersCards.add(             "QD QH"                     );
+    communitiesCards.add(         "JS 7D 2C"                  );
+
+    System.out.println(compare(playersCards, communitiesCards, handsPerBatch, batches));
+  }
+
+  /**
+   * Runs every method over the given number of batches and returns a
+   * human readable report of the equity estimates of the first player
+   *
+   * @param playersCards Strings containing unparsed player cards
+   * @param communitiesCards Strings containing unparsed community cards
+   * @param handsPerBatch Number of games played by every batch
+   * @param batches Number of batches played by every method
+   * @return
+   */
+  public static String compare(List<String> playersCards, List<String> communitiesCards, int handsPerBatch, int batches) {
+
+    double[][] estimates = new double[METHODS.length][batches];
+    boolean control = true;
+
+    for (int b = 0; b < batches; b++) {
+      estimates[0][b] = play(playersCards, communitiesCards, new RandomSampler(), handsPerBatch, null);
+      estimates[1][b] = play(playersCards, communitiesCards, new StratifiedSampler(), handsPerBatch, null);
+      estimates[2][b] = play(playersCards, communitiesCards, new AntitheticSampler(), handsPerBatch, null);
+      estimates[3][b] = play(playersCards, communitiesCards, new QuasiRandomSampler(), handsPerBatch, null);
+
+      // Control variates need the pocket cards of the first player
+      double[] adjusted = new double[1];
+      control = control && !Double.isNaN(play(playersCards, communitiesCards, new RandomSampler(), handsPerBatch, adjusted));
+      estimates[4][b] = adjusted[0];
+    }
+
+    // Printing the precision of every method
+    DecimalFormat df = new DecimalFormat("0.0000");
+    DecimalFormat ratio = new DecimalFormat("0.00");
+    String divider = "-----------------------------------------\n";
+    StringBuilder out = new StringBuilder();
+
+    out.append("Sampler comparison").append('\n');
+    out.append("Hands per batch: ").append(handsPerBatch).append('\n');
+    out.append("Batches: ").append(batches).append('\n');
+    out.append('\n');
+    out.append(divider);
+
+    double plainVariance = variance(estimates[0]);
+    for (int m = 0; m < METHODS.length; m++) {
+
+      if (m == 4 && !control) {
+        out.append("Method: ").append(METHODS[m]).append(" (requires the first player's pocket cards)\n");
+        out.append(divider);
+        continue;
+      }
+
+      double variance = variance(estimates[m]);
+      double factor = plainVariance / variance;
+      out.append(
+        "Equity (%): " + df.format(mean(estimates[m]) * 100) + '\n' +
+        "Standard error (%): " + df.format(Math.sqrt(variance) * 100) + '\n' +
+        "Variance reduction: " + ratio.format(factor) + "x, " + ratio.format(100 * (1 - 1 / factor)) + "% fewer hands\n" +
+        "Method: " + METHODS[m] + '\n');
+      out.append(divider);
+    }
+
+    return out.toString();
+  }
+
+  /**
+   * Plays a batch of games and returns the equity of the first player.
+   * When an array is provided for the control variate estimate, its
+   * first element receives the equity adjusted by the control variate,
+   * or not a number if the first player holds no pocket cards
+   */
+  private static double play(List<String> playersCards, List<String> communitiesCards, Sampler sampler, int hands, double[] adjusted) {
+
+    List<Double> playersBank = new ArrayList<Double>();
+    for (int p = 0; p < playersCards.size(); p++)
+      playersBank.add(0d);
+
+    TexasHoldEmGame game = new TexasHoldEmGame();
+    game.setDeck(new PokerDeck());
+    game.setupPlayers(playersCards, playersBank, communitiesCards);
+    game.setSampler(sampler);
+
+    Player hero = game.getPlayer(0);
+    Player community = game.getCommunities().getPlayer(0);
+
+    // Ranks held by the first player, which the control looks after
+    boolean[] heroRanks = new boolean[PokerDeck.FACES.length()];
+    for (Card card : hero.getLockedHand().getCards())
+      heroRanks[PokerDeck.FACES.indexOf(card.getFace())] = true;
+
+    // Expected number of board cards pairing the first player
+    int boardCards = 5 - community.getNumberOfCardsOnHand();
+    int pairing = 0;
+    for (Card card : game.getDeck().getCards())
+      if (heroRanks[PokerDeck.FACES.indexOf(card.getFace())])
+        pairing++;
+    double expectedControl = (double) boardCards * pairing / game.getDeck().getSize();
+
+    double sumY = 0, sumC = 0, sumCC = 0, sumYC = 0;
+    for (int h = 0; h < hands; h++) {
+
+      // Equity won by the first player on this game alone
+      double before = hero.getWonPoints() + hero.getTiedPoints();
+      game.play();
+      double y = hero.getWonPoints() + hero.getTiedPoints() - before;
+
+      // Counting the dealt board cards which pair the first player
+      int c = 0;
+      for (Card card : community.getUnlockedHand().getCards())
+        if (heroRanks[PokerDeck.FACES.indexOf(card.getFace())])
+          c++;
+
+      sumY += y;
+      sumC += c;
+      sumCC += c * c;
+      sumYC += y * c;
+    }
+
+    double meanY = sumY / hands;
+
+    if (adjusted != null) {
+
+      // Control variates need a known pocket and some spread in the control
+      double meanC = sumC / hands;
+      double varianceC = sumCC / hands - meanC * meanC;
+      if (hero.getLockedHand().getSize() < 2 || varianceC <= 0) {
+        adjusted[0] = Double.NaN;
+        return Double.NaN;
+      }
+
+      // Regressing the equity on the control and removing its noise
+      double coefficient = (sumYC / hands - meanY * meanC) / varianceC;
+      adjusted[0] = meanY - coefficient * (meanC - expectedControl);
+    }
+
+    return meanY;
+  }
+
+  private static double mean(double[] values) {
+    double sum = 0;
+    for (double value : values)
+      sum += value;
+    return sum / values.length;
+  }
+
+  private static double variance(double[] values) {
+    double mean = mean(values);
+    double sum = 0;
+    for (double value : values)
+      sum += (value - mean) * (value - mean);
+    return sum / (values.length - 1);
+  }
+
+}
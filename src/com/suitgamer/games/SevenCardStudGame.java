@@ -69,6 +69,9 @@ class SevenCardStudGame extends Game {
     // Maximum score so far
     int[] maximumScore = evaluator.getScore();
 
+    // There are no community cards in this game
+    sampler.prepare(deck, 0);
+
     /*
      * Looping over each player, dealing as many necessary cards until each
      * player has at least 2 cards
@@ -78,7 +81,24 @@ class SevenCardStudGame extends Game {
       // Dealing pocket cards
       int initialNumberOfCards = player.getNumberOfCardsOnHand();
       for (int c = 0; c < numberOfCardsPerPlayer - initialNumberOfCards; c++)
-        player.getUnlockedHand().getCards().add(deck.dealRandomCard());
+        player.getUnlockedHand().getCards().add(sampler.deal(deck));
+    }
+
+    // Best hand combo any player can reach
+    int ceiling = pruning ? computeCeilings() : -1;
+
+    for (int p = 0; p < players.size(); p++) {
+      Player player = players.getPlayer(p);
+
+      // Can the player neither win nor tie? Then no need to score the hand
+      if (ceiling >= 0 && ceilings[p] < ceiling) {
+        prunedScores[p][0] = ceilings[p];
+        player.setPower(prunedScores[p]);
+        playersThatLost.addPlayer(player);
+        prunedEvaluations++;
+        continue;
+      }
+      fullEvaluations++;
 
       // Scoring current player hand
       evaluator.reset();
@@ -145,6 +165,9 @@ class SevenCardStudGame extends Game {
       player.lost();
 
     }
+
+    // Settling the pot, main and side pots, if playing all-in
+    settleShowdown();
   }
 
   @Override
@@ -24,19 +24,36 @@ public class SevenCardStudSimulator extends Simulator {
    * Runs a simulation of a seven card stud game
    */
   @Override
-  public void simulate() {
+  public void setup() {
 
     SevenCardStudGame specificGame = new SevenCardStudGame();
     specificGame.setDeck(new PokerDeck());
+    specificGame.setupDeadCards(deadCards);
     specificGame.setupPlayers(playersCards, playersBank, communitiesCards);
     specificGame.setCardsPerPlayer(7);
-    specificGame.play();
-    
+    specificGame.setShowdown(createShowdown());
+
     game = specificGame;
+  }
+
+  @Override
+  public void simulate() {
+
+    setup();
+    game.play();
 
     System.out.println("finished one game...");
   }
 
+  /**
+   * Only a single game is played whatever the number of simulations,
+   * so the results are not cached
+   */
+  @Override
+  public boolean isCacheable() {
+    return false;
+  }
+
   public void run() {
     simulate();
   }
@@ -0,0 +1,295 @@
+package com.suitgamer.games;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.suitgamer.tools.Group;
+import com.suitgamer.tools.Player;
+import com.suitgamer.tools.ResultStore;
+
+/**
+ * Remembers the results of simulated scenarios so that a scenario
+ * asked for again, or any scenario equal to it up to a permutation of
+ * the suits, is answered without playing a single game. Scenarios are
+ * told apart by {@link Simulator#getScenarioKey()}.
+ *
+ * Scenarios cached over fewer games than asked for are refined rather
+ * than simulated again from scratch, see {@link #simulate(Simulator)}.
+ * The cache holds a bounded number of scenarios and evicts the least
+ * recently used one when full. Hits, misses and evictions are counted
+ * so the cache can be sized after the workload.
+ *
+ * A {@link ResultStore} can back the cache, scenarios missing from
+ * memory are then looked up in the store before being simulated and
+ * every simulated scenario is appended to it
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class SimulationCache {
+
+  /**
+   * Results of a scenario, the tallies of its players and the number
+   * of games they were played over
+   */
+  private static class Entry {
+    Group players;
+    long simulations;
+  }
+
+  private int capacity;
+
+  private Map<String, Entry> entries;
+
+  private ResultStore store;
+
+  private long hits;
+  private long misses;
+  private long evictions;
+  private long refinements;
+
+  /**
+   * Creates a cache holding at most the given number of scenarios
+   *
+   * @param capacity
+   */
+  public SimulationCache(int capacity) {
+
+    if (capacity < 1)
+      throw new IllegalArgumentException("Cache capacity can not be less than one.");
+
+    this.capacity = capacity;
+
+    // Keeping entries in access order, the eldest is the least recently used
+    entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        if (size() <= SimulationCache.this.capacity)
+          return false;
+
+        evictions++;
+        return true;
+      }
+    };
+  }
+
+  /**
+   * Simulates the scenario of the given simulator, unless results over
+   * at least as many games are cached, in which case the game of the
+   * simulator is only set up and handed the cached tallies. Results
+   * cached over fewer games are refined, only the missing games are
+   * played and merged into the cached tallies. Exact results, see
+   * {@link Simulator#isExact()}, replace the cached ones instead
+   *
+   * @param simulator
+   */
+  public void simulate(Simulator simulator) {
+
+    // All-in results depend on the banks and are not cached, nor are
+    // the results of simulators not playing the games they report
+    if (simulator.isAllIn() || !simulator.isCacheable()) {
+      simulator.simulate();
+      return;
+    }
+
+    String key = simulator.getScenarioKey();
+    long requested = simulator.getSimulations();
+
+    Entry entry = lookup(key);
+    synchronized (this) {
+      if (entry != null && entry.simulations >= requested) {
+        hits++;
+      } else if (entry != null) {
+        refinements++;
+      } else {
+        misses++;
+      }
+    }
+
+    // Answering from the cache
+    if (entry != null && entry.simulations >= requested) {
+      simulator.setup();
+      simulator.getGame().getPlayers().aggregate(entry.players);
+      simulator.setSimulations(entry.simulations);
+      return;
+    }
+
+    // Playing only the games the cached results lack
+    long extra = requested - (entry == null ? 0 : entry.simulations);
+    simulator.setSimulations(extra);
+    simulator.simulate();
+
+    // Refusing tallies over another number of games than reported
+    if (!simulator.isExact()) {
+      Player first = simulator.getGame().getPlayer(0);
+      long played = first.getWonGames() + first.getTiedGames() + first.getLostGames();
+      if (simulator.getSimulations() != extra || played != extra)
+        throw new IllegalStateException("Simulator played " + played + " games instead of " + extra + ", its results can not be cached");
+    }
+
+    // Merging the cached tallies, unless the results are exact
+    if (entry != null && !simulator.isExact()) {
+      simulator.getGame().getPlayers().aggregate(entry.players);
+      simulator.setSimulations(requested);
+    }
+
+    // Remembering a copy of the tallies, the game keeps playing with its own
+    Entry refined = new Entry();
+    refined.players = copy(simulator.getGame().getPlayers());
+    refined.simulations = simulator.getSimulations();
+
+    boolean stored = false;
+    synchronized (this) {
+      Entry cached = entries.get(key);
+      if (cached == null || cached.simulations < refined.simulations) {
+        entries.put(key, refined);
+        stored = true;
+      }
+    }
+
+    if (stored && store != null) {
+      try {
+        store.put(key, refined.players, refined.simulations);
+      } catch (IOException e) {
+        throw new IllegalStateException("Could not store the results of scenario " + key, e);
+      }
+    }
+  }
+
+  /**
+   * Returns the cached results of a scenario, reading them from the
+   * store when they are not in memory
+   */
+  private Entry lookup(String key) {
+
+    Entry entry;
+    synchronized (this) {
+      entry = entries.get(key);
+    }
+    if (entry != null || store == null)
+      return entry;
+
+    ResultStore.Result result;
+    try {
+      result = store.get(key);
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not read the results of scenario " + key, e);
+    }
+    if (result == null)
+      return null;
+
+    entry = new Entry();
+    entry.players = result.getPlayers();
+    entry.simulations = result.getSimulations();
+
+    synchronized (this) {
+      Entry cached = entries.get(key);
+      if (cached != null && cached.simulations >= entry.simulations)
+        return cached;
+
+      entries.put(key, entry);
+      return entry;
+    }
+  }
+
+  /**
+   * Simulates the scenario of the given simulator over as many games
+   * as needed for the equity of every player to be known within the
+   * given standard error, and at least over as many games as the
+   * simulator asks for. The equity a player wins over n games has a
+   * standard error of at most sqrt(p(1 - p) / n), p is taken from the
+   * cached results if any, else the worst case of one half is assumed
+   *
+   * @param simulator
+   * @param standardError Target standard error of the equities, such as 0.001
+   */
+  public void simulate(Simulator simulator, double standardError) {
+
+    if (!(standardError > 0))
+      throw new IllegalArgumentException("Standard error must be positive.");
+
+    Entry entry = lookup(simulator.getScenarioKey());
+
+    // Worst case variance of the share of the pot won on a single game
+    double variance = 0.25;
+    if (entry != null && entry.simulations > 0) {
+      variance = 0;
+      for (Player player : entry.players.getPlayers()) {
+        double p = (player.getWonPoints() + player.getTiedPoints()) / entry.simulations;
+        variance = Math.max(variance, p * (1 - p));
+      }
+    }
+
+    long needed = (long) Math.ceil(variance / (standardError * standardError));
+    simulator.setSimulations(Math.max(simulator.getSimulations(), needed));
+    simulate(simulator);
+  }
+
+  /**
+   * Copies the tallies of a group of players
+   */
+  private static Group copy(Group players) {
+    Group copy = new Group();
+    for (Player player : players.getPlayers()) {
+      Player tallies = new Player(player.getName());
+      tallies.aggregate(player);
+      copy.addPlayer(tallies);
+    }
+
+    return copy;
+  }
+
+  public synchronized ResultStore getStore() {
+    return store;
+  }
+
+  public synchronized void setStore(ResultStore store) {
+    this.store = store;
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  public synchronized long getEvictions() {
+    return evictions;
+  }
+
+  public synchronized long getRefinements() {
+    return refinements;
+  }
+
+  /**
+   * Returns the share of lookups answered from the cache
+   *
+   * @return
+   */
+  public synchronized double getHitRatio() {
+    long lookups = hits + refinements + misses;
+    return lookups == 0 ? 0 : (double) hits / lookups;
+  }
+
+  public synchronized String toString() {
+    return "Simulation cache: " + entries.size() + "/" + capacity + " scenarios, " +
+      hits + " hits, " + refinements + " refinements, " + misses + " misses, " + evictions + " evictions";
+  }
+
+}
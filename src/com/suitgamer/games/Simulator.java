@@ -5,16 +5,28 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.suitgamer.ifaces.Aggregable;
+import com.suitgamer.tools.IcmCalculator;
 import com.suitgamer.tools.Player;
+import com.suitgamer.tools.Showdown;
+import com.suitgamer.tools.SuitCanonicalizer;
 
 public abstract class Simulator implements Runnable, Aggregable<Simulator> {
 
   protected String name;
   protected Game game;
-  protected int simulations;
+  protected long simulations;
   protected List<String> playersCards;
   protected List<String> communitiesCards;
   protected List<Double> playersBank;
+  protected String deadCards = "";
+  protected boolean allIn = false;
+  protected List<Double> payouts;
+
+  /**
+   * Whether or not the last simulation answered with exact results
+   * rather than by playing the games asked for
+   */
+  protected boolean exact = false;
   
   public void aggregate(Simulator simulator) {
     simulations = simulations + simulator.getSimulations();
@@ -34,14 +46,17 @@ public abstract class Simulator implements Runnable, Aggregable<Simulator> {
     out.append('\n');
     out.append(divider);
 
+    // Prize equities are computed once for every player
+    double[] prizes = game.getShowdown() == null ? null : game.getShowdown().getPrizeExpectedValues();
+
     for (Player player : game.getPlayers().getPlayers()) {
 
       /*
        * Calculating winning ratio, advantage, completeness advantage, winning
        * likelihood, etc
        */
-      int wonGames = player.getWonGames();
-      int tiedGames = player.getTiedGames();
+      long wonGames = player.getWonGames();
+      long tiedGames = player.getTiedGames();
       double wonPoints = player.getWonPoints();
       double tiedPoints = player.getTiedPoints();
       double totalPoints = wonPoints + tiedPoints;
@@ -78,22 +93,57 @@ public abstract class Simulator implements Runnable, Aggregable<Simulator> {
        "Advantage (%): " + df.format(advantageOnPoints * 100) + " ~ " + df.format(advantageOnGames * 100) + '\n' +
        "Max in Pot ($): " + df.format(advantageOnPoints * bank) + " ~ " + df.format(advantageOnGames * bank)  + '\n' +
        "Won/Tied Games: " + wonGames + '/' + tiedGames + '\n' +
-       "Won/Tied Points: " + df.format(wonPoints) + '/' + df.format(tiedPoints) + '\n' +
-       "Player: " + player.getName() + '\n');
+       "Won/Tied Points: " + df.format(wonPoints) + '/' + df.format(tiedPoints) + '\n');
+
+      // Printing the expected value of the all-in
+      if (game.getShowdown() != null)
+        out.append("EV ($): " + df.format(game.getShowdown().getExpectedValue(game.getPlayers().getPlayers().indexOf(player))) + '\n');
+      if (prizes != null)
+        out.append("ICM EV ($): " + df.format(prizes[game.getPlayers().getPlayers().indexOf(player)]) + '\n');
+
+      out.append("Player: " + player.getName() + '\n');
       
       out.append(divider);
 
     }
     
+    // Printing how many hands were left out of the full evaluation
+    long evaluations = game.getPrunedEvaluations() + game.getFullEvaluations();
+    if (game.isPruning() && evaluations > 0)
+      out.append("Pruned Evaluations (%): " + df.format(100d * game.getPrunedEvaluations() / evaluations) + " of " + evaluations + '\n');
+
     out.append('\n');
     out.append("Bye.");
     return out.toString();
   }
   
-  public int getSimulations() {
+  public long getSimulations() {
     return simulations;
   }
 
+  /**
+   * Returns whether or not the last simulation was answered with exact
+   * results, such as from a table, rather than by playing the games
+   * asked for. The number of simulations is then the number of games
+   * the exact results stand for
+   *
+   * @return
+   */
+  public boolean isExact() {
+    return exact;
+  }
+
+  /**
+   * Returns whether or not the simulator plays as many games as its
+   * number of simulations, which is what caching its results takes,
+   * see {@link SimulationCache}
+   *
+   * @return
+   */
+  public boolean isCacheable() {
+    return true;
+  }
+
   public List<String> getPlayersCards() {
     return playersCards;
   }
@@ -106,7 +156,7 @@ public abstract class Simulator implements Runnable, Aggregable<Simulator> {
     return playersBank;
   }
 
-  public void setSimulations(int simulations) {
+  public void setSimulations(long simulations) {
     this.simulations = simulations;
   }
 
@@ -122,6 +172,80 @@ public abstract class Simulator implements Runnable, Aggregable<Simulator> {
     this.playersBank = playersBank;
   }
 
+  public boolean isAllIn() {
+    return allIn;
+  }
+
+  /**
+   * Whether or not every game is an all-in of every player putting in
+   * its whole bank, the pot is then settled with side pots and the
+   * expected value of every player is reported
+   *
+   * @param allIn
+   */
+  public void setAllIn(boolean allIn) {
+    this.allIn = allIn;
+  }
+
+  /**
+   * Returns the showdown settling the all-in of every player with its
+   * bank, null unless {@link #setAllIn(boolean)} is on
+   *
+   * @return
+   */
+  protected Showdown createShowdown() {
+    if (!allIn)
+      return null;
+
+    double[] stacks = new double[playersBank.size()];
+    for (int p = 0; p < stacks.length; p++)
+      stacks[p] = playersBank.get(p);
+
+    Showdown showdown = new Showdown(stacks, 0);
+    if (payouts != null && !payouts.isEmpty()) {
+      double[] prizes = new double[payouts.size()];
+      for (int p = 0; p < prizes.length; p++)
+        prizes[p] = payouts.get(p);
+      showdown.setIcm(new IcmCalculator(prizes), new double[0]);
+    }
+
+    return showdown;
+  }
+
+  public List<Double> getPayouts() {
+    return payouts;
+  }
+
+  /**
+   * Prize of every place of the tournament, first place first. When
+   * playing all-in the prize equity every player gains is then
+   * reported along with its expected value in chips
+   *
+   * @param payouts
+   */
+  public void setPayouts(List<Double> payouts) {
+    this.payouts = payouts;
+  }
+
+  public String getDeadCards() {
+    return deadCards;
+  }
+
+  public void setDeadCards(String deadCards) {
+    this.deadCards = deadCards;
+  }
+
+  /**
+   * Returns a key shared by every scenario with the same results as
+   * this one, that is the same game and the same cards up to a
+   * permutation of the suits, see {@link SuitCanonicalizer}
+   *
+   * @return
+   */
+  public String getScenarioKey() {
+    return name + ':' + SuitCanonicalizer.canonicalize(playersCards, communitiesCards, deadCards);
+  }
+
   public Game getGame() {
     return game;
   }
@@ -130,6 +254,12 @@ public abstract class Simulator implements Runnable, Aggregable<Simulator> {
     this.game = game;
   }
   
+  /**
+   * Sets the game up, deck, dead cards and players, without playing
+   * any game
+   */
+  public abstract void setup ();
+
   public abstract void simulate ();
 
 }
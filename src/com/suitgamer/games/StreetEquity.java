@@ -0,0 +1,550 @@
+package com.suitgamer.games;
+
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.suitgamer.tools.*;
+
+/**
+ * Computes in a single pass the exact equity of every player of a
+ * Texas Hold'em hand on the current street and on every street to
+ * come. Every runout of the board is enumerated once and scored once
+ * per player with {@link BitmaskHandEvaluator}, its result is then
+ * credited to every node of the runout tree it passes through:
+ *
+ * <ul>
+ * <li>The current street, every runout passes through it</li>
+ * <li>Every possible next street, that is every flop preflop, or
+ * every turn or river card, the per card breakdown of the equity</li>
+ * <li>The later streets of the runout that actually came, if one is
+ * given, see {@link #setRunout(String)}</li>
+ * </ul>
+ *
+ * The equity of a node is the average result of the runouts going
+ * through it, so the equities of every street cost about as much as
+ * the equity of the current street alone. Runouts are walked in
+ * revolving door order (see {@link RevolvingDoor}), every runout
+ * differs from the previous one by a single card, and split in
+ * contiguous ranks of that order among as many threads as requested.
+ * When the known cards leave suits interchangeable (see
+ * {@link SuitSymmetry}) only one runout of every set of equivalent
+ * runouts is scored. Its result is credited with the number of
+ * runouts it stands for, and the nodes are averaged over the suit
+ * permutations at the end
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class StreetEquity {
+
+  /**
+   * Number of board cards on the flop, turn and river
+   */
+  private static final int[] STREETS = { 3, 4, 5 };
+
+  /**
+   * Card masks of the pocket cards of every player
+   */
+  private long[] pockets;
+
+  /**
+   * Mask of the known board cards
+   */
+  private long board;
+
+  /**
+   * Mask of the cards known to be out of the deck
+   */
+  private long dead;
+
+  /**
+   * Cards that actually came after the known board, in order
+   */
+  private int[] runout = new int[0];
+
+  /**
+   * Whether or not only one runout of every set of runouts equivalent
+   * by suits is scored
+   */
+  private boolean symmetric = true;
+
+  /**
+   * Indexes the runouts and the next streets among the cards left
+   */
+  private DeckIndexer indexer;
+  private DeckIndexer nextIndexer;
+
+  /**
+   * Suits the known cards leave interchangeable
+   */
+  private SuitSymmetry symmetry;
+
+  /**
+   * Number of cards missing from the board
+   */
+  private int missing;
+
+  /**
+   * Number of cards the next street adds to the board, zero on the
+   * river
+   */
+  private int next;
+
+  /**
+   * Share of the pot won by every player summed over the runouts of
+   * the current street, of every next street node and of every street
+   * of the runout that came
+   */
+  private double[] current;
+  private double[][] nexts;
+  private double[][] streets;
+
+  /**
+   * Number of runouts through the current street, every next street
+   * node and every street of the runout that came
+   */
+  private long runouts;
+  private long nextRunouts;
+  private long[] streetRunouts;
+
+  /**
+   * Sets up the hand, cards are space separated lists such as
+   * 'JS 7D 2C'
+   *
+   * @param playersCards The two pocket cards of every player
+   * @param board Known board cards, zero to five cards
+   * @param dead Cards out of the deck, may be empty
+   */
+  public StreetEquity(List<String> playersCards, String board, String dead) {
+
+    if (playersCards.size() < 2)
+      throw new IllegalArgumentException("At least two players are needed");
+
+    pockets = new long[playersCards.size()];
+    long used = 0;
+    for (int p = 0; p < pockets.length; p++) {
+      pockets[p] = PokerDeck.parseMask(playersCards.get(p));
+      if (Long.bitCount(pockets[p]) != 2)
+        throw new IllegalArgumentException("Player " + p + " must hold two known pocket cards");
+      if ((used & pockets[p]) != 0)
+        throw new IllegalArgumentException("Player " + p + " holds cards already in use");
+      used |= pockets[p];
+    }
+
+    this.board = PokerDeck.parseMask(board);
+    this.dead = PokerDeck.parseMask(dead);
+
+    int cards = Long.bitCount(this.board);
+    if (cards > 5 || cards == 1 || cards == 2)
+      throw new IllegalArgumentException("A board holds zero, three, four or five cards");
+    if ((used & this.board) != 0 || ((used | this.board) & this.dead) != 0)
+      throw new IllegalArgumentException("Pocket, board and dead cards overlap");
+  }
+
+  /**
+   * Sets the cards that actually came after the known board, the
+   * equities of the streets they make are then computed along with
+   * the others
+   *
+   * @param runout Space separated cards in the order they came
+   */
+  public void setRunout(String runout) {
+    int[] cards = PokerDeck.parseCards(runout);
+
+    long mask = 0;
+    for (int card : cards)
+      mask |= PokerDeck.maskOf(card);
+    if (Long.bitCount(mask) != cards.length || (mask & (board | dead)) != 0)
+      throw new IllegalArgumentException("Runout cards repeat or overlap known cards");
+    for (long pocket : pockets)
+      if ((mask & pocket) != 0)
+        throw new IllegalArgumentException("Runout cards overlap pocket cards");
+    if (Long.bitCount(board) + cards.length > 5)
+      throw new IllegalArgumentException("A board can not have more than five cards");
+
+    this.runout = cards;
+  }
+
+  /**
+   * Sets whether or not only one runout of every set of runouts
+   * equivalent by suits is scored, see {@link SuitSymmetry}. On by
+   * default, turning it off scores every runout, mostly useful to check
+   * the reduction
+   *
+   * @param symmetric
+   */
+  public void setSymmetric(boolean symmetric) {
+    this.symmetric = symmetric;
+  }
+
+  public boolean isSymmetric() {
+    return symmetric;
+  }
+
+  /**
+   * Enumerates every runout with the given number of threads
+   *
+   * @param threads
+   * @throws InterruptedException
+   */
+  public void compute(int threads) throws InterruptedException {
+
+    if (threads < 1)
+      throw new IllegalArgumentException("Number of threads can not be less than one.");
+
+    // Cards runouts are made of
+    long used = board | dead;
+    for (long pocket : pockets)
+      used |= pocket;
+    int known = Long.bitCount(board);
+    missing = 5 - known;
+    next = known == 0 ? 3 : (known < 5 ? 1 : 0);
+    indexer = new DeckIndexer(~used, missing);
+
+    // Pockets, board and dead cards must all be left as they are
+    long[] groups = new long[pockets.length + 2];
+    System.arraycopy(pockets, 0, groups, 0, pockets.length);
+    groups[pockets.length] = board;
+    groups[pockets.length + 1] = dead;
+    if (!symmetric) {
+      // A group holding a different rank in every suit tells every suit apart
+      groups = Arrays.copyOf(groups, groups.length + 1);
+      groups[groups.length - 1] = 0x0008000400020001L;
+    }
+    symmetry = new SuitSymmetry(groups);
+    nextIndexer = new DeckIndexer(~used, next);
+
+    // Masks of the streets the runout that came makes
+    final List<Long> prefixes = new ArrayList<Long>();
+    long prefix = 0;
+    for (int r = 0; r < runout.length; r++) {
+      prefix |= PokerDeck.maskOf(runout[r]);
+      int street = known + r + 1;
+      for (int s : STREETS)
+        if (s == street)
+          prefixes.add(prefix);
+    }
+
+    final long total = indexer.size();
+    final int nodes = next == 0 ? 0 : (int) nextIndexer.size();
+
+    // Splitting runouts in contiguous ranks
+    long[] bounds = indexer.partition(threads);
+    List<Tally> tallies = new ArrayList<Tally>();
+    List<Thread> workers = new ArrayList<Thread>();
+    for (int t = 0; t < threads; t++) {
+      final Tally tally = new Tally(nodes, prefixes);
+      final long from = bounds[t];
+      final long to = bounds[t + 1];
+      tallies.add(tally);
+      workers.add(new Thread(new Runnable() {
+        public void run() {
+          tally.runouts(from, to);
+        }
+      }));
+    }
+
+    for (Thread worker : workers)
+      worker.start();
+    for (Thread worker : workers)
+      worker.join();
+
+    // Aggregating the work of every thread
+    current = new double[pockets.length];
+    nexts = new double[nodes][pockets.length];
+    streets = new double[prefixes.size()][pockets.length];
+    streetRunouts = new long[prefixes.size()];
+    for (Tally tally : tallies) {
+      for (int p = 0; p < pockets.length; p++) {
+        current[p] += tally.current[p];
+        for (int n = 0; n < nodes; n++)
+          nexts[n][p] += tally.nexts[n][p];
+        for (int s = 0; s < streets.length; s++)
+          streets[s][p] += tally.streets[s][p];
+      }
+      for (int s = 0; s < streets.length; s++)
+        streetRunouts[s] += tally.streetRunouts[s];
+    }
+
+    // Spreading the results of canonical runouts back to every node
+    if (!symmetry.isTrivial()) {
+      double[][] canonical = nexts;
+      nexts = new double[nodes][pockets.length];
+      for (int n = 0; n < nodes; n++) {
+        long mask = nextIndexer.mask(n);
+        for (int i = 0; i < symmetry.size(); i++) {
+          int image = (int) nextIndexer.index(symmetry.permute(mask, i));
+          for (int p = 0; p < pockets.length; p++)
+            nexts[n][p] += canonical[image][p] / symmetry.size();
+        }
+      }
+      for (int s = 0; s < streets.length; s++) {
+        for (int p = 0; p < pockets.length; p++)
+          streets[s][p] /= symmetry.size();
+        streetRunouts[s] /= symmetry.size();
+      }
+    }
+
+    runouts = total;
+    nextRunouts = Combinations.binomial(indexer.getLiveSize() - next, missing - next);
+  }
+
+  /**
+   * Credits runouts to the nodes they pass through, every thread owns
+   * one tally
+   */
+  private class Tally {
+
+    double[] current = new double[pockets.length];
+    double[][] nexts;
+    double[][] streets;
+    long[] streetRunouts;
+
+    long[][] prefixes;
+    int[] positions = new int[5];
+    double[] shares = new double[pockets.length];
+    int[] scores = new int[pockets.length];
+    long[] hands = new long[pockets.length];
+    int[] flop = new int[3];
+
+    Tally(int nodes, List<Long> prefixes) {
+      this.nexts = new double[nodes][pockets.length];
+      this.streets = new double[prefixes.size()][pockets.length];
+      this.streetRunouts = new long[prefixes.size()];
+      this.prefixes = new long[prefixes.size()][symmetry.size()];
+      for (int s = 0; s < prefixes.size(); s++)
+        for (int i = 0; i < symmetry.size(); i++)
+          this.prefixes[s][i] = symmetry.permute(prefixes.get(s), i);
+    }
+
+    /**
+     * Walks the runouts of the given ranks in revolving door order, so
+     * that the masks of the board and of the hands of the players
+     * change by a single card swap from one runout to the next. Every
+     * hand is then scored in full by {@link BitmaskHandEvaluator},
+     * counting its ranks and suits again costing next to nothing
+     * besides the scoring itself
+     */
+    void runouts(long from, long to) {
+
+      if (from >= to)
+        return;
+
+      RevolvingDoor door = new RevolvingDoor(indexer.getLiveSize(), missing, from);
+      door.get(positions);
+      long cards = board;
+      for (int c = 0; c < missing; c++)
+        cards |= PokerDeck.maskOf(indexer.getCard(positions[c]));
+      for (int p = 0; p < pockets.length; p++)
+        hands[p] = cards | pockets[p];
+
+      for (long rank = from; rank < to; rank++) {
+
+        runout(cards);
+
+        // Swapping the card leaving the board for the card entering it
+        if (rank + 1 < to && door.next()) {
+          long swap = PokerDeck.maskOf(indexer.getCard(door.getOut())) | PokerDeck.maskOf(indexer.getCard(door.getIn()));
+          cards ^= swap;
+          for (int p = 0; p < pockets.length; p++)
+            hands[p] ^= swap;
+          door.get(positions);
+        }
+      }
+    }
+
+    private void runout(long cards) {
+
+      // Leaving equivalent runouts to their canonical one
+      int weight = symmetry.isTrivial() ? 1 : symmetry.weight(cards ^ board);
+      if (weight == 0)
+        return;
+
+      // Scoring every player once
+      int best = 0;
+      int winners = 0;
+      for (int p = 0; p < pockets.length; p++) {
+        scores[p] = BitmaskHandEvaluator.evaluate(hands[p]);
+        if (scores[p] > best) {
+          best = scores[p];
+          winners = 1;
+        } else if (scores[p] == best) {
+          winners++;
+        }
+      }
+      for (int p = 0; p < pockets.length; p++)
+        shares[p] = scores[p] == best ? (double) weight / winners : 0;
+
+      credit(cards, weight);
+    }
+
+    /**
+     * Credits the result of the runout, weighted by the number of
+     * runouts it stands for, to the nodes it goes through
+     */
+    private void credit(long cards, int weight) {
+
+      // Crediting the current street
+      add(current);
+
+      // Crediting the next street nodes this runout goes through
+      if (next == 1) {
+        for (int i = 0; i < missing; i++)
+          add(nexts[positions[i]]);
+      } else if (next == 3) {
+        for (int k = 2; k < missing; k++) {
+          flop[2] = positions[k];
+          for (int j = 1; j < k; j++) {
+            flop[1] = positions[j];
+            for (int i = 0; i < j; i++) {
+              flop[0] = positions[i];
+              add(nexts[(int) Combinations.rank(flop, 3)]);
+            }
+          }
+        }
+      }
+
+      // Crediting the streets of the runout that came, under every suit permutation
+      for (int s = 0; s < prefixes.length; s++) {
+        for (int i = 0; i < prefixes[s].length; i++) {
+          if ((cards & prefixes[s][i]) == prefixes[s][i]) {
+            add(streets[s]);
+            streetRunouts[s] += weight;
+          }
+        }
+      }
+    }
+
+    private void add(double[] sums) {
+      for (int p = 0; p < sums.length; p++)
+        sums[p] += shares[p];
+    }
+  }
+
+  /**
+   * Returns the share of the pot the player is expected to win on the
+   * current street, ties are split among the winners
+   *
+   * @param player
+   * @return
+   */
+  public double getEquity(int player) {
+    return current[player] / runouts;
+  }
+
+  /**
+   * Returns the number of streets of the runout that came, see
+   * {@link #setRunout(String)}
+   *
+   * @return
+   */
+  public int getStreets() {
+    return streets.length;
+  }
+
+  /**
+   * Returns the equity of the player on the given street of the
+   * runout that came, the first street after the known board first
+   *
+   * @param street
+   * @param player
+   * @return
+   */
+  public double getStreetEquity(int street, int player) {
+    return streets[street][player] / streetRunouts[street];
+  }
+
+  /**
+   * Returns the number of possible next streets, that is the number
+   * of flops, turn or river cards, zero on the river
+   *
+   * @return
+   */
+  public int getNextSize() {
+    return nexts.length;
+  }
+
+  /**
+   * Returns the cards the given next street adds to the board
+   *
+   * @param node Number from 0 to {@link #getNextSize()} - 1
+   * @return
+   */
+  public String getNextCards(int node) {
+    int[] positions = new int[3];
+    nextIndexer.cards(node, positions);
+
+    StringBuilder cards = new StringBuilder();
+    for (int c = next - 1; c >= 0; c--) {
+      if (cards.length() > 0)
+        cards.append(' ');
+      cards.append(PokerDeck.faceOf(positions[c]));
+      cards.append(PokerDeck.suitOf(positions[c]));
+    }
+
+    return cards.toString();
+  }
+
+  /**
+   * Returns the node of the next street adding the given cards to the
+   * board
+   *
+   * @param cards Mask of the cards, see {@link PokerDeck#maskOf(int)}
+   * @return
+   */
+  public int getNextNode(long cards) {
+    return (int) nextIndexer.index(cards);
+  }
+
+  /**
+   * Returns the equity of the player once the given next street came
+   *
+   * @param node Number from 0 to {@link #getNextSize()} - 1
+   * @param player
+   * @return
+   */
+  public double getNextEquity(int node, int player) {
+    return nexts[node][player] / nextRunouts;
+  }
+
+  public long getRunouts() {
+    return runouts;
+  }
+
+  public String toString() {
+
+    DecimalFormat df = new DecimalFormat("00.00");
+    String divider = "-----------------------------------------\n";
+    StringBuilder out = new StringBuilder();
+
+    out.append("Street equity").append('\n');
+    out.append("Runouts: ").append(runouts).append('\n');
+    out.append('\n');
+    out.append(divider);
+
+    for (int p = 0; p < pockets.length; p++) {
+      out.append("Equity (%): ").append(df.format(getEquity(p) * 100));
+      for (int s = 0; s < streets.length; s++)
+        out.append(" > ").append(df.format(getStreetEquity(s, p) * 100));
+      out.append('\n');
+      out.append("Player: ").append(p).append('\n');
+      out.append(divider);
+    }
+
+    // Breaking the equity down per turn or river card
+    if (next == 1) {
+      for (int n = 0; n < nexts.length; n++) {
+        out.append(getNextCards(n)).append(':');
+        for (int p = 0; p < pockets.length; p++)
+          out.append(' ').append(df.format(getNextEquity(n, p) * 100));
+        out.append('\n');
+      }
+      out.append(divider);
+    }
+
+    return out.toString();
+  }
+
+}
@@ -2,7 +2,9 @@ package com.suitgamer.games;
 
 import com.suitgamer.tools.*;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 /**
  * Simulates a single game of a flavor of Poker called 'Texas Hold Em' Before
@@ -16,6 +18,27 @@ import java.util.List;
  */
 class TexasHoldEmGame extends Game {
 
+  /**
+   * Maximum number of times the combos of all ranged players are
+   * sampled before giving up on finding combos that do not collide
+   */
+  private static final int MAXIMUM_RANGE_ATTEMPTS = 100000;
+
+  /**
+   * Players whose pocket cards are given as a range
+   */
+  private List<Player> rangedPlayers = new ArrayList<Player>();
+
+  /**
+   * Combos sampled for each ranged player on the current game
+   */
+  private int[] rangedCombos = new int[0];
+
+  /**
+   * Random number generator used to sample the ranges
+   */
+  private Random random = new Random();
+
   /**
    * Instantiates the players, player that have won, players that have lost,
    * community cards, the deck to be used and the Poker hand evaluator to define
@@ -47,6 +70,14 @@ class TexasHoldEmGame extends Game {
 
       // Parsing player card
       playerCards = playersCards.get(p).trim();
+
+      // Was a range provided for this player?
+      if (Range.isRange(playerCards)) {
+        player.setRange(Range.parse(playerCards));
+        rangedPlayers.add(player);
+        playerCards = "";
+      }
+
       playerCards = playerCards.toUpperCase();
 
       // Where any cards provided for this player?
@@ -87,7 +118,60 @@ class TexasHoldEmGame extends Game {
       
       addCommunity(community);
     }
-}
+
+    // Leaving out of the ranges the combos colliding with locked or dead cards
+    long deadMask = ~PokerDeck.maskOf(deck);
+
+    for (Player player : rangedPlayers)
+      player.getRange().prepare(deadMask);
+    rangedCombos = new int[rangedPlayers.size()];
+  }
+
+  /**
+   * Deals every ranged player one combo of its range. Combos are
+   * sampled by weight for all ranged players at once and the whole
+   * sample is rejected if any two combos collide, so that the combos
+   * follow the joint distribution of the ranges. Ranges are dealt
+   * before the board so the board does not bias the combos
+   */
+  private void dealRanges() {
+
+    if (rangedPlayers.isEmpty())
+      return;
+
+    for (int attempt = 0; ; attempt++) {
+
+      if (attempt == MAXIMUM_RANGE_ATTEMPTS)
+        throw new IllegalStateException("Ranges of players can not be dealt without colliding");
+
+      // Sampling one combo per player, checking collisions on the fly
+      long used = 0;
+      boolean collided = false;
+      for (int p = 0; p < rangedPlayers.size(); p++) {
+        Range range = rangedPlayers.get(p).getRange();
+        int combo = range.sample(random);
+        if ((used & range.getMask(combo)) != 0) {
+          collided = true;
+          break;
+        }
+        used |= range.getMask(combo);
+        rangedCombos[p] = combo;
+      }
+
+      if (!collided)
+        break;
+    }
+
+    // Dealing the sampled combos out of the deck
+    for (int p = 0; p < rangedPlayers.size(); p++) {
+      Player player = rangedPlayers.get(p);
+      Range range = player.getRange();
+      int first = range.getFirst(rangedCombos[p]);
+      int second = range.getSecond(rangedCombos[p]);
+      player.getUnlockedHand().getCards().add(deck.dealSpecificCard(PokerDeck.faceOf(first), PokerDeck.suitOf(first)));
+      player.getUnlockedHand().getCards().add(deck.dealSpecificCard(PokerDeck.faceOf(second), PokerDeck.suitOf(second)));
+    }
+  }
 
   /**
    * Deals unlocked (random) cards to all players until they reach their limit,
@@ -103,35 +187,17 @@ class TexasHoldEmGame extends Game {
     // Resetting game scenario
     reset();
 
+    // Dealing the pocket cards of players given as a range
+    dealRanges();
+
     /*
      * Making sure the community cards in the game have the flop, turn and
      * river. That is the community must always have five cards
      */
-    switch (community.getNumberOfCardsOnHand()) {
-    case 0:
-      community.getUnlockedHand().getCards().add(deck.dealRandomCard());
-      community.getUnlockedHand().getCards().add(deck.dealRandomCard());
-      community.getUnlockedHand().getCards().add(deck.dealRandomCard());
-      community.getUnlockedHand().getCards().add(deck.dealRandomCard());
-      community.getUnlockedHand().getCards().add(deck.dealRandomCard());
-      break;
-    case 1:
-      community.getUnlockedHand().getCards().add(deck.dealRandomCard());
-      community.getUnlockedHand().getCards().add(deck.dealRandomCard());
-      community.getUnlockedHand().getCards().add(deck.dealRandomCard());
-      community.getUnlockedHand().getCards().add(deck.dealRandomCard());
-      break;
-    case 2:
-      community.getUnlockedHand().getCards().add(deck.dealRandomCard());
-      community.getUnlockedHand().getCards().add(deck.dealRandomCard());
-      community.getUnlockedHand().getCards().add(deck.dealRandomCard());
-    case 3:
-      community.getUnlockedHand().getCards().add(deck.dealRandomCard());
-      community.getUnlockedHand().getCards().add(deck.dealRandomCard());
-    case 4:
-      community.getUnlockedHand().getCards().add(deck.dealRandomCard());
-      break;
-    }
+    int boardCards = 5 - community.getNumberOfCardsOnHand();
+    sampler.prepare(deck, boardCards);
+    for (int c = 0; c < boardCards; c++)
+      community.getUnlockedHand().getCards().add(sampler.deal(deck));
 
     // Maximum score so far
     int[] maximumScore = evaluator.getScore();
@@ -143,18 +209,28 @@ class TexasHoldEmGame extends Game {
     for (Player player : players.getPlayers()) {
 
       // Dealing pocket cards
-      switch (player.getNumberOfCardsOnHand()) {
-      case 0:
-        player.getUnlockedHand().getCards().add(deck.dealRandomCard());
-        player.getUnlockedHand().getCards().add(deck.dealRandomCard());
-        break;
-      case 1:
-        player.getUnlockedHand().getCards().add(deck.dealRandomCard());
-        break;
-      }
+      for (int c = player.getNumberOfCardsOnHand(); c < 2; c++)
+        player.getUnlockedHand().getCards().add(sampler.deal(deck));
 
       // Adding community cards to player
       player.getCommunityHand().getCards().addAll(community.getHand().getCards());
+    }
+
+    // Best hand combo any player can reach
+    int ceiling = pruning ? computeCeilings() : -1;
+
+    for (int p = 0; p < players.size(); p++) {
+      Player player = players.getPlayer(p);
+
+      // Can the player neither win nor tie? Then no need to score the hand
+      if (ceiling >= 0 && ceilings[p] < ceiling) {
+        prunedScores[p][0] = ceilings[p];
+        player.setPower(prunedScores[p]);
+        playersThatLost.addPlayer(player);
+        prunedEvaluations++;
+        continue;
+      }
+      fullEvaluations++;
 
       // Scoring current player hand
       evaluator.reset();
@@ -232,6 +308,9 @@ class TexasHoldEmGame extends Game {
 
     }
 
+    // Settling the pot, main and side pots, if playing all-in
+    settleShowdown();
+
   }
 
 }
@@ -14,6 +14,12 @@ import com.suitgamer.tools.*;
  */
 public class TexasHoldEmSimulator extends Simulator {
 
+  /**
+   * Exact heads-up preflop results, when provided heads-up preflop
+   * scenarios are answered from it instead of being simulated
+   */
+  private PreflopEquityTable preflopTable;
+
   public TexasHoldEmSimulator() {
     game = new TexasHoldEmGame();
     name = "Texas Hold'em Simulator";
@@ -29,15 +35,80 @@ public class TexasHoldEmSimulator extends Simulator {
     simulate();
   }
   
+  public void setup() {
+
+    /* Setting up game, dead and locked cards are dealt out of the game deck */
+    game.setDeck(new PokerDeck());
+    game.setupDeadCards(deadCards);
+    game.setupPlayers(playersCards, playersBank, communitiesCards);
+    game.setShowdown(createShowdown());
+  }
+
   public void simulate() {
     
     /* Setting up game */
-    game.setupPlayers(playersCards, playersBank, communitiesCards);
-    game.setDeck(new PokerDeck());
+    setup();
+
+    /* Answering heads-up preflop scenarios from the table */
+    exact = lookupPreflop();
+    if (exact)
+      return;
     
     /* Running Monte-Carlo simulations */
-    for (int s = 0; s < simulations - 1; s++)
+    for (long s = 0; s < simulations; s++)
       game.play();
   }
   
+  /**
+   * Fills the results of a heads-up preflop scenario, two players with
+   * both their pocket cards and no community cards, from the preflop
+   * table. The results are the exact results of every board, so the
+   * number of simulations becomes the number of boards
+   *
+   * @return Whether or not the scenario was answered from the table
+   */
+  private boolean lookupPreflop() {
+
+    if (preflopTable == null || game.getPlayers().size() != 2)
+      return false;
+    if (game.getShowdown() != null)
+      return false;
+    if (game.getCommunities().getPlayer(0).getNumberOfCardsOnHand() != 0)
+      return false;
+    if (game.getDeck().getSize() != PokerDeck.SIZE - 4)
+      return false;
+
+    Player hero = game.getPlayer(0);
+    Player villain = game.getPlayer(1);
+    if (hero.getLockedHand().getSize() != 2 || villain.getLockedHand().getSize() != 2)
+      return false;
+
+    int[] results = preflopTable.lookup(
+      PokerDeck.indexOf(hero.getLockedHand().getCard(0)), PokerDeck.indexOf(hero.getLockedHand().getCard(1)),
+      PokerDeck.indexOf(villain.getLockedHand().getCard(0)), PokerDeck.indexOf(villain.getLockedHand().getCard(1)));
+    if (results == null)
+      return false;
+
+    hero.setWonGames(results[0]);
+    hero.setWonPoints(results[0]);
+    hero.tied(2, results[1]);
+    hero.setLostGames(results[2]);
+
+    villain.setWonGames(results[2]);
+    villain.setWonPoints(results[2]);
+    villain.tied(2, results[1]);
+    villain.setLostGames(results[0]);
+
+    simulations = PreflopEquityTable.BOARDS;
+    return true;
+  }
+
+  public PreflopEquityTable getPreflopTable() {
+    return preflopTable;
+  }
+
+  public void setPreflopTable(PreflopEquityTable preflopTable) {
+    this.preflopTable = preflopTable;
+  }
+
 }
@@ -3,6 +3,9 @@ package com.suitgamer.games;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Random;
+
+import com.suitgamer.tools.QuasiRandomSampler;
 
 public class ThreadedSimulator {
 
@@ -18,9 +21,12 @@ public class ThreadedSimulator {
     List<String> playersCards = new ArrayList<String>();
     List<String> communitiesCards = new ArrayList<String>();
     List<Double> playersBank = new ArrayList<Double>();
+    List<Double> payouts = new ArrayList<Double>();
 
     int simulationsPerThread =    10000                        ;
     int numberOfPlayers =         5                           ;
+    boolean quasiRandom =         false                       ;
+    boolean allIn =               false                       ;
     playersBank.add(              6000d                       );
 
     playersCards.add("       ");
@@ -35,10 +41,17 @@ public class ThreadedSimulator {
     }
       
     
+    /* Threads share the scramble of the quasi-random sequence */
+    long seed = new Random().nextLong();
+
     /* Setting up threads */
     for (int i = 0; i <= numberOfThreads - 1; i++) {
       TexasHoldEmSimulator simulator = new TexasHoldEmSimulator();
+      if (quasiRandom)
+        simulator.getGame().setSampler(new QuasiRandomSampler(seed, (long) i * simulationsPerThread));
       simulator.setSimulations(simulationsPerThread);
+      simulator.setAllIn(allIn);
+      simulator.setPayouts(payouts);
       simulator.setPlayersCards(playersCards);
       simulator.setPlayersBank(playersBank);
       simulator.setCommunitiesCards(communitiesCards);
@@ -63,6 +76,8 @@ public class ThreadedSimulator {
     
     /* Aggregating results */
     TexasHoldEmSimulator result = new TexasHoldEmSimulator();
+    result.setAllIn(allIn);
+    result.setPayouts(payouts);
     result.setPlayersCards(playersCards);
     result.setPlayersBank(playersBank);
     result.setCommunitiesCards(communitiesCards);
@@ -0,0 +1,20 @@
+package com.suitgamer.ifaces;
+
+import com.suitgamer.tools.Card;
+import com.suitgamer.tools.Deck;
+
+/**
+ * Decides which cards a game deals out of its deck. Before every
+ * game {@link #prepare(Deck, int)} is called with the number of
+ * board (community) cards about to be dealt, the board is then dealt
+ * first followed by the pocket cards of every player
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public interface Sampler {
+
+  void prepare(Deck deck, int boardCards);
+
+  Card deal(Deck deck);
+}
@@ -0,0 +1,18 @@
+package com.suitgamer.ifaces;
+
+/**
+ * Computes the entries of a lookup table built by
+ * {@link com.suitgamer.tools.TableBuilder}. Entries are numbered from
+ * 0 to {@link #size()} - 1 and computed in ranges, several ranges at
+ * once from several threads, so a range must only depend on its first
+ * entry and its length
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public interface TableSource {
+
+  long size();
+
+  void compute(long first, int[] entries);
+}
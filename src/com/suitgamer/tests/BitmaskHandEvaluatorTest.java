@@ -0,0 +1,82 @@
+package com.suitgamer.tests;
+import java.util.Random;
+
+import org.junit.*;
+import org.junit.Assert;
+import com.suitgamer.tools.BitmaskHandEvaluator;
+import com.suitgamer.tools.Deck;
+import com.suitgamer.tools.PokerDeck;
+import com.suitgamer.tools.PokerHandEvaluator;
+
+public class BitmaskHandEvaluatorTest {
+
+    @BeforeClass
+    public static void setupTest() { }
+
+    @Before
+    public void setup() { }
+
+    @Test
+    public void agreesWithPokerHandEvaluator() {
+
+        Random random = new Random(7);
+        PokerHandEvaluator phe = new PokerHandEvaluator();
+
+        // Comparing random hands of five, six and seven cards
+        for (int i = 0; i < 30000; i++) {
+
+            PokerDeck deck = new PokerDeck();
+            Deck hand = new Deck();
+            int size = 5 + i % 3;
+            for (int c = 0; c < size; c++)
+                hand.addCard(deck.dealCard(random.nextInt(deck.getSize())));
+
+            assertAgrees(phe, hand);
+        }
+
+    }
+
+    @Test
+    public void peculiarHands() {
+
+        PokerHandEvaluator phe = new PokerHandEvaluator();
+
+        // Straight flushes, wheels, two trips, three pairs and quads
+        String[] hands = {
+            "AS KS QS JS TS 9S 2D", "5H 4H 3H 2H AH KD QC", "AS 2D 3C 4H 5S 9D 9C",
+            "KS KD KC 7H 7D 7C 2S", "KS KD QC QH JD JC 2S", "9S 9D 9C 9H AD KC QS",
+            "AS KS 8S 4S 2S 2D 2C", "6C 7D 8H 9S TC JD QH", "TS TD 2C 3H 4D 5S 8C"
+        };
+
+        for (String cards : hands) {
+            PokerDeck deck = new PokerDeck();
+            Deck hand = new Deck();
+            for (String card : cards.split(" "))
+                hand.addCard(deck.dealSpecificCard(card.charAt(0), card.charAt(1)));
+
+            assertAgrees(phe, hand);
+        }
+
+        Assert.assertEquals(BitmaskHandEvaluator.STRAIGHT_FLUSH, BitmaskHandEvaluator.combo(PokerDeck.parseMask("5H 4H 3H 2H AH KD QC")));
+        Assert.assertEquals(BitmaskHandEvaluator.THREE_OF_A_KIND, BitmaskHandEvaluator.combo(PokerDeck.parseMask("KS KD KC 7H 7D 7C 2S")));
+
+    }
+
+    private void assertAgrees(PokerHandEvaluator phe, Deck hand) {
+        phe.reset();
+        phe.setHand(hand);
+        phe.evaluate();
+
+        Assert.assertEquals(hand.toString(), PokerHandEvaluator.packScore(phe.getScore()), BitmaskHandEvaluator.evaluate(PokerDeck.maskOf(hand)));
+
+        // The combo alone agrees with the full score
+        Assert.assertEquals(hand.toString(), phe.getScore()[0], BitmaskHandEvaluator.combo(PokerDeck.maskOf(hand)));
+    }
+
+    @After
+    public void cleanup() { }
+
+    @AfterClass
+    public static void cleanupTest() { }
+
+}
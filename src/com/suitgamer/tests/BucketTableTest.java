@@ -0,0 +1,87 @@
+package com.suitgamer.tests;
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.*;
+import org.junit.Assert;
+import com.suitgamer.tools.BucketTable;
+import com.suitgamer.tools.EquityHistograms;
+import com.suitgamer.tools.HandIndexer;
+import com.suitgamer.tools.KMeans;
+
+public class BucketTableTest {
+
+    @BeforeClass
+    public static void setupTest() { }
+
+    @Before
+    public void setup() { }
+
+    @Test
+    public void canonical() {
+
+        long[] flops = EquityHistograms.canonicalBoards(3);
+        Assert.assertEquals(1755, flops.length);
+
+        long combos = 0;
+        for (long flop : flops)
+            combos += EquityHistograms.canonicalPockets(flop).length;
+        Assert.assertEquals(new HandIndexer(2, 3).size(), combos);
+
+    }
+
+    @Test
+    public void histograms() throws Exception {
+
+        EquityHistograms histograms = new EquityHistograms(3, 10);
+        histograms.compute(2, 1);
+        Assert.assertEquals(EquityHistograms.canonicalPockets(EquityHistograms.canonicalBoards(3)[0]).length, histograms.size());
+
+        // Canonical pockets of a board take distinct indexes
+        Set<Long> keys = new HashSet<Long>();
+        for (int i = 0; i < histograms.size(); i++)
+            keys.add(histograms.getKey(i));
+        Assert.assertEquals(histograms.size(), keys.size());
+
+        for (int i = 0; i < histograms.size(); i++) {
+            float sum = 0;
+            for (float share : histograms.getHistogram(i))
+                sum += share;
+            Assert.assertEquals(1, sum, 1e-4);
+        }
+
+    }
+
+    @Test
+    public void table() throws Exception {
+
+        File file = File.createTempFile("bkt", ".table");
+        try {
+            BucketTable.generate(file, 3, 20, 8, KMeans.EARTH_MOVERS, 2, 2);
+            BucketTable table = BucketTable.load(file);
+            Assert.assertEquals(3, table.getBoardCards());
+            Assert.assertEquals(8, table.getBuckets());
+            Assert.assertEquals(1286792, table.size());
+
+            // The first two canonical flops are the lowest monotone ones
+            String board = "2C 3C 4C";
+            int straightFlush = table.getBucket("5C 6C", board);
+            Assert.assertTrue(straightFlush >= 0 && straightFlush < 8);
+            Assert.assertEquals(straightFlush, table.getBucket("5D 6D", "4D 2D 3D"));
+            Assert.assertTrue(straightFlush != table.getBucket("7D 8H", board));
+
+            // Boards left out of the table
+            Assert.assertEquals(-1, table.getBucket("AS KS", "QS JS TS"));
+        } finally {
+            file.delete();
+        }
+
+    }
+
+    @After
+    public void tearDown() { }
+
+    @AfterClass
+    public static void tearDownTest() { }
+}
@@ -0,0 +1,90 @@
+package com.suitgamer.tests;
+
+import org.junit.*;
+import org.junit.Assert;
+import com.suitgamer.tools.Combinations;
+import com.suitgamer.tools.DeckIndexer;
+import com.suitgamer.tools.PokerDeck;
+
+public class CombinationsTest {
+
+    @BeforeClass
+    public static void setupTest() { }
+
+    @Before
+    public void setup() { }
+
+    @Test
+    public void ranking() {
+
+        Assert.assertEquals(2598960, Combinations.binomial(52, 5));
+        Assert.assertEquals(0, Combinations.binomial(5, 6));
+
+        // Every rank unranks into ascending positions which rank back to it
+        int[] positions = new int[3];
+        int[] previous = null;
+        for (long rank = 0; rank < Combinations.binomial(20, 3); rank++) {
+            Combinations.unrank(rank, 3, 20, positions);
+            Assert.assertTrue(positions[0] < positions[1] && positions[1] < positions[2]);
+            Assert.assertEquals(rank, Combinations.rank(positions, 3));
+
+            // Colexicographic order compares the highest positions first
+            if (previous != null)
+                Assert.assertTrue(positions[2] > previous[2] || (positions[2] == previous[2] && (positions[1] > previous[1] || (positions[1] == previous[1] && positions[0] > previous[0]))));
+            previous = positions.clone();
+        }
+
+    }
+
+    @Test
+    public void partition() {
+
+        long[] bounds = Combinations.partition(10, 3);
+        Assert.assertArrayEquals(new long[] { 0, 4, 7, 10 }, bounds);
+
+        bounds = Combinations.partition(2, 4);
+        Assert.assertArrayEquals(new long[] { 0, 1, 2, 2, 2 }, bounds);
+
+        bounds = Combinations.partition(Combinations.binomial(52, 7), 7);
+        Assert.assertEquals(Combinations.binomial(52, 7), bounds[7]);
+
+    }
+
+    @Test
+    public void indexer() {
+
+        // Leaving out the pocket cards of two players
+        PokerDeck deck = new PokerDeck();
+        deck.dealSpecificCard('A', 'S');
+        deck.dealSpecificCard('K', 'S');
+        deck.dealSpecificCard('Q', 'D');
+        deck.dealSpecificCard('Q', 'H');
+
+        DeckIndexer indexer = new DeckIndexer(deck, 3);
+        Assert.assertEquals(48, indexer.getLiveSize());
+        Assert.assertEquals(17296, indexer.size());
+        Assert.assertTrue(indexer.getPosition(PokerDeck.indexOf('A', 'S')) < 0);
+
+        int[] cards = new int[3];
+        for (long index = 0; index < indexer.size(); index++) {
+            indexer.cards(index, cards);
+            long mask = indexer.mask(index);
+            Assert.assertEquals(3, Long.bitCount(mask));
+            Assert.assertEquals(0, mask & (PokerDeck.parseMask("AS KS QD QH")));
+            Assert.assertEquals(index, indexer.index(cards));
+            Assert.assertEquals(index, indexer.index(mask));
+        }
+
+        try {
+            indexer.index(PokerDeck.parseMask("AS 2C 3C"));
+            Assert.fail("Cards out of the deck can not be indexed");
+        } catch (IllegalArgumentException e) { }
+
+    }
+
+    @After
+    public void tearDown() { }
+
+    @AfterClass
+    public static void tearDownTest() { }
+}
@@ -0,0 +1,83 @@
+package com.suitgamer.tests;
+
+import org.junit.*;
+import org.junit.Assert;
+import com.suitgamer.tools.BitmaskHandEvaluator;
+import com.suitgamer.tools.EquityHistograms;
+import com.suitgamer.tools.PokerDeck;
+
+public class EquityHistogramsTest {
+
+    private static final int BINS = 1000;
+
+    @BeforeClass
+    public static void setupTest() { }
+
+    @Before
+    public void setup() { }
+
+    @Test
+    public void enumeration() throws Exception {
+
+        // Fine bins so that any error in the equities moves some runout
+        EquityHistograms histograms = new EquityHistograms(4, BINS);
+        histograms.compute(1, 1);
+
+        for (int i = 0; i < histograms.size(); i++) {
+            long[] hand = histograms.getIndexer().unindex(histograms.getKey(i));
+            float[] expected = enumerate(hand[0], hand[1]);
+            float[] histogram = histograms.getHistogram(i);
+            for (int b = 0; b < BINS; b++)
+                Assert.assertEquals(expected[b], histogram[b], 1e-6);
+        }
+
+    }
+
+    /**
+     * Histogram of the equity of the pocket over every river, against
+     * every opponent pocket enumerated one by one
+     */
+    private static float[] enumerate(long pocket, long board) {
+
+        float[] histogram = new float[BINS];
+        int rivers = 0;
+        for (int r = 0; r < PokerDeck.SIZE; r++) {
+            long river = board | PokerDeck.maskOf(r);
+            if ((PokerDeck.maskOf(r) & (board | pocket)) != 0)
+                continue;
+
+            int score = BitmaskHandEvaluator.evaluate(pocket | river);
+            int below = 0;
+            int notAbove = 0;
+            int total = 0;
+            for (int first = 1; first < PokerDeck.SIZE; first++) {
+                for (int second = 0; second < first; second++) {
+                    long other = PokerDeck.maskOf(first) | PokerDeck.maskOf(second);
+                    if ((other & (river | pocket)) != 0)
+                        continue;
+                    int opponent = BitmaskHandEvaluator.evaluate(other | river);
+                    if (opponent < score)
+                        below++;
+                    if (opponent <= score)
+                        notAbove++;
+                    total++;
+                }
+            }
+
+            double equity = (below + (notAbove - below) / 2d) / total;
+            histogram[Math.min((int) (equity * BINS), BINS - 1)]++;
+            rivers++;
+        }
+
+        for (int b = 0; b < BINS; b++)
+            histogram[b] /= rivers;
+
+        return histogram;
+    }
+
+    @After
+    public void tearDown() { }
+
+    @AfterClass
+    public static void tearDownTest() { }
+}
@@ -0,0 +1,67 @@
+package com.suitgamer.tests;
+import org.junit.*;
+import org.junit.Assert;
+import com.suitgamer.games.ExactRangeEquity;
+import com.suitgamer.tools.BitmaskHandEvaluator;
+import com.suitgamer.tools.PokerDeck;
+import com.suitgamer.tools.Range;
+
+public class ExactRangeEquityTest {
+
+    @BeforeClass
+    public static void setupTest() { }
+
+    @Before
+    public void setup() { }
+
+    @Test
+    public void agreesWithMatchupEnumeration() throws InterruptedException {
+
+        Range hero = Range.parse("AA, KQs, JTs:0.5, 7h6h");
+        Range villain = Range.parse("JJ-TT, AKo, KQs:0.25");
+        long board = PokerDeck.parseMask("JH 7D 2C");
+
+        ExactRangeEquity equity = new ExactRangeEquity(hero, villain, "JH 7D 2C", "");
+        equity.compute(3);
+
+        // Evaluating every matchup on every board one by one
+        double won = 0, tied = 0, lost = 0;
+        for (int turn = 0; turn < PokerDeck.SIZE; turn++) {
+            for (int river = 0; river < turn; river++) {
+                long cards = board | PokerDeck.maskOf(turn) | PokerDeck.maskOf(river);
+                if (Long.bitCount(cards) != 5)
+                    continue;
+
+                for (int h = 0; h < hero.size(); h++) {
+                    for (int v = 0; v < villain.size(); v++) {
+                        if ((hero.getMask(h) & cards) != 0 || (villain.getMask(v) & (cards | hero.getMask(h))) != 0)
+                            continue;
+
+                        double weight = hero.getWeight(h) * villain.getWeight(v);
+                        int heroScore = BitmaskHandEvaluator.evaluate(cards | hero.getMask(h));
+                        int villainScore = BitmaskHandEvaluator.evaluate(cards | villain.getMask(v));
+                        if (heroScore > villainScore)
+                            won += weight;
+                        else if (heroScore == villainScore)
+                            tied += weight;
+                        else
+                            lost += weight;
+                    }
+                }
+            }
+        }
+
+        Assert.assertEquals(1176, equity.getBoards());
+        Assert.assertEquals(won, equity.getWon(), 1e-6);
+        Assert.assertEquals(tied, equity.getTied(), 1e-6);
+        Assert.assertEquals(lost, equity.getLost(), 1e-6);
+
+    }
+
+    @After
+    public void cleanup() { }
+
+    @AfterClass
+    public static void cleanupTest() { }
+
+}
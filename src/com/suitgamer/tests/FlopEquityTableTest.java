@@ -0,0 +1,92 @@
+package com.suitgamer.tests;
+import java.io.File;
+import java.nio.file.Files;
+
+import org.junit.*;
+import org.junit.Assert;
+import com.suitgamer.tools.BitmaskHandEvaluator;
+import com.suitgamer.tools.FlopEquityTable;
+import com.suitgamer.tools.PokerDeck;
+
+public class FlopEquityTableTest {
+
+    @BeforeClass
+    public static void setupTest() { }
+
+    @Before
+    public void setup() { }
+
+    @Test
+    public void table() throws Exception {
+
+        File file = File.createTempFile("feq", ".table");
+        try {
+            // The smallest flop, then the next one resumed
+            FlopEquityTable.generate(file, 2, 1);
+            FlopEquityTable table = FlopEquityTable.load(file);
+            Assert.assertEquals(1, table.size());
+            Assert.assertTrue(Double.isNaN(table.getEquity("AS KS", "7D 7H", "2D 3D 5D")));
+            double equity = table.getEquity("AS KS", "7D 7H", "4D 3D 2D");
+
+            FlopEquityTable.generate(file, 2, 2);
+            long length = file.length();
+            FlopEquityTable.generate(file, 2, 2);
+            Assert.assertEquals(length, file.length());
+
+            // Blocks are written in the order of their flops, so a single
+            // generation gives the same file whatever the threads
+            File again = File.createTempFile("feq", ".table");
+            try {
+                FlopEquityTable.generate(again, 3, 2);
+                Assert.assertArrayEquals(Files.readAllBytes(file.toPath()), Files.readAllBytes(again.toPath()));
+            } finally {
+                again.delete();
+            }
+
+            table = FlopEquityTable.load(file, 1);
+            Assert.assertEquals(2, table.size());
+            Assert.assertEquals(equity, table.getEquity("AS KS", "7D 7H", "4D 3D 2D"), 0);
+
+            String[][] matchups = { { "AS KS", "7D 7H", "4D 3D 2D" }, { "5C 6C", "AH AD", "2C 3C 4C" }, { "AC 5S", "6D 8D", "2C 5C 3C" },
+                    { "QH JH", "TH 9H", "2H 3H 5H" }, { "2S 2D", "AH AS", "3H 4H 2H" } };
+            for (String[] matchup : matchups) {
+                double expected = enumerate(matchup[0], matchup[1], matchup[2]);
+                Assert.assertEquals(expected, table.getEquity(matchup[0], matchup[1], matchup[2]), 1e-12);
+                Assert.assertEquals(1 - expected, table.getEquity(matchup[1], matchup[0], matchup[2]), 1e-12);
+            }
+        } finally {
+            file.delete();
+        }
+
+    }
+
+    private static double enumerate(String hero, String villain, String flop) {
+        long heroMask = PokerDeck.parseMask(hero);
+        long villainMask = PokerDeck.parseMask(villain);
+        long flopMask = PokerDeck.parseMask(flop);
+        long used = heroMask | villainMask | flopMask;
+
+        int wins = 0;
+        int ties = 0;
+        int runouts = 0;
+        for (int first = 1; first < PokerDeck.SIZE; first++)
+            for (int second = 0; second < first; second++) {
+                long runout = PokerDeck.maskOf(first) | PokerDeck.maskOf(second);
+                if ((runout & used) != 0)
+                    continue;
+                int heroScore = BitmaskHandEvaluator.evaluate(heroMask | flopMask | runout);
+                int villainScore = BitmaskHandEvaluator.evaluate(villainMask | flopMask | runout);
+                wins += heroScore > villainScore ? 1 : 0;
+                ties += heroScore == villainScore ? 1 : 0;
+                runouts++;
+            }
+
+        return (wins + ties / 2d) / runouts;
+    }
+
+    @After
+    public void tearDown() { }
+
+    @AfterClass
+    public static void tearDownTest() { }
+}
@@ -1,5 +1,9 @@
 package com.suitgamer.tests;
+
 import org.junit.*;
+import org.junit.Assert;
+import com.suitgamer.games.Game;
+import com.suitgamer.games.TexasHoldEmSimulator;
 
 /**
  * Created by IntelliJ IDEA.
@@ -16,6 +20,45 @@ public class GameTest {
     @Before
     public void setup() { }
 
+    @Test
+    public void pruning() {
+
+        // The second player can never reach the four of a kind of the first
+        TexasHoldEmSimulator simulator = Simulators.texasHoldEm("AS 2C", "KD QD", "AH AD AC 7S", 200);
+        Assert.assertFalse(simulator.getGame().isPruning());
+        simulator.getGame().setPruning(true);
+        simulator.simulate();
+        Game game = simulator.getGame();
+        Assert.assertEquals(200, game.getPrunedEvaluations());
+        Assert.assertEquals(200, game.getFullEvaluations());
+        Assert.assertEquals(200, game.getPlayer(0).getWonGames());
+
+        // Every hand is fully evaluated when the combos can tie
+        simulator = Simulators.texasHoldEm("AS 2C", "KD QD", "", 200);
+        simulator.getGame().setPruning(true);
+        simulator.simulate();
+        game = simulator.getGame();
+        Assert.assertEquals(400, game.getPrunedEvaluations() + game.getFullEvaluations());
+        Assert.assertTrue(game.getFullEvaluations() >= 200);
+
+    }
+
+    @Test
+    public void results() {
+
+        // Pruned or not, the same cards give the same results
+        for (boolean pruning : new boolean[] { true, false }) {
+            TexasHoldEmSimulator simulator = Simulators.texasHoldEm("AS 2C", "KD QD", "AH AD 7C 7S 3H", 10);
+            simulator.getGame().setPruning(pruning);
+            simulator.simulate();
+
+            Assert.assertEquals(10, simulator.getGame().getPlayer(0).getWonGames());
+            Assert.assertEquals(10, simulator.getGame().getPlayer(1).getLostGames());
+            Assert.assertEquals(pruning ? 10 : 0, simulator.getGame().getPrunedEvaluations());
+        }
+
+    }
+
     @After
     public void cleanup() { }
 
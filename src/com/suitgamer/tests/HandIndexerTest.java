@@ -0,0 +1,117 @@
+package com.suitgamer.tests;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.*;
+import org.junit.Assert;
+import com.suitgamer.tools.HandIndexer;
+import com.suitgamer.tools.PokerDeck;
+import com.suitgamer.tools.SuitCanonicalizer;
+
+public class HandIndexerTest {
+
+    @BeforeClass
+    public static void setupTest() { }
+
+    @Before
+    public void setup() { }
+
+    @Test
+    public void sizes() {
+        Assert.assertEquals(169, HandIndexer.forStreet(0).size());
+        Assert.assertEquals(1286792, HandIndexer.forStreet(3).size());
+        Assert.assertEquals(55190538, HandIndexer.forStreet(4).size());
+        Assert.assertEquals(2428287420L, HandIndexer.forStreet(5).size());
+    }
+
+    @Test
+    public void preflop() {
+
+        // Every pocket lands on one of the 169 indexes, all of them taken
+        HandIndexer indexer = HandIndexer.forStreet(0);
+        int[] counts = new int[169];
+        for (int first = 1; first < PokerDeck.SIZE; first++)
+            for (int second = 0; second < first; second++)
+                counts[(int) indexer.index(new int[] { first, second })]++;
+
+        int pairs = 0;
+        int suited = 0;
+        for (int count : counts) {
+            pairs += count == 6 ? 1 : 0;
+            suited += count == 4 ? 1 : 0;
+        }
+        Assert.assertEquals(13, pairs);
+        Assert.assertEquals(78, suited);
+        Assert.assertEquals(indexer.index("AH KH", ""), indexer.index("KS AS", ""));
+        Assert.assertTrue(indexer.index("AH KH", "") != indexer.index("AH KS", ""));
+    }
+
+    @Test
+    public void flop() {
+
+        // Every index maps to a hand which maps back to it
+        HandIndexer indexer = HandIndexer.forStreet(3);
+        for (long i = 0; i < indexer.size(); i++) {
+            long[] masks = indexer.unindex(i);
+            Assert.assertEquals(2, Long.bitCount(masks[0]));
+            Assert.assertEquals(3, Long.bitCount(masks[1]));
+            Assert.assertEquals(i, indexer.index(masks));
+        }
+    }
+
+    @Test
+    public void isomorphic() {
+
+        // Hands share an index only when they are equal up to the suits
+        Random random = new Random(7);
+        HandIndexer indexer = HandIndexer.forStreet(5);
+        for (int n = 0; n < 20000; n++) {
+            long[] hand = deal(random);
+            long[] other = n % 2 == 0 ? permute(hand, SuitCanonicalizer.PERMUTATIONS[random.nextInt(24)]) : deal(random);
+            boolean same = Arrays.equals(SuitCanonicalizer.canonicalize(hand), SuitCanonicalizer.canonicalize(other));
+            Assert.assertEquals(same, indexer.index(hand) == indexer.index(other));
+
+            long i = indexer.index(hand);
+            Assert.assertTrue(i >= 0 && i < indexer.size());
+            Assert.assertEquals(i, indexer.index(indexer.unindex(i)));
+        }
+
+        // The turn and the river are rounds of their own
+        HandIndexer turn = HandIndexer.forStreet(4);
+        Assert.assertEquals(turn.index("AH KH", "2H 7C 9C QH"), turn.index("AS KS", "2S 7D 9D QS"));
+        Assert.assertTrue(turn.index("AH KH", "2H 7C 9C QH") != turn.index("AH KH", "2H 7C QH 9C"));
+        Assert.assertEquals(new HandIndexer(2, 4).index("AH KH", "2H 7C 9C QH"), new HandIndexer(2, 4).index("AH KH", "2H 7C QH 9C"));
+    }
+
+    private static long[] deal(Random random) {
+        long[] hand = new long[4];
+        int[] rounds = { 2, 3, 1, 1 };
+        long dealt = 0;
+        for (int round = 0; round < rounds.length; round++) {
+            while (Long.bitCount(hand[round]) < rounds[round]) {
+                long card = PokerDeck.maskOf(random.nextInt(PokerDeck.SIZE));
+                if ((card & dealt) == 0) {
+                    hand[round] |= card;
+                    dealt |= card;
+                }
+            }
+        }
+
+        return hand;
+    }
+
+    private static long[] permute(long[] hand, int[] permutation) {
+        long[] permuted = new long[hand.length];
+        for (int round = 0; round < hand.length; round++)
+            for (int s = 0; s < 4; s++)
+                permuted[round] |= ((hand[round] >>> (s * 16)) & 0xFFFF) << (permutation[s] * 16);
+
+        return permuted;
+    }
+
+    @After
+    public void tearDown() { }
+
+    @AfterClass
+    public static void tearDownTest() { }
+}
@@ -0,0 +1,124 @@
+package com.suitgamer.tests;
+
+import org.junit.*;
+import org.junit.Assert;
+import com.suitgamer.games.HandStrength;
+import com.suitgamer.tools.BitmaskHandEvaluator;
+import com.suitgamer.tools.PokerDeck;
+
+public class HandStrengthTest {
+
+    @BeforeClass
+    public static void setupTest() { }
+
+    @Before
+    public void setup() { }
+
+    @Test
+    public void flop() {
+
+        // Example of Billings et al.
+        HandStrength strength = new HandStrength("3H 4C JH");
+        HandStrength.Strength result = strength.compute("AD QC");
+        Assert.assertEquals(0.585, result.getHandStrength(), 0.001);
+        Assert.assertEquals(0.208, result.getPositivePotential(), 0.001);
+        Assert.assertEquals(0.274, result.getNegativePotential(), 0.001);
+        Assert.assertEquals(0.585 * (1 - 0.274) + 0.415 * 0.208, result.getEffectiveStrength(), 0.001);
+        Assert.assertEquals(Math.pow(result.getHandStrength(), 3), result.getHandStrength(3), 1e-12);
+
+        // The nuts
+        Assert.assertEquals(1, strength.compute("JS JD").getHandStrength(), 1e-12);
+
+    }
+
+    @Test
+    public void turn() {
+
+        // Against every opponent pocket and river card
+        String board = "2C 7D JH KS";
+        HandStrength strength = new HandStrength(board);
+        long boardMask = PokerDeck.parseMask(board);
+        for (String pocket : new String[] { "AH QH", "7C 7H", "3D 4D", "KC 2D" }) {
+            long hero = PokerDeck.parseMask(pocket);
+            double[] expected = bruteForce(hero, boardMask);
+            HandStrength.Strength result = strength.compute(pocket);
+            Assert.assertEquals(expected[0], result.getHandStrength(), 1e-12);
+            Assert.assertEquals(expected[1], result.getPositivePotential(), 1e-12);
+            Assert.assertEquals(expected[2], result.getNegativePotential(), 1e-12);
+        }
+
+        // No potential on the river
+        HandStrength.Strength river = new HandStrength(board + " 3C").compute("AH QH");
+        Assert.assertEquals(0, river.getPositivePotential() + river.getNegativePotential(), 0);
+
+    }
+
+    @Test
+    public void cache() {
+
+        HandStrength.Cache cache = new HandStrength.Cache(100);
+        HandStrength hearts = new HandStrength("3H 4C JH");
+        HandStrength spades = new HandStrength("3S 4C JS");
+        hearts.setCache(cache);
+        spades.setCache(cache);
+
+        // Equal up to the suits
+        HandStrength.Strength first = hearts.compute("AH QD");
+        HandStrength.Strength second = spades.compute("AS QD");
+        Assert.assertSame(first, second);
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+        Assert.assertEquals(1, cache.size());
+
+    }
+
+    /**
+     * Hand strength and potentials over every opponent pocket and every
+     * river card, as in the original definition
+     */
+    private static double[] bruteForce(long hero, long board) {
+
+        long[][] tallies = new long[3][3];
+        long[] totals = new long[3];
+        double ahead = 0;
+        double tied = 0;
+        double behind = 0;
+        int heroScore = BitmaskHandEvaluator.evaluate(hero | board);
+        for (int first = 1; first < PokerDeck.SIZE; first++) {
+            for (int second = 0; second < first; second++) {
+                long opponent = PokerDeck.maskOf(first) | PokerDeck.maskOf(second);
+                if ((opponent & (hero | board)) != 0)
+                    continue;
+                int opponentScore = BitmaskHandEvaluator.evaluate(opponent | board);
+                int now = heroScore > opponentScore ? 0 : (heroScore == opponentScore ? 1 : 2);
+                if (now == 0)
+                    ahead++;
+                else if (now == 1)
+                    tied++;
+                else
+                    behind++;
+
+                for (int river = 0; river < PokerDeck.SIZE; river++) {
+                    long card = PokerDeck.maskOf(river);
+                    if ((card & (hero | board | opponent)) != 0)
+                        continue;
+                    int heroFinal = BitmaskHandEvaluator.evaluate(hero | board | card);
+                    int opponentFinal = BitmaskHandEvaluator.evaluate(opponent | board | card);
+                    tallies[now][heroFinal > opponentFinal ? 0 : (heroFinal == opponentFinal ? 1 : 2)]++;
+                    totals[now]++;
+                }
+            }
+        }
+
+        double strength = (ahead + tied / 2) / (ahead + tied + behind);
+        double positive = (tallies[2][0] + tallies[2][1] / 2d + tallies[1][0] / 2d) / (totals[2] + totals[1] / 2d);
+        double negative = (tallies[0][2] + tallies[1][2] / 2d + tallies[0][1] / 2d) / (totals[0] + totals[1] / 2d);
+        return new double[] { strength, positive, negative };
+    }
+
+    @After
+    public void tearDown() { }
+
+    @AfterClass
+    public static void tearDownTest() { }
+}
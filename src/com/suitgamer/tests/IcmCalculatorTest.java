@@ -0,0 +1,132 @@
+package com.suitgamer.tests;
+import java.util.Random;
+
+import org.junit.*;
+import org.junit.Assert;
+import com.suitgamer.tools.IcmCalculator;
+import com.suitgamer.tools.Showdown;
+
+public class IcmCalculatorTest {
+
+    @BeforeClass
+    public static void setupTest() { }
+
+    @Before
+    public void setup() { }
+
+    @Test
+    public void equities() {
+
+        // Three players, three places paid
+        IcmCalculator icm = new IcmCalculator(new double[] { 50, 30, 20 });
+        double[] equities = icm.compute(new double[] { 5000, 3000, 2000 });
+        double second = 0.3 * 5 / 7 + 0.2 * 5 / 8;
+        Assert.assertEquals(50 * 0.5 + 30 * second + 20 * (0.5 - second), equities[0], 1e-9);
+        Assert.assertEquals(100, equities[0] + equities[1] + equities[2], 1e-9);
+
+        // Busted players share the last places
+        equities = icm.compute(new double[] { 0, 1000, 0 });
+        Assert.assertEquals(50, equities[1], 1e-9);
+        Assert.assertEquals(25, equities[0], 1e-9);
+        Assert.assertEquals(25, equities[2], 1e-9);
+
+        // Against every finishing order on random tables
+        Random random = new Random(7);
+        for (int table = 0; table < 20; table++) {
+            int n = 2 + random.nextInt(6);
+            double[] stacks = new double[n];
+            for (int p = 0; p < n; p++)
+                stacks[p] = 1 + random.nextInt(10000);
+            double[] payouts = new double[1 + random.nextInt(n)];
+            for (int place = 0; place < payouts.length; place++)
+                payouts[place] = 100 - 10 * place;
+
+            double[] expected = new double[n];
+            orders(stacks, payouts, new boolean[n], 0, 1, expected);
+            equities = new IcmCalculator(payouts).compute(stacks);
+            for (int p = 0; p < n; p++)
+                Assert.assertEquals(expected[p], equities[p], 1e-9);
+        }
+
+    }
+
+    /**
+     * Naive recursion over every finishing order of the paid places
+     */
+    private static void orders(double[] stacks, double[] payouts, boolean[] placed, int place, double probability, double[] equities) {
+
+        if (place == payouts.length)
+            return;
+
+        double rest = 0;
+        for (int p = 0; p < stacks.length; p++)
+            if (!placed[p])
+                rest += stacks[p];
+
+        for (int p = 0; p < stacks.length; p++) {
+            if (placed[p])
+                continue;
+            double taking = probability * stacks[p] / rest;
+            equities[p] += taking * payouts[place];
+            placed[p] = true;
+            orders(stacks, payouts, placed, place + 1, taking, equities);
+            placed[p] = false;
+        }
+    }
+
+    @Test
+    public void threads() {
+
+        // Large tables are split among threads with the same results
+        double[] stacks = new double[18];
+        for (int p = 0; p < stacks.length; p++)
+            stacks[p] = 1000 + 250 * p;
+        double[] payouts = new double[9];
+        double prizes = 0;
+        for (int place = 0; place < payouts.length; place++)
+            prizes += payouts[place] = 1000d / (place + 1);
+
+        IcmCalculator icm = new IcmCalculator(payouts);
+        icm.setThreads(1);
+        double[] single = icm.compute(stacks);
+        icm.setThreads(4);
+        double[] parallel = icm.compute(stacks);
+        double total = 0;
+        for (int p = 0; p < stacks.length; p++) {
+            Assert.assertEquals(single[p], parallel[p], 1e-9);
+            total += parallel[p];
+        }
+        Assert.assertEquals(prizes, total, 1e-9);
+
+    }
+
+    @Test
+    public void showdown() {
+
+        // Winner take all, prize equity is chip equity
+        Showdown showdown = new Showdown(new double[] { 100, 300 }, 0);
+        showdown.setIcm(new IcmCalculator(new double[] { 1 }), new double[0]);
+        showdown.settle(new int[] { 2, 1 });
+        showdown.settle(new int[] { 1, 2 });
+        showdown.settle(new int[] { 1, 2 });
+        showdown.settle(new int[] { 1, 2 });
+        double[] values = showdown.getPrizeExpectedValues();
+        Assert.assertEquals(0.25 * 0.5 - 0.25, values[0], 1e-9);
+        Assert.assertEquals(0.25 * 0.5 + 0.75 - 0.75, values[1], 1e-9);
+
+        // Doubling up is worth less than double with a bystander
+        showdown = new Showdown(new double[] { 100, 100 }, 0);
+        showdown.setIcm(new IcmCalculator(new double[] { 70, 30 }), new double[] { 100 });
+        showdown.settle(new int[] { 2, 1 });
+        double[] equities = showdown.getPrizeEquities();
+        Assert.assertEquals(70 * 2 / 3d + 30 / 3d, equities[0], 1e-9);
+        Assert.assertEquals(0, equities[1], 1e-9);
+
+    }
+
+    @After
+    public void tearDown() { }
+
+    @AfterClass
+    public static void tearDownTest() { }
+}
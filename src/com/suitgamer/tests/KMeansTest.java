@@ -0,0 +1,74 @@
+package com.suitgamer.tests;
+import java.util.Random;
+
+import org.junit.*;
+import org.junit.Assert;
+import com.suitgamer.tools.KMeans;
+
+public class KMeansTest {
+
+    @BeforeClass
+    public static void setupTest() { }
+
+    @Before
+    public void setup() { }
+
+    @Test
+    public void clusters() throws Exception {
+
+        // Histograms weighing on the low, middle and high bins
+        Random random = new Random(3);
+        float[][] points = new float[300][];
+        for (int p = 0; p < points.length; p++) {
+            float[] histogram = new float[10];
+            int center = (p % 3) * 4 + 1;
+            for (int draw = 0; draw < 20; draw++)
+                histogram[Math.max(0, Math.min(9, center + random.nextInt(3) - 1))] += 0.05f;
+            points[p] = histogram;
+        }
+
+        for (int distance : new int[] { KMeans.EUCLIDEAN, KMeans.EARTH_MOVERS }) {
+            KMeans kMeans = new KMeans(points, 3, distance, 11);
+            kMeans.setThreads(3);
+            int[] clusters = kMeans.cluster();
+
+            // Points with the same center end up together, apart from the others
+            for (int p = 3; p < points.length; p++)
+                Assert.assertEquals(clusters[p % 3], clusters[p]);
+            Assert.assertTrue(clusters[0] != clusters[1] && clusters[1] != clusters[2] && clusters[0] != clusters[2]);
+            Assert.assertTrue(kMeans.getIterations() < kMeans.getMaximumIterations());
+
+            // Same seed, same clusters and centroids whatever the threads
+            KMeans again = new KMeans(points, 3, distance, 11);
+            again.setThreads(2);
+            Assert.assertArrayEquals(clusters, again.cluster());
+            for (int c = 0; c < 3; c++)
+                for (int d = 0; d < 10; d++)
+                    Assert.assertEquals(kMeans.getCentroids()[c][d], again.getCentroids()[c][d], 0);
+            Assert.assertEquals(kMeans.getCost(), again.getCost(), 0);
+        }
+
+    }
+
+    @Test
+    public void earthMovers() throws Exception {
+
+        // Moving mass one bin costs less than moving it far away
+        float[][] points = { { 1, 0, 0, 0 }, { 0, 1, 0, 0 }, { 0, 0, 0, 1 } };
+        KMeans kMeans = new KMeans(points, 3, KMeans.EARTH_MOVERS, 0);
+        kMeans.cluster();
+        Assert.assertEquals(0, kMeans.getCost(), 1e-12);
+
+        KMeans merged = new KMeans(points, 2, KMeans.EARTH_MOVERS, 0);
+        int[] clusters = merged.cluster();
+        Assert.assertEquals(clusters[0], clusters[1]);
+        Assert.assertTrue(clusters[2] != clusters[0]);
+
+    }
+
+    @After
+    public void tearDown() { }
+
+    @AfterClass
+    public static void tearDownTest() { }
+}
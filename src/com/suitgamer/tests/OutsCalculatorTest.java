@@ -0,0 +1,80 @@
+package com.suitgamer.tests;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.*;
+import org.junit.Assert;
+import com.suitgamer.games.OutsCalculator;
+import com.suitgamer.tools.PokerDeck;
+
+public class OutsCalculatorTest {
+
+    @BeforeClass
+    public static void setupTest() { }
+
+    @Before
+    public void setup() { }
+
+    @Test
+    public void flop() throws Exception {
+
+        List<String> playersCards = new ArrayList<String>();
+        playersCards.add("AH KH");
+        playersCards.add("QS QD");
+        OutsCalculator outs = new OutsCalculator(playersCards, "QH 7H 2C", "");
+        outs.compute(2);
+        Assert.assertEquals(45, outs.getSize());
+        Assert.assertEquals(2, outs.getPlace(0));
+        Assert.assertEquals(1, outs.getPlace(1));
+
+        // Hearts other than the pair make the nut flush and take the lead
+        long hearts = PokerDeck.parseMask("3H 4H 5H 6H 8H 9H TH JH");
+        Assert.assertEquals(hearts, outs.getNutting(0));
+        Assert.assertEquals(hearts, outs.getChanging(0));
+        Assert.assertEquals(hearts, outs.getChanging(1));
+        Assert.assertEquals(0, outs.getNutting(1));
+
+        // The set fills up on pairing cards
+        Assert.assertEquals(PokerDeck.parseMask("2D 2H 2S 7C 7D 7S QC"), outs.getImproving(1));
+        Assert.assertTrue((outs.getImproving(0) & PokerDeck.parseMask("AS KS 2H")) == PokerDeck.parseMask("AS KS 2H"));
+
+        // Every next card is as likely, deltas average out
+        double delta = 0;
+        for (int i = 0; i < outs.getSize(); i++) {
+            delta += outs.getDelta(i, 0);
+            Assert.assertEquals(1, outs.getEquity(i, 0) + outs.getEquity(i, 1), 1e-9);
+            if (outs.isNutting(i, 0))
+                Assert.assertTrue(outs.getDelta(i, 0) > 0.5);
+        }
+        Assert.assertEquals(0, delta / outs.getSize(), 1e-9);
+
+    }
+
+    @Test
+    public void counterfeits() throws Exception {
+
+        List<String> playersCards = new ArrayList<String>();
+        playersCards.add("6S 6D");
+        playersCards.add("AC KD");
+        OutsCalculator outs = new OutsCalculator(playersCards, "7C 7D 8S", "");
+        outs.classify();
+
+        // Eights pair the board over the sixes
+        Assert.assertEquals(PokerDeck.parseMask("8C 8D 8H"), outs.getCounterfeiting(0));
+        Assert.assertEquals(0, outs.getCounterfeiting(1));
+
+        // River cards on the turn
+        outs = new OutsCalculator(playersCards, "7C 7D 8S 2H", "AS");
+        outs.compute(1);
+        Assert.assertEquals(43, outs.getSize());
+        for (int i = 0; i < outs.getSize(); i++)
+            Assert.assertEquals(outs.getPlace(i, 0) == 1 ? 1 : 0, outs.getEquity(i, 0), 1e-9);
+
+    }
+
+    @After
+    public void tearDown() { }
+
+    @AfterClass
+    public static void tearDownTest() { }
+}
@@ -54,6 +54,33 @@ public class PlayerTest {
 
   }
 
+  @Test
+  public void aggregate() {
+
+    Player total = new Player("Total");
+
+    // Aggregating many chunks, each with a three way tie
+    for (int c = 0; c < 3000; c++) {
+      Player chunk = new Player("Chunk");
+      chunk.won();
+      chunk.lost();
+      chunk.tied(3);
+      total.aggregate(chunk);
+    }
+
+    Assert.assertEquals(3000, total.getWonGames());
+    Assert.assertEquals(3000, total.getLostGames());
+    Assert.assertEquals(3000, total.getTiedGames());
+    Assert.assertEquals(3000, total.getTiedGames(3));
+    Assert.assertTrue(1000d == total.getTiedPoints());
+
+    // Counters go well beyond the range of an integer
+    total.setWonGames(Integer.MAX_VALUE);
+    total.won();
+    Assert.assertEquals(Integer.MAX_VALUE + 1L, total.getWonGames());
+
+  }
+
   @After
   public void cleanup() {
   }
@@ -0,0 +1,117 @@
+package com.suitgamer.tests;
+import java.io.File;
+
+import org.junit.*;
+import org.junit.Assert;
+import com.suitgamer.games.ExactRangeEquity;
+import com.suitgamer.games.TexasHoldEmSimulator;
+import com.suitgamer.tools.Player;
+import com.suitgamer.tools.PokerDeck;
+import com.suitgamer.tools.PreflopEquityTable;
+import com.suitgamer.tools.Range;
+
+public class PreflopEquityTableTest {
+
+    private static File file;
+
+    @BeforeClass
+    public static void setupTest() throws Exception {
+
+        // Generating a table with the first matchups only, deuces
+        // against deuces and treys
+        file = File.createTempFile("preflop", ".table");
+        PreflopEquityTable.generate(file, 2, 8);
+    }
+
+    @Before
+    public void setup() { }
+
+    @Test
+    public void lookup() throws Exception {
+
+        PreflopEquityTable table = PreflopEquityTable.load(file);
+        Assert.assertEquals(8, table.size());
+
+        int c = PokerDeck.indexOf('2', 'C');
+        int d = PokerDeck.indexOf('2', 'D');
+        int h = PokerDeck.indexOf('2', 'H');
+        int s = PokerDeck.indexOf('2', 'S');
+
+        int[] results = table.lookup(c, d, h, s);
+        Assert.assertEquals(PreflopEquityTable.BOARDS, results[0] + results[1] + results[2]);
+
+        // Suit permutations and swapped players share the results
+        Assert.assertArrayEquals(results, table.lookup(h, s, d, c));
+        int[] swapped = table.lookup(s, c, d, h);
+        Assert.assertEquals(results[0], swapped[2]);
+        Assert.assertEquals(results[2], swapped[0]);
+
+        // Results agree with the exact range engine
+        ExactRangeEquity exact = new ExactRangeEquity(Range.parse("2c2d"), Range.parse("2h2s"), "", "");
+        exact.compute(1);
+        Assert.assertEquals(exact.getWon(), results[0], 0);
+        Assert.assertEquals(exact.getTied(), results[1], 0);
+
+        // Matchups left out of the table
+        Assert.assertNull(table.lookup(PokerDeck.indexOf('A', 'S'), PokerDeck.indexOf('A', 'H'), c, d));
+
+        // Deuces against treys of other suits, suits permuted
+        results = table.lookup(PokerDeck.indexOf('3', 'C'), PokerDeck.indexOf('3', 'D'), h, s);
+        exact = new ExactRangeEquity(Range.parse("3c3d"), Range.parse("2h2s"), "", "");
+        exact.compute(1);
+        Assert.assertEquals(exact.getWon(), results[0], 0);
+        Assert.assertEquals(exact.getTied(), results[1], 0);
+        table.close();
+
+    }
+
+    @Test
+    public void simulator() throws Exception {
+
+        PreflopEquityTable table = PreflopEquityTable.load(file);
+        int[] results = table.lookup(PokerDeck.indexOf('3', 'C'), PokerDeck.indexOf('3', 'D'), PokerDeck.indexOf('2', 'H'), PokerDeck.indexOf('2', 'S'));
+
+        // Answered from the table
+        TexasHoldEmSimulator simulator = Simulators.texasHoldEm("3C 3D", "2H 2S", "", 20000);
+        simulator.setPreflopTable(table);
+        simulator.simulate();
+        Player hero = simulator.getGame().getPlayer(0);
+        Assert.assertEquals(PreflopEquityTable.BOARDS, simulator.getSimulations());
+        Assert.assertEquals(results[0], hero.getWonGames());
+        Assert.assertEquals(results[1], hero.getTiedGames(2));
+        Assert.assertEquals(results[2], hero.getLostGames());
+        double exact = (hero.getWonPoints() + hero.getTiedPoints()) / simulator.getSimulations();
+
+        // Agreeing with a Monte Carlo run
+        simulator = Simulators.texasHoldEm("3C 3D", "2H 2S", "", 20000);
+        simulator.simulate();
+        hero = simulator.getGame().getPlayer(0);
+        double simulated = (hero.getWonPoints() + hero.getTiedPoints()) / simulator.getSimulations();
+        Assert.assertEquals(exact, simulated, 0.02);
+        table.close();
+
+    }
+
+    @Test
+    public void startingHands() {
+
+        int aceClubs = PokerDeck.indexOf('A', 'C');
+        int kingClubs = PokerDeck.indexOf('K', 'C');
+        int kingHearts = PokerDeck.indexOf('K', 'H');
+        int aceHearts = PokerDeck.indexOf('A', 'H');
+
+        Assert.assertEquals(168, PreflopEquityTable.startingHandOf(aceClubs, aceHearts));
+        Assert.assertEquals(12 * 13 + 11, PreflopEquityTable.startingHandOf(kingClubs, aceClubs));
+        Assert.assertEquals(11 * 13 + 12, PreflopEquityTable.startingHandOf(aceClubs, kingHearts));
+
+    }
+
+    @After
+    public void cleanup() { }
+
+    @AfterClass
+    public static void cleanupTest() {
+        file.delete();
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.suitgamer.tests;
+import java.io.File;
+
+import org.junit.*;
+import org.junit.Assert;
+import com.suitgamer.games.PushFoldSolver;
+import com.suitgamer.tools.PokerDeck;
+import com.suitgamer.tools.PreflopEquityTable;
+import com.suitgamer.tools.StartingHandMatrix;
+
+public class PushFoldSolverTest {
+
+    private static StartingHandMatrix matrix;
+
+    @BeforeClass
+    public static void setupTest() throws Exception {
+
+        // Enough deals for the equities to be within about a percent
+        matrix = StartingHandMatrix.sample(2000, 1, Runtime.getRuntime().availableProcessors());
+    }
+
+    @Before
+    public void setup() { }
+
+    @Test
+    public void matrix() throws Exception {
+
+        int aces = hand("AS AH");
+        int sevenDeuce = hand("7S 2H");
+        int aceKingSuited = hand("AS KS");
+        Assert.assertEquals("AA", StartingHandMatrix.nameOf(aces));
+        Assert.assertEquals("72o", StartingHandMatrix.nameOf(sevenDeuce));
+        Assert.assertEquals("AKs", StartingHandMatrix.nameOf(aceKingSuited));
+
+        // Pockets and pairs of pockets sharing no card
+        Assert.assertEquals(6, StartingHandMatrix.getPockets(aces));
+        Assert.assertEquals(12, StartingHandMatrix.getPockets(sevenDeuce));
+        Assert.assertEquals(4, StartingHandMatrix.getPockets(aceKingSuited));
+        Assert.assertEquals(6, StartingHandMatrix.getPairs(aces, aces));
+        Assert.assertEquals(12, StartingHandMatrix.getPairs(aceKingSuited, aceKingSuited));
+        Assert.assertEquals(6 * 12, StartingHandMatrix.getPairs(aces, sevenDeuce));
+
+        // Equities add up to one and favor aces
+        Assert.assertTrue(matrix.getEquity(aces, sevenDeuce) > 0.8);
+        for (int h = 0; h < StartingHandMatrix.STARTING_HANDS; h++)
+            for (int v = 0; v < StartingHandMatrix.STARTING_HANDS; v++)
+                Assert.assertEquals(1, matrix.getEquity(h, v) + matrix.getEquity(v, h), 1e-12);
+
+        // Kept across processes
+        File file = File.createTempFile("shm", ".matrix");
+        try {
+            matrix.save(file);
+            StartingHandMatrix loaded = StartingHandMatrix.load(file);
+            Assert.assertEquals(matrix.getEquity(aceKingSuited, sevenDeuce), loaded.getEquity(aceKingSuited, sevenDeuce), 0);
+        } finally {
+            file.delete();
+        }
+
+    }
+
+    @Test
+    public void headsUp() {
+
+        PushFoldSolver solver = new PushFoldSolver(matrix);
+        PushFoldSolver.Solution shallow = solver.solve(2, 1);
+        PushFoldSolver.Solution deep = solver.solve(2, 10);
+        PushFoldSolver.Solution deeper = solver.solve(2, 20);
+        Assert.assertTrue(deep.getGap() < solver.getTolerance());
+
+        // Short stacks push everything, ranges tighten as stacks grow
+        Assert.assertEquals(1, shallow.getPushRange(0), 0.01);
+        Assert.assertEquals(0.58, deep.getPushRange(0), 0.02);
+        Assert.assertEquals(0.37, deep.getCallRange(0, 1), 0.02);
+        Assert.assertTrue(deeper.getPushRange(0) < deep.getPushRange(0));
+        Assert.assertTrue(deeper.getCallRange(0, 1) < deep.getCallRange(0, 1));
+
+        Assert.assertEquals(1, deep.getPush(0, hand("AS AH")), 0.01);
+        Assert.assertEquals(1, deep.getCall(0, 1, hand("AS AH")), 0.01);
+        Assert.assertEquals(0, deep.getPush(0, hand("3S 2H")), 0.01);
+        Assert.assertEquals(0, deep.getCall(0, 1, hand("7S 2H")), 0.01);
+
+    }
+
+    @Test
+    public void shortHanded() {
+
+        // The button faces two players and pushes tighter than heads-up
+        PushFoldSolver solver = new PushFoldSolver(matrix);
+        PushFoldSolver.Solution threeHanded = solver.solve(3, 10);
+        PushFoldSolver.Solution headsUp = solver.solve(2, 10);
+        Assert.assertTrue(threeHanded.getPushRange(0) < headsUp.getPushRange(0));
+        Assert.assertEquals(headsUp.getPushRange(0), threeHanded.getPushRange(1), 0.02);
+
+        // Antes widen the pushes
+        solver.setAnte(0.1);
+        Assert.assertTrue(solver.solve(3, 10).getPushRange(0) > threeHanded.getPushRange(0));
+
+    }
+
+    private static int hand(String cards) {
+        int[] pocket = PokerDeck.parseCards(cards);
+        return PreflopEquityTable.startingHandOf(pocket[0], pocket[1]);
+    }
+
+    @After
+    public void tearDown() { }
+
+    @AfterClass
+    public static void tearDownTest() { }
+}
@@ -0,0 +1,83 @@
+package com.suitgamer.tests;
+import java.util.Random;
+
+import org.junit.*;
+import org.junit.Assert;
+import com.suitgamer.tools.PokerDeck;
+import com.suitgamer.tools.Range;
+
+public class RangeTest {
+
+    @BeforeClass
+    public static void setupTest() { }
+
+    @Before
+    public void setup() { }
+
+    @Test
+    public void parsing() {
+
+        // Pairs, suited hands and weighted hands
+        Range range = Range.parse("QQ+, AKs, 76s:0.5");
+        Assert.assertEquals(6 * 3 + 4 + 4, range.size());
+
+        double total = 0;
+        for (int c = 0; c < range.size(); c++)
+            total += range.getWeight(c);
+        Assert.assertEquals(18 + 4 + 2, total, 1e-9);
+
+        // Intervals, kickers up, offsuit and any hands
+        Assert.assertEquals(18, Range.parse("22-44").size());
+        Assert.assertEquals(16, Range.parse("ATs+").size());
+        Assert.assertEquals(48, Range.parse("KTo-K7o").size());
+        Assert.assertEquals(16, Range.parse("AK").size());
+        Assert.assertEquals(1, Range.parse("AhKh").size());
+
+        // Later weights override earlier ones
+        Assert.assertEquals(0, Range.parse("AA, AA:0").size());
+
+    }
+
+    @Test
+    public void notation() {
+
+        Assert.assertFalse(Range.isRange("AS KD"));
+        Assert.assertFalse(Range.isRange("  "));
+        Assert.assertTrue(Range.isRange("AA"));
+        Assert.assertTrue(Range.isRange("QQ+, AKs"));
+
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalid() {
+        Range.parse("AXs");
+    }
+
+    @Test
+    public void sampling() {
+
+        // Leaving the ace of spades out of the deck
+        Range range = Range.parse("AA, KK:0.5");
+        range.prepare(PokerDeck.maskOf(PokerDeck.indexOf('A', 'S')));
+
+        Random random = new Random(1);
+        int aces = 0;
+        for (int i = 0; i < 90000; i++) {
+            int combo = range.sample(random);
+            Assert.assertEquals(0, range.getMask(combo) & PokerDeck.maskOf(PokerDeck.indexOf('A', 'S')));
+            if (PokerDeck.faceOf(range.getFirst(combo)) == 'A')
+                aces++;
+        }
+
+        // Three aces combos against six kings combos of half weight
+        Assert.assertEquals(45000, aces, 1000);
+
+    }
+
+    @After
+    public void cleanup() { }
+
+    @AfterClass
+    public static void cleanupTest() { }
+
+}
@@ -0,0 +1,189 @@
+package com.suitgamer.tests;
+import java.io.File;
+import java.io.RandomAccessFile;
+
+import org.junit.*;
+import org.junit.Assert;
+import com.suitgamer.tools.Group;
+import com.suitgamer.tools.Player;
+import com.suitgamer.tools.ResultStore;
+
+public class ResultStoreTest {
+
+    private File file;
+
+    @BeforeClass
+    public static void setupTest() { }
+
+    @Before
+    public void setup() throws Exception {
+        file = File.createTempFile("results", ".store");
+        file.delete();
+    }
+
+    @Test
+    public void persistence() throws Exception {
+
+        ResultStore store = ResultStore.open(file);
+        store.put("a", group(10, 5, 3), 18);
+        store.put("b", group(1, 2, 0), 3);
+        store.close();
+
+        // Results survive reopening the store
+        store = ResultStore.open(file);
+        Assert.assertEquals(2, store.size());
+        ResultStore.Result result = store.get("a");
+        Assert.assertEquals(18, result.getSimulations());
+        Assert.assertEquals(10, result.getPlayers().getPlayer(0).getWonGames());
+        Assert.assertEquals(5, result.getPlayers().getPlayer(0).getLostGames());
+        Assert.assertEquals(3, result.getPlayers().getPlayer(0).getTiedGames(2));
+        Assert.assertEquals(11.5, result.getPlayers().getPlayer(0).getWonPoints() + result.getPlayers().getPlayer(0).getTiedPoints(), 1e-9);
+        Assert.assertNull(store.get("c"));
+        store.close();
+
+    }
+
+    @Test
+    public void compaction() throws Exception {
+
+        ResultStore store = ResultStore.open(file);
+        store.put("a", group(10, 5, 3), 18);
+        store.put("a", group(20, 10, 6), 36);
+        store.put("b", group(1, 2, 0), 3);
+        Assert.assertTrue(store.getGarbage() > 0);
+
+        // Compacting keeps the latest results only
+        long length = store.getLength();
+        store.compact();
+        Assert.assertEquals(0, store.getGarbage());
+        Assert.assertTrue(store.getLength() < length);
+        Assert.assertEquals(file.length(), store.getLength());
+        Assert.assertEquals(36, store.get("a").getSimulations());
+        Assert.assertEquals(3, store.get("b").getSimulations());
+        store.close();
+
+    }
+
+    @Test
+    public void tornRecord() throws Exception {
+
+        ResultStore store = ResultStore.open(file);
+        store.put("a", group(10, 5, 3), 18);
+        store.put("b", group(1, 2, 0), 3);
+        long length = store.getLength();
+        store.close();
+
+        // Cutting the last record short as a crash while appending would
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.setLength(length - 5);
+        raf.close();
+
+        store = ResultStore.open(file);
+        Assert.assertEquals(1, store.size());
+        Assert.assertEquals(18, store.get("a").getSimulations());
+        Assert.assertNull(store.get("b"));
+
+        // Appending after the cut goes on from the last valid record
+        store.put("b", group(1, 2, 0), 3);
+        store.close();
+        store = ResultStore.open(file);
+        Assert.assertEquals(2, store.size());
+        store.close();
+
+    }
+
+    @Test
+    public void zeroedTail() throws Exception {
+
+        ResultStore store = ResultStore.open(file);
+        store.put("a", group(10, 5, 3), 18);
+        store.put("b", group(1, 2, 0), 3);
+        long length = store.getLength();
+        store.close();
+
+        // Growing the log with zeros as a power loss while appending would
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.setLength(length + 4096);
+        raf.close();
+
+        store = ResultStore.open(file);
+        Assert.assertEquals(2, store.size());
+        Assert.assertEquals(length, store.getLength());
+        Assert.assertEquals(length, file.length());
+        store.close();
+
+        // A last record failing its CRC is cut off as well
+        raf = new RandomAccessFile(file, "rw");
+        raf.seek(length - 3);
+        int value = raf.read();
+        raf.seek(length - 3);
+        raf.write(value ^ 0xFF);
+        raf.close();
+
+        store = ResultStore.open(file);
+        Assert.assertEquals(1, store.size());
+        Assert.assertNull(store.get("b"));
+        store.close();
+
+    }
+
+    @Test
+    public void corruptedRecord() throws Exception {
+
+        ResultStore store = ResultStore.open(file);
+        store.put("a", group(10, 5, 3), 18);
+        long second = store.getLength();
+        store.put("b", group(1, 2, 0), 3);
+        store.put("c", group(4, 4, 4), 12);
+        long length = store.getLength();
+        store.close();
+
+        // Flipping a byte within the second record, not at the end
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.seek(second + 12);
+        int value = raf.read();
+        raf.seek(second + 12);
+        raf.write(value ^ 0xFF);
+        raf.close();
+
+        // Opening fails and leaves the records after it
+        try {
+            ResultStore.open(file);
+            Assert.fail();
+        } catch (IllegalStateException e) {
+        }
+        Assert.assertEquals(length, file.length());
+
+    }
+
+    /**
+     * Creates a heads-up group whose first player won, lost and tied
+     * the given games
+     */
+    private static Group group(long won, long lost, long tied) {
+        Player hero = new Player("Player 0");
+        hero.setWonGames(won);
+        hero.setLostGames(lost);
+        hero.setWonPoints(won);
+        hero.tied(2, tied);
+
+        Player villain = new Player("Player 1");
+        villain.setWonGames(lost);
+        villain.setLostGames(won);
+        villain.setWonPoints(lost);
+        villain.tied(2, tied);
+
+        Group group = new Group();
+        group.addPlayer(hero);
+        group.addPlayer(villain);
+        return group;
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @AfterClass
+    public static void tearDownTest() { }
+}
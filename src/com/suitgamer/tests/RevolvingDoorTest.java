@@ -0,0 +1,84 @@
+package com.suitgamer.tests;
+
+import org.junit.*;
+import org.junit.Assert;
+import com.suitgamer.tools.Combinations;
+import com.suitgamer.tools.RevolvingDoor;
+
+public class RevolvingDoorTest {
+
+    @BeforeClass
+    public static void setupTest() { }
+
+    @Before
+    public void setup() { }
+
+    @Test
+    public void enumeration() {
+
+        int[] positions = new int[12];
+        for (int n = 0; n <= 12; n++) {
+            for (int k = 0; k <= n; k++) {
+
+                RevolvingDoor door = new RevolvingDoor(n, k);
+                long count = 0;
+                long previous = mask(door, k);
+                do {
+                    // Every combination comes at its rank and only once
+                    door.get(positions);
+                    Assert.assertEquals(count, RevolvingDoor.rank(positions, k));
+                    for (int i = 1; i < k; i++)
+                        Assert.assertTrue(positions[i - 1] < positions[i]);
+
+                    // Every step swaps exactly one position
+                    long current = mask(door, k);
+                    if (count > 0) {
+                        Assert.assertEquals(1L << door.getOut(), previous & ~current);
+                        Assert.assertEquals(1L << door.getIn(), current & ~previous);
+                    }
+                    previous = current;
+                    count++;
+                } while (door.next());
+
+                Assert.assertEquals(Combinations.binomial(n, k), count);
+            }
+        }
+
+    }
+
+    @Test
+    public void unranking() {
+
+        int[] positions = new int[5];
+        int[] expected = new int[5];
+        RevolvingDoor door = new RevolvingDoor(48, 5);
+        long rank = 0;
+        do {
+            // Starting anywhere gives the same combination as stepping there
+            if (rank % 997 == 0) {
+                door.get(expected);
+                RevolvingDoor.unrank(rank, 5, 48, positions);
+                Assert.assertArrayEquals(expected, positions);
+                new RevolvingDoor(48, 5, rank).get(positions);
+                Assert.assertArrayEquals(expected, positions);
+            }
+            rank++;
+        } while (door.next());
+
+        Assert.assertEquals(Combinations.binomial(48, 5), rank);
+
+    }
+
+    private static long mask(RevolvingDoor door, int k) {
+        long mask = 0;
+        for (int i = 0; i < k; i++)
+            mask |= 1L << door.get(i);
+        return mask;
+    }
+
+    @After
+    public void tearDown() { }
+
+    @AfterClass
+    public static void tearDownTest() { }
+}
@@ -0,0 +1,235 @@
+package com.suitgamer.tests;
+import java.util.Random;
+
+import org.junit.*;
+import org.junit.Assert;
+import com.suitgamer.ifaces.Sampler;
+import com.suitgamer.tools.AntitheticSampler;
+import com.suitgamer.tools.BitmaskHandEvaluator;
+import com.suitgamer.tools.Deck;
+import com.suitgamer.tools.PokerDeck;
+import com.suitgamer.tools.QuasiRandomSampler;
+import com.suitgamer.tools.RandomSampler;
+import com.suitgamer.tools.StratifiedSampler;
+
+public class SamplerTest {
+
+    /**
+     * Pockets of both players and the flop, the samplers deal the turn
+     * and the river
+     */
+    private static final long HERO = PokerDeck.parseMask("AS KS");
+    private static final long VILLAIN = PokerDeck.parseMask("QD QH");
+    private static final long FLOP = PokerDeck.parseMask("JS 7D 2C");
+
+    @BeforeClass
+    public static void setupTest() { }
+
+    @Before
+    public void setup() { }
+
+    @Test
+    public void distinct() {
+
+        // Dealing the turn, the river and two more pockets on every game
+        Sampler[] samplers = { new RandomSampler(new Random(1)), new StratifiedSampler(new Random(1)), new AntitheticSampler(new Random(1)) };
+        for (Sampler sampler : samplers) {
+            for (int g = 0; g < 200; g++) {
+                Deck deck = deck();
+                long live = PokerDeck.maskOf(deck);
+                sampler.prepare(deck, 2);
+
+                long dealt = 0;
+                for (int c = 0; c < 6; c++) {
+                    long card = PokerDeck.maskOf(PokerDeck.indexOf(sampler.deal(deck)));
+                    Assert.assertEquals(0, card & dealt);
+                    Assert.assertEquals(card, card & live);
+                    dealt |= card;
+                }
+                Assert.assertEquals(live & ~dealt, PokerDeck.maskOf(deck));
+            }
+        }
+
+    }
+
+    @Test
+    public void strata() {
+
+        // Every turn card is dealt first once per cycle over the strata
+        StratifiedSampler sampler = new StratifiedSampler(new Random(1));
+        int strata = deck().getSize();
+        for (int cycle = 0; cycle < 3; cycle++) {
+            long turns = 0;
+            for (int g = 0; g < strata; g++) {
+                Deck deck = deck();
+                sampler.prepare(deck, 2);
+                turns |= PokerDeck.maskOf(PokerDeck.indexOf(sampler.deal(deck)));
+                sampler.deal(deck);
+            }
+            Assert.assertEquals(PokerDeck.maskOf(deck()), turns);
+        }
+
+    }
+
+    @Test
+    public void unbiased() {
+
+        // Every sampler agrees with the exact equity within four standard errors
+        double exact = exact();
+        Sampler[] samplers = { new RandomSampler(new Random(2)), new StratifiedSampler(new Random(2)), new AntitheticSampler(new Random(2)) };
+        for (Sampler sampler : samplers)
+            Assert.assertEquals(exact, estimate(sampler, 20000), 4 * Math.sqrt(0.25 / 20000));
+
+    }
+
+    @Test
+    public void variance() {
+
+        // Spread of a game, games of a pair or of a cycle over the strata
+        // averaged together, against plain games for a fixed seed
+        int strata = deck().getSize();
+        double plain = variance(new RandomSampler(new Random(3)), 1, 1000 * strata);
+        Assert.assertTrue(variance(new StratifiedSampler(new Random(3)), strata, 1000) < plain * 0.9);
+        Assert.assertTrue(variance(new AntitheticSampler(new Random(3)), 2, 500 * strata) < plain * 0.95);
+
+    }
+
+    @Test
+    public void segments() {
+
+        // Samplers started at disjoint indexes play the segments of a
+        // single run of the same sequence
+        int games = 256;
+        long[] whole = runouts(new QuasiRandomSampler(4, 0), 2 * games);
+        QuasiRandomSampler second = new QuasiRandomSampler(4, games);
+        long[] first = runouts(new QuasiRandomSampler(4, 0), games);
+        long[] last = runouts(second, games);
+        for (int g = 0; g < games; g++) {
+            Assert.assertEquals(whole[g], first[g]);
+            Assert.assertEquals(whole[games + g], last[g]);
+        }
+        Assert.assertEquals(2 * games, second.getIndex());
+
+        // A segment of a power of two games takes one point in every
+        // interval of its size, so with fewer games than runouts none
+        // comes up more than twice
+        int[] counts = new int[64 * 64];
+        for (long runout : last) {
+            int low = Long.numberOfTrailingZeros(runout);
+            int high = 63 - Long.numberOfLeadingZeros(runout);
+            Assert.assertTrue(++counts[high * 64 + low] <= 2);
+        }
+
+    }
+
+    @Test
+    public void quasiRandom() {
+
+        // Over as many runouts, a power of two about the number of turns
+        // and rivers, quasi-random boards land closer to the exact
+        // equity than random boards, averaged over a few seeds
+        double exact = exact();
+        double quasi = 0;
+        double random = 0;
+        for (int seed = 0; seed < 20; seed++) {
+            quasi += Math.pow(estimate(new QuasiRandomSampler(seed, 0), 1024) - exact, 2);
+            random += Math.pow(estimate(new RandomSampler(new Random(seed)), 1024) - exact, 2);
+        }
+        Assert.assertTrue(quasi < random / 4);
+
+    }
+
+    /**
+     * Returns the turn and river dealt by the sampler on every game
+     */
+    private static long[] runouts(QuasiRandomSampler sampler, int games) {
+        long[] runouts = new long[games];
+        for (int g = 0; g < games; g++) {
+            Deck deck = deck();
+            sampler.prepare(deck, 2);
+            runouts[g] = PokerDeck.maskOf(PokerDeck.indexOf(sampler.deal(deck))) | PokerDeck.maskOf(PokerDeck.indexOf(sampler.deal(deck)));
+        }
+
+        return runouts;
+    }
+
+    /**
+     * Returns a deck without the pockets and the flop
+     */
+    private static Deck deck() {
+        Deck deck = new PokerDeck();
+        for (int card : PokerDeck.parseCards("AS KS QD QH JS 7D 2C"))
+            deck.dealSpecificCard(PokerDeck.faceOf(card), PokerDeck.suitOf(card));
+        return deck;
+    }
+
+    /**
+     * Returns the share of the pot the first player wins on the given
+     * turn and river
+     */
+    private static double equity(long runout) {
+        int hero = BitmaskHandEvaluator.evaluate(HERO | FLOP | runout);
+        int villain = BitmaskHandEvaluator.evaluate(VILLAIN | FLOP | runout);
+        return hero > villain ? 1 : hero == villain ? 0.5 : 0;
+    }
+
+    /**
+     * Returns the equity of the first player over every turn and river
+     */
+    private static double exact() {
+        long live = PokerDeck.maskOf(deck());
+        double sum = 0;
+        int runouts = 0;
+        for (int first = 1; first < PokerDeck.SIZE; first++) {
+            for (int second = 0; second < first; second++) {
+                long runout = PokerDeck.maskOf(first) | PokerDeck.maskOf(second);
+                if ((runout & live) != runout)
+                    continue;
+                sum += equity(runout);
+                runouts++;
+            }
+        }
+
+        return sum / runouts;
+    }
+
+    /**
+     * Returns the equity of the first player over the given number of
+     * turns and rivers dealt by the sampler
+     */
+    private static double estimate(Sampler sampler, int games) {
+        double sum = 0;
+        for (int g = 0; g < games; g++) {
+            Deck deck = deck();
+            sampler.prepare(deck, 2);
+            long runout = PokerDeck.maskOf(PokerDeck.indexOf(sampler.deal(deck))) | PokerDeck.maskOf(PokerDeck.indexOf(sampler.deal(deck)));
+            sum += equity(runout);
+        }
+
+        return sum / games;
+    }
+
+    /**
+     * Returns the variance of the equity of the first player over a
+     * single game, out of the spread of the averages of the given
+     * number of blocks of consecutive games
+     */
+    private static double variance(Sampler sampler, int games, int blocks) {
+        double sum = 0;
+        double squares = 0;
+        for (int b = 0; b < blocks; b++) {
+            double mean = estimate(sampler, games);
+            sum += mean;
+            squares += mean * mean;
+        }
+
+        double mean = sum / blocks;
+        return (squares - blocks * mean * mean) / (blocks - 1) * games;
+    }
+
+    @After
+    public void tearDown() { }
+
+    @AfterClass
+    public static void tearDownTest() { }
+}
@@ -0,0 +1,79 @@
+package com.suitgamer.tests;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.*;
+import org.junit.Assert;
+import com.suitgamer.games.TexasHoldEmSimulator;
+import com.suitgamer.tools.Showdown;
+
+public class ShowdownTest {
+
+    @BeforeClass
+    public static void setupTest() { }
+
+    @Before
+    public void setup() { }
+
+    @Test
+    public void sidePots() {
+
+        // Short stack holds the best hand, the middle stack the second best
+        Showdown showdown = new Showdown(new double[] { 100, 50, 200 }, 10);
+        Assert.assertTrue(showdown.hasSidePots());
+        double[] payouts = showdown.settle(new int[] { 2, 3, 1 });
+        Assert.assertEquals(160, payouts[1], 1e-9);
+        Assert.assertEquals(100, payouts[0], 1e-9);
+        Assert.assertEquals(100, payouts[2], 1e-9);
+
+        // Ties split every pot they contest
+        payouts = showdown.settle(new int[] { 3, 3, 1 });
+        Assert.assertEquals(80 + 100, payouts[0], 1e-9);
+        Assert.assertEquals(80, payouts[1], 1e-9);
+        Assert.assertEquals(100, payouts[2], 1e-9);
+
+        Assert.assertEquals(2, showdown.getGames());
+        Assert.assertEquals((0 + 80) / 2d, showdown.getExpectedValue(0), 1e-9);
+        Assert.assertEquals((110 + 30) / 2d, showdown.getExpectedValue(1), 1e-9);
+        Assert.assertEquals(-100, showdown.getExpectedValue(2), 1e-9);
+
+        // An uncalled excess is no side pot
+        Assert.assertFalse(new Showdown(new double[] { 100, 100, 300 }, 0).hasSidePots());
+
+    }
+
+    @Test
+    public void simulation() {
+
+        // The short stack can only win the main pot
+        TexasHoldEmSimulator simulator = new TexasHoldEmSimulator();
+        List<String> playersCards = new ArrayList<String>();
+        playersCards.add("AS AH");
+        playersCards.add("KS KH");
+        playersCards.add("2C 7D");
+        List<Double> playersBank = new ArrayList<Double>();
+        playersBank.add(10d);
+        playersBank.add(100d);
+        playersBank.add(100d);
+        List<String> communitiesCards = new ArrayList<String>();
+        communitiesCards.add("AD KD 3C 3S 9H");
+        simulator.setPlayersCards(playersCards);
+        simulator.setPlayersBank(playersBank);
+        simulator.setCommunitiesCards(communitiesCards);
+        simulator.setSimulations(5);
+        simulator.setAllIn(true);
+        simulator.simulate();
+
+        Assert.assertEquals(20, simulator.getGame().getShowdown().getExpectedValue(0), 1e-9);
+        Assert.assertEquals(80, simulator.getGame().getShowdown().getExpectedValue(1), 1e-9);
+        Assert.assertEquals(-100, simulator.getGame().getShowdown().getExpectedValue(2), 1e-9);
+        Assert.assertEquals(0, simulator.getGame().getPrunedEvaluations());
+
+    }
+
+    @After
+    public void tearDown() { }
+
+    @AfterClass
+    public static void tearDownTest() { }
+}
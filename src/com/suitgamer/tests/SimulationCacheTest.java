@@ -0,0 +1,140 @@
+package com.suitgamer.tests;
+import java.io.File;
+
+import org.junit.*;
+import org.junit.Assert;
+import com.suitgamer.games.SimulationCache;
+import com.suitgamer.games.TexasHoldEmSimulator;
+import com.suitgamer.tools.PokerDeck;
+import com.suitgamer.tools.PreflopEquityTable;
+
+public class SimulationCacheTest {
+
+    @BeforeClass
+    public static void setupTest() { }
+
+    @Before
+    public void setup() { }
+
+    @Test
+    public void hits() {
+
+        SimulationCache cache = new SimulationCache(1);
+
+        TexasHoldEmSimulator first = Simulators.texasHoldEm("AH KH", "QS QD", "JH 7C 2D", 200);
+        cache.simulate(first);
+        TexasHoldEmSimulator second = Simulators.texasHoldEm("AS KS", "QH QC", "JS 7D 2C", 100);
+        cache.simulate(second);
+
+        // The permuted scenario is answered with the same tallies
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+        Assert.assertEquals(200, second.getSimulations());
+        Assert.assertEquals(first.getGame().getPlayer(0).getWonGames(), second.getGame().getPlayer(0).getWonGames());
+
+    }
+
+    @Test
+    public void refinements() {
+
+        SimulationCache cache = new SimulationCache(1);
+        cache.simulate(Simulators.texasHoldEm("AH KH", "QS QD", "JH 7C 2D", 200));
+
+        // More games than cached only plays the missing games
+        TexasHoldEmSimulator third = Simulators.texasHoldEm("AS KS", "QH QC", "JS 7D 2C", 300);
+        cache.simulate(third);
+        Assert.assertEquals(1, cache.getRefinements());
+        Assert.assertEquals(300, third.getSimulations());
+        long games = third.getGame().getPlayer(0).getWonGames() + third.getGame().getPlayer(0).getLostGames() + third.getGame().getPlayer(0).getTiedGames();
+        Assert.assertEquals(300, games);
+
+        // A precision target asks for more games than cached
+        TexasHoldEmSimulator fourth = Simulators.texasHoldEm("AS KS", "QH QC", "JS 7D 2C", 1);
+        cache.simulate(fourth, 0.02);
+        Assert.assertTrue(fourth.getSimulations() > 300);
+        Assert.assertEquals(2, cache.getRefinements());
+
+    }
+
+    @Test
+    public void evictions() {
+
+        SimulationCache cache = new SimulationCache(1);
+        cache.simulate(Simulators.texasHoldEm("AH KH", "QS QD", "JH 7C 2D", 200));
+
+        // Another scenario evicting it
+        cache.simulate(Simulators.texasHoldEm("AS KS", "QH QC", "", 100));
+        Assert.assertEquals(2, cache.getMisses());
+        Assert.assertEquals(1, cache.getEvictions());
+        Assert.assertEquals(1, cache.size());
+
+        // The evicted scenario is simulated again
+        cache.simulate(Simulators.texasHoldEm("AH KH", "QS QD", "JH 7C 2D", 200));
+        Assert.assertEquals(3, cache.getMisses());
+        Assert.assertEquals(2, cache.getEvictions());
+
+    }
+
+    @Test
+    public void exact() throws Exception {
+
+        File file = File.createTempFile("preflop", ".table");
+        try {
+            PreflopEquityTable.generate(file, 1, 1);
+            PreflopEquityTable table = PreflopEquityTable.load(file);
+            int[] results = table.lookup(PokerDeck.indexOf('2', 'C'), PokerDeck.indexOf('2', 'D'), PokerDeck.indexOf('2', 'H'), PokerDeck.indexOf('2', 'S'));
+
+            SimulationCache cache = new SimulationCache(1);
+            cache.simulate(Simulators.texasHoldEm("2C 2D", "2H 2S", "", 100));
+
+            // Asking for exactly as many more games as the table holds
+            // boards, the exact results replace the cached ones
+            TexasHoldEmSimulator simulator = Simulators.texasHoldEm("2C 2D", "2H 2S", "", 100 + PreflopEquityTable.BOARDS);
+            simulator.setPreflopTable(table);
+            cache.simulate(simulator);
+            Assert.assertTrue(simulator.isExact());
+            Assert.assertEquals(1, cache.getRefinements());
+            Assert.assertEquals(PreflopEquityTable.BOARDS, simulator.getSimulations());
+            Assert.assertEquals(results[0], simulator.getGame().getPlayer(0).getWonGames());
+            Assert.assertEquals(results[2], simulator.getGame().getPlayer(0).getLostGames());
+            table.close();
+        } finally {
+            file.delete();
+        }
+
+    }
+
+    @Test
+    public void refused() {
+
+        // A simulator playing a single game whatever it reports
+        TexasHoldEmSimulator simulator = new TexasHoldEmSimulator() {
+            public void simulate() {
+                long asked = getSimulations();
+                setSimulations(1);
+                super.simulate();
+                setSimulations(asked);
+            }
+        };
+        TexasHoldEmSimulator scenario = Simulators.texasHoldEm("AH KH", "QS QD", "JH 7C 2D", 200);
+        simulator.setPlayersCards(scenario.getPlayersCards());
+        simulator.setPlayersBank(scenario.getPlayersBank());
+        simulator.setCommunitiesCards(scenario.getCommunitiesCards());
+        simulator.setSimulations(200);
+
+        SimulationCache cache = new SimulationCache(1);
+        try {
+            cache.simulate(simulator);
+            Assert.fail();
+        } catch (IllegalStateException e) {
+        }
+        Assert.assertEquals(0, cache.size());
+
+    }
+
+    @After
+    public void tearDown() { }
+
+    @AfterClass
+    public static void tearDownTest() { }
+}
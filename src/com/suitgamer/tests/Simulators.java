@@ -0,0 +1,41 @@
+package com.suitgamer.tests;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.suitgamer.games.TexasHoldEmSimulator;
+
+/**
+ * Scenarios shared by the tests playing simulations
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+class Simulators {
+
+    /**
+     * Returns a heads-up Texas Hold'em simulator of the given pockets
+     * and community cards, both players with an empty bank
+     *
+     * @param first Cards of the first player
+     * @param second Cards of the second player
+     * @param board Community cards, empty for none
+     * @param simulations
+     * @return
+     */
+    static TexasHoldEmSimulator texasHoldEm(String first, String second, String board, long simulations) {
+        TexasHoldEmSimulator simulator = new TexasHoldEmSimulator();
+        List<String> playersCards = new ArrayList<String>();
+        playersCards.add(first);
+        playersCards.add(second);
+        List<Double> playersBank = new ArrayList<Double>();
+        playersBank.add(0d);
+        playersBank.add(0d);
+        List<String> communitiesCards = new ArrayList<String>();
+        communitiesCards.add(board);
+        simulator.setPlayersCards(playersCards);
+        simulator.setPlayersBank(playersBank);
+        simulator.setCommunitiesCards(communitiesCards);
+        simulator.setSimulations(simulations);
+        return simulator;
+    }
+}
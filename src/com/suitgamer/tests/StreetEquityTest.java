@@ -0,0 +1,96 @@
+package com.suitgamer.tests;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.*;
+import org.junit.Assert;
+import com.suitgamer.games.ExactRangeEquity;
+import com.suitgamer.games.StreetEquity;
+import com.suitgamer.tools.PokerDeck;
+import com.suitgamer.tools.Range;
+import com.suitgamer.tools.SuitSymmetry;
+
+public class StreetEquityTest {
+
+    @BeforeClass
+    public static void setupTest() { }
+
+    @Before
+    public void setup() { }
+
+    @Test
+    public void streets() throws Exception {
+
+        List<String> playersCards = new ArrayList<String>();
+        playersCards.add("AH KH");
+        playersCards.add("QS QD");
+
+        StreetEquity equity = new StreetEquity(playersCards, "JH 7C 2D", "");
+        equity.setRunout("5H 9S");
+        equity.compute(2);
+
+        // Every street agrees with an enumeration of that street alone
+        Assert.assertEquals(exact("JH 7C 2D"), equity.getEquity(0), 1e-12);
+        Assert.assertEquals(2, equity.getStreets());
+        Assert.assertEquals(exact("JH 7C 2D 5H"), equity.getStreetEquity(0, 0), 1e-12);
+        Assert.assertEquals(exact("JH 7C 2D 5H 9S"), equity.getStreetEquity(1, 0), 1e-12);
+        Assert.assertEquals(1, equity.getEquity(0) + equity.getEquity(1), 1e-12);
+
+        // The equity is the average of the next street equities
+        double sum = 0;
+        for (int n = 0; n < equity.getNextSize(); n++) {
+            sum += equity.getNextEquity(n, 0);
+            if (equity.getNextCards(n).equals("5H"))
+                Assert.assertEquals(exact("JH 7C 2D 5H"), equity.getNextEquity(n, 0), 1e-12);
+        }
+        Assert.assertEquals(45, equity.getNextSize());
+        Assert.assertEquals(equity.getEquity(0), sum / equity.getNextSize(), 1e-12);
+
+    }
+
+    @Test
+    public void symmetry() throws Exception {
+
+        // Clubs and diamonds are interchangeable, preflop and on a flop
+        List<String> playersCards = new ArrayList<String>();
+        playersCards.add("AH KH");
+        playersCards.add("QS QH");
+        String[][] spots = { { "", "7S 2H 9H 5C 5D" }, { "7S 2H 9H", "5C 5D" } };
+        for (String[] spot : spots) {
+            Assert.assertFalse(new SuitSymmetry(PokerDeck.parseMask("AH KH"), PokerDeck.parseMask("QS QH"), PokerDeck.parseMask(spot[0])).isTrivial());
+
+            StreetEquity reduced = new StreetEquity(playersCards, spot[0], "");
+            reduced.setRunout(spot[1]);
+            reduced.compute(2);
+
+            StreetEquity full = new StreetEquity(playersCards, spot[0], "");
+            full.setRunout(spot[1]);
+            full.setSymmetric(false);
+            full.compute(2);
+
+            // Every node agrees with the unreduced enumeration
+            for (int p = 0; p < 2; p++) {
+                Assert.assertEquals(full.getEquity(p), reduced.getEquity(p), 1e-12);
+                Assert.assertEquals(full.getNextSize(), reduced.getNextSize());
+                for (int n = 0; n < full.getNextSize(); n++)
+                    Assert.assertEquals(full.getNextCards(n), full.getNextEquity(n, p), reduced.getNextEquity(n, p), 1e-12);
+                Assert.assertEquals(full.getStreets(), reduced.getStreets());
+                for (int s = 0; s < full.getStreets(); s++)
+                    Assert.assertEquals(full.getStreetEquity(s, p), reduced.getStreetEquity(s, p), 1e-12);
+            }
+        }
+
+    }
+
+    private static double exact(String board) throws Exception {
+        ExactRangeEquity exact = new ExactRangeEquity(Range.parse("AhKh"), Range.parse("QsQd"), board, "");
+        exact.compute(1);
+        return exact.getEquity();
+    }
+
+    @After
+    public void tearDown() { }
+
+    @AfterClass
+    public static void tearDownTest() { }
+}
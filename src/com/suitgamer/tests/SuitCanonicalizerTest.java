@@ -0,0 +1,76 @@
+package com.suitgamer.tests;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.*;
+import org.junit.Assert;
+import com.suitgamer.tools.DeckIndexer;
+import com.suitgamer.tools.PokerDeck;
+import com.suitgamer.tools.SuitCanonicalizer;
+import com.suitgamer.tools.SuitSymmetry;
+
+public class SuitCanonicalizerTest {
+
+    @BeforeClass
+    public static void setupTest() { }
+
+    @Before
+    public void setup() { }
+
+    @Test
+    public void canonicalize() {
+
+        // Scenarios differing by a permutation of the suits share their key
+        Assert.assertEquals(key("AH KH", "QS QD", "JH 7C 2D", ""), key("AS KS", "QH QC", "JS 7D 2C", ""));
+        Assert.assertEquals(key("AH KH", "QS QD", "", "2C"), key("AD KD", "QS QH", "", "2C"));
+
+        // Scenarios differing by more than suits do not
+        Assert.assertFalse(key("AH KH", "QS QD", "", "").equals(key("AH KS", "QS QD", "", "")));
+        Assert.assertFalse(key("AH KH", "QS QD", "", "").equals(key("QS QD", "AH KH", "", "")));
+        Assert.assertFalse(key("AH KH", "QS QD", "", "").equals(key("AH KH", "QS QD", "", "2C")));
+
+        // Ranges keep their suits
+        Assert.assertFalse(key("AhKh", "QS QD", "", "").equals(key("AsKs", "QH QC", "", "")));
+
+    }
+
+    @Test
+    public void symmetry() {
+
+        // Clubs and diamonds are untouched, hearts and spades are not interchangeable
+        long hero = PokerDeck.parseMask("AH KH");
+        long villain = PokerDeck.parseMask("QS QH");
+        SuitSymmetry symmetry = new SuitSymmetry(hero, villain);
+        Assert.assertEquals(2, symmetry.size());
+        Assert.assertTrue(new SuitSymmetry(PokerDeck.parseMask("AH KS"), PokerDeck.parseMask("QC JD")).isTrivial());
+
+        // Canonical flops stand for every flop exactly once
+        DeckIndexer indexer = new DeckIndexer(~(hero | villain), 3);
+        long weights = 0;
+        int canonical = 0;
+        for (long index = 0; index < indexer.size(); index++) {
+            int weight = symmetry.weight(indexer.mask(index));
+            weights += weight;
+            if (weight > 0)
+                canonical++;
+        }
+        Assert.assertEquals(indexer.size(), weights);
+        Assert.assertTrue(canonical < indexer.size() * 2 / 3);
+
+    }
+
+    private static String key(String first, String second, String board, String dead) {
+        List<String> playersCards = new ArrayList<String>();
+        playersCards.add(first);
+        playersCards.add(second);
+        List<String> communitiesCards = new ArrayList<String>();
+        communitiesCards.add(board);
+        return SuitCanonicalizer.canonicalize(playersCards, communitiesCards, dead);
+    }
+
+    @After
+    public void tearDown() { }
+
+    @AfterClass
+    public static void tearDownTest() { }
+}
@@ -0,0 +1,171 @@
+package com.suitgamer.tests;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.*;
+import org.junit.Assert;
+import com.suitgamer.ifaces.TableSource;
+import com.suitgamer.tools.TableBuilder;
+import com.suitgamer.tools.TableFile;
+
+public class TableBuilderTest {
+
+    private static final int KIND = 0x54455354;
+
+    private File first;
+    private File second;
+
+    @BeforeClass
+    public static void setupTest() { }
+
+    @Before
+    public void setup() throws Exception {
+        first = File.createTempFile("builder", ".table");
+        second = File.createTempFile("builder", ".table");
+    }
+
+    @Test
+    public void deterministic() throws Exception {
+
+        TableBuilder builder = new TableBuilder(new Squares(10000, -1), KIND, 1);
+        builder.setBlockSize(128);
+        builder.build(first);
+        Assert.assertEquals(1, builder.getProgress(), 0);
+
+        builder = new TableBuilder(new Squares(10000, -1), KIND, 1);
+        builder.setBlockSize(128);
+        builder.setThreads(3);
+        ByteArrayOutputStream progress = new ByteArrayOutputStream();
+        builder.setProgressStream(new PrintStream(progress));
+        builder.build(second);
+
+        Assert.assertArrayEquals(Files.readAllBytes(first.toPath()), Files.readAllBytes(second.toPath()));
+        Assert.assertTrue(progress.toString().contains("79 of 79 blocks (100%)"));
+        Assert.assertFalse(new File(second.getPath() + ".part").exists());
+        Assert.assertFalse(new File(second.getPath() + ".checkpoint").exists());
+
+        TableFile table = TableFile.open(second, KIND, 1);
+        Assert.assertTrue(table.verify());
+        for (int i = 0; i < 10000; i += 999)
+            Assert.assertEquals(i * i, table.getPayload().getInt(4L * i));
+        table.close();
+    }
+
+    @Test
+    public void resumed() throws Exception {
+
+        TableBuilder builder = new TableBuilder(new Squares(10000, -1), KIND, 1);
+        builder.setBlockSize(100);
+        builder.build(first);
+
+        // Failing after thirty blocks, then resuming with the blocks left
+        Squares failing = new Squares(10000, 30);
+        builder = new TableBuilder(failing, KIND, 1);
+        builder.setBlockSize(100);
+        builder.setThreads(2);
+        try {
+            builder.build(second);
+            Assert.fail();
+        } catch (IllegalStateException e) {
+        }
+        Assert.assertTrue(new File(second.getPath() + ".checkpoint").exists());
+        Assert.assertTrue(builder.getProgress() > 0 && builder.getProgress() < 1);
+
+        Squares resuming = new Squares(10000, -1);
+        builder = new TableBuilder(resuming, KIND, 1);
+        builder.setBlockSize(100);
+        builder.setThreads(2);
+        builder.build(second);
+        Assert.assertEquals(70, resuming.computed.get());
+        Assert.assertArrayEquals(Files.readAllBytes(first.toPath()), Files.readAllBytes(second.toPath()));
+
+        // A checkpoint of another table is started over
+        Squares other = new Squares(10000, 5);
+        builder = new TableBuilder(other, KIND, 1);
+        builder.setBlockSize(100);
+        try {
+            builder.build(second);
+            Assert.fail();
+        } catch (IllegalStateException e) {
+        }
+        Squares restarted = new Squares(10000, -1);
+        builder = new TableBuilder(restarted, KIND, 2);
+        builder.setBlockSize(100);
+        builder.build(second);
+        Assert.assertEquals(100, restarted.computed.get());
+    }
+
+    @Test
+    public void error() throws Exception {
+
+        // An error in a worker leaves no table behind, only the checkpoint
+        Squares failing = new Squares(10000, 30);
+        failing.error = true;
+        TableBuilder builder = new TableBuilder(failing, KIND, 1);
+        builder.setBlockSize(100);
+        builder.setThreads(2);
+        try {
+            builder.build(second);
+            Assert.fail();
+        } catch (Error e) {
+        }
+        Assert.assertEquals(0, second.length());
+        Assert.assertTrue(new File(second.getPath() + ".checkpoint").exists());
+
+        Squares resuming = new Squares(10000, -1);
+        builder = new TableBuilder(resuming, KIND, 1);
+        builder.setBlockSize(100);
+        builder.build(second);
+        Assert.assertEquals(70, resuming.computed.get());
+        TableFile table = TableFile.open(second, KIND, 1);
+        Assert.assertTrue(table.verify());
+        table.close();
+    }
+
+    /**
+     * Entries holding the square of their number, failing once the
+     * given number of blocks are computed
+     */
+    private static class Squares implements TableSource {
+
+        private long size;
+        private int failAfter;
+        private boolean error;
+        private AtomicInteger computed = new AtomicInteger();
+
+        private Squares(long size, int failAfter) {
+            this.size = size;
+            this.failAfter = failAfter;
+        }
+
+        public long size() {
+            return size;
+        }
+
+        public void compute(long first, int[] entries) {
+            if (computed.incrementAndGet() > failAfter && failAfter >= 0) {
+                if (error)
+                    throw new Error("Failing on purpose");
+                throw new IllegalStateException("Failing on purpose");
+            }
+
+            for (int i = 0; i < entries.length; i++)
+                entries[i] = (int) ((first + i) * (first + i));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        for (File file : new File[] { first, second }) {
+            file.delete();
+            new File(file.getPath() + ".part").delete();
+            new File(file.getPath() + ".checkpoint").delete();
+        }
+    }
+
+    @AfterClass
+    public static void tearDownTest() { }
+}
@@ -0,0 +1,111 @@
+package com.suitgamer.tests;
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Random;
+
+import org.junit.*;
+import org.junit.Assert;
+import com.suitgamer.tools.BitmaskHandEvaluator;
+import com.suitgamer.tools.PokerDeck;
+import com.suitgamer.tools.TableFile;
+import com.suitgamer.tools.TableHandEvaluator;
+
+public class TableHandEvaluatorTest {
+
+    private File file;
+
+    @BeforeClass
+    public static void setupTest() { }
+
+    @Before
+    public void setup() throws Exception {
+        file = File.createTempFile("evaluator", ".table");
+        file.delete();
+    }
+
+    @Test
+    public void generated() throws Exception {
+
+        TableHandEvaluator.generate(file);
+        TableHandEvaluator evaluator = TableHandEvaluator.open(file);
+        Assert.assertTrue(evaluator.isLoaded());
+        assertAgrees(evaluator);
+
+        waitFor(evaluator, true);
+        Assert.assertTrue(evaluator.isLoaded());
+
+        // Peculiar hands, see BitmaskHandEvaluatorTest
+        String[] hands = {
+            "AS KS QS JS TS 9S 2D", "5H 4H 3H 2H AH KD QC", "AS 2D 3C 4H 5S 9D 9C",
+            "KS KD KC 7H 7D 7C 2S", "KS KD QC QH JD JC 2S", "9S 9D 9C 9H AD KC QS",
+            "AS KS 8S 4S 2S 2D 2C", "6C 7D 8H 9S TC JD QH", "TS TD 2C 3H 4D 5S 8C"
+        };
+        for (String hand : hands)
+            Assert.assertEquals(hand, BitmaskHandEvaluator.evaluate(PokerDeck.parseMask(hand)), evaluator.evaluate(PokerDeck.parseMask(hand)));
+
+        evaluator.close();
+        Assert.assertFalse(evaluator.isLoaded());
+        assertAgrees(evaluator);
+    }
+
+    @Test
+    public void firstRun() throws Exception {
+
+        // Hands are scored while the tables are generated
+        TableHandEvaluator evaluator = TableHandEvaluator.open(file);
+        assertAgrees(evaluator);
+
+        waitFor(evaluator, true);
+        Assert.assertTrue(file.exists());
+        assertAgrees(evaluator);
+        evaluator.close();
+    }
+
+    @Test
+    public void corrupted() throws Exception {
+
+        TableHandEvaluator.generate(file);
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.seek(TableFile.HEADER + 4L * (TableHandEvaluator.FLUSHES + 100));
+        raf.writeInt(12345);
+        raf.close();
+
+        // Tables are dropped once verified
+        TableHandEvaluator evaluator = TableHandEvaluator.open(file);
+        for (int i = 0; i < 500 && evaluator.isLoaded(); i++)
+            Thread.sleep(10);
+        Assert.assertFalse(evaluator.isLoaded());
+        assertAgrees(evaluator);
+
+        try {
+            TableFile.open(file, TableHandEvaluator.KIND + 1, TableHandEvaluator.VERSION);
+            Assert.fail();
+        } catch (IllegalStateException e) {
+        }
+    }
+
+    private static void waitFor(TableHandEvaluator evaluator, boolean verified) throws InterruptedException {
+        for (int i = 0; i < 500 && evaluator.isVerified() != verified; i++)
+            Thread.sleep(10);
+        Assert.assertEquals(verified, evaluator.isVerified());
+    }
+
+    private static void assertAgrees(TableHandEvaluator evaluator) {
+        Random random = new Random(11);
+        for (int i = 0; i < 30000; i++) {
+            long cards = 0;
+            int size = 5 + i % 3;
+            while (Long.bitCount(cards) < size)
+                cards |= PokerDeck.maskOf(random.nextInt(PokerDeck.SIZE));
+            Assert.assertEquals(BitmaskHandEvaluator.evaluate(cards), evaluator.evaluate(cards));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @AfterClass
+    public static void tearDownTest() { }
+}
@@ -0,0 +1,97 @@
+package com.suitgamer.tests;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+
+import org.junit.*;
+import org.junit.Assert;
+import com.suitgamer.tools.TableStorage;
+
+public class TableStorageTest {
+
+    @BeforeClass
+    public static void setupTest() { }
+
+    @Before
+    public void setup() { }
+
+    @Test
+    public void allocated() {
+
+        // Chunks of eight bytes, so most values lay across two of them
+        TableStorage storage = TableStorage.allocate(100, 3);
+        Assert.assertEquals(100, storage.size());
+        Assert.assertEquals(0, storage.getLong(50));
+
+        for (long offset = 0; offset + 8 <= 64; offset += 13) {
+            storage.putLong(offset, 0x0102030405060708L + offset);
+            Assert.assertEquals(0x0102030405060708L + offset, storage.getLong(offset));
+        }
+        storage.putInt(70, -123456789);
+        Assert.assertEquals(-123456789, storage.getInt(70));
+        storage.putShort(79, (short) -2);
+        Assert.assertEquals(-2, storage.getShort(79));
+        Assert.assertEquals(0xFFFE, storage.getChar(79));
+        storage.putByte(99, (byte) 7);
+        Assert.assertEquals(7, storage.getByte(99));
+
+        // Bulk copies across chunks
+        byte[] bytes = new byte[30];
+        for (int b = 0; b < bytes.length; b++)
+            bytes[b] = (byte) b;
+        storage.put(5, bytes);
+        byte[] copy = new byte[30];
+        storage.get(5, copy);
+        Assert.assertArrayEquals(bytes, copy);
+        Assert.assertEquals(0x0405060708090A0BL, storage.getLong(9));
+
+        try {
+            storage.getInt(97);
+            Assert.fail();
+        } catch (IndexOutOfBoundsException e) {
+        }
+
+        storage.close();
+        Assert.assertTrue(storage.isClosed());
+        try {
+            storage.getByte(0);
+            Assert.fail();
+        } catch (IllegalStateException e) {
+        }
+    }
+
+    @Test
+    public void mapped() throws Exception {
+
+        File file = File.createTempFile("storage", ".table");
+        try {
+            DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+            out.writeInt(42);
+            for (int i = 0; i < 1000; i++)
+                out.writeInt(i * i);
+            out.close();
+
+            TableStorage storage = TableStorage.map(file, 4, 4000, 4);
+            Assert.assertTrue(storage.isReadOnly());
+            for (int i = 0; i < 1000; i++)
+                Assert.assertEquals(i * i, storage.getInt(4L * i));
+            Assert.assertEquals(((long) 9 << 32) | 16, storage.getLong(12));
+
+            try {
+                storage.putInt(0, 1);
+                Assert.fail();
+            } catch (IllegalStateException e) {
+            }
+
+            Assert.assertEquals(42, TableStorage.map(file).getInt(0));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @After
+    public void tearDown() { }
+
+    @AfterClass
+    public static void tearDownTest() { }
+}
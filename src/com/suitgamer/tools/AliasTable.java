@@ -0,0 +1,97 @@
+package com.suitgamer.tools;
+
+import java.util.Random;
+
+/**
+ * Samples an index with probability proportional to its weight in
+ * constant time, using Vose's version of Walker's alias method. The
+ * table is built once in linear time and can then be sampled any
+ * number of times
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class AliasTable {
+
+    /**
+     * Probability of keeping the index of each column rather than
+     * taking its alias
+     */
+    private double[] probabilities;
+
+    /**
+     * Index taken by each column when it is not kept
+     */
+    private int[] aliases;
+
+    /**
+     * Builds the table out of non negative weights, at least one of
+     * which must be positive
+     *
+     * @param weights
+     */
+    public AliasTable(double[] weights) {
+
+        int size = weights.length;
+        probabilities = new double[size];
+        aliases = new int[size];
+
+        // Summing weights
+        double total = 0;
+        for (double weight : weights)
+            total += weight;
+
+        if (!(total > 0))
+            throw new IllegalArgumentException("Weights must add up to a positive number");
+
+        // Scaling weights so that their average is one
+        double[] scaled = new double[size];
+        int[] small = new int[size];
+        int[] large = new int[size];
+        int smalls = 0;
+        int larges = 0;
+        for (int i = 0; i < size; i++) {
+            scaled[i] = weights[i] * size / total;
+            if (scaled[i] < 1)
+                small[smalls++] = i;
+            else
+                large[larges++] = i;
+        }
+
+        // Pairing every light column with a heavy one
+        while (smalls > 0 && larges > 0) {
+            int light = small[--smalls];
+            int heavy = large[--larges];
+
+            probabilities[light] = scaled[light];
+            aliases[light] = heavy;
+
+            scaled[heavy] = scaled[heavy] + scaled[light] - 1;
+            if (scaled[heavy] < 1)
+                small[smalls++] = heavy;
+            else
+                large[larges++] = heavy;
+        }
+
+        // Whatever is left is full up to rounding errors
+        while (larges > 0)
+            probabilities[large[--larges]] = 1;
+        while (smalls > 0)
+            probabilities[small[--smalls]] = 1;
+    }
+
+    /**
+     * Returns an index with probability proportional to its weight
+     *
+     * @param random
+     * @return
+     */
+    public int sample(Random random) {
+        int column = random.nextInt(probabilities.length);
+        return random.nextDouble() < probabilities[column] ? column : aliases[column];
+    }
+
+    public int size() {
+        return probabilities.length;
+    }
+}
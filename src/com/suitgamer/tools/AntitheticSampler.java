@@ -0,0 +1,139 @@
+package com.suitgamer.tools;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import com.suitgamer.ifaces.Sampler;
+
+/**
+ * Antithetic sampler, games are played in pairs. The first game of a
+ * pair draws every card with a fresh uniform number u, the second
+ * game draws its cards with 1 - u. Uniform numbers select cards by
+ * their position in a freshly created Poker deck, which is sorted by
+ * rank, so a low board in the first game is paired with a high board
+ * in the second game and their outcomes are negatively correlated
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class AntitheticSampler implements Sampler {
+
+    /**
+     * Random number generator for the first game of every pair
+     */
+    private Random random;
+
+    /**
+     * Uniform numbers drawn by the first game of the current pair
+     */
+    private double[] uniforms = new double[PokerDeck.SIZE];
+
+    /**
+     * Number of cards dealt so far in the current game
+     */
+    private int dealt;
+
+    /**
+     * Whether or not the current game is the second one of its pair
+     */
+    private boolean antithetic = true;
+
+    /**
+     * Position of each card within the deck, indexed by its position
+     * in a freshly created Poker deck. Negative numbers mean the card
+     * is not in the deck. Located once per game and kept up to date as
+     * cards are dealt
+     */
+    private int[] positions = new int[PokerDeck.SIZE];
+
+    /**
+     * Size of the deck the positions are up to date with
+     */
+    private int located = -1;
+
+    public AntitheticSampler() {
+        this(new Random());
+    }
+
+    public AntitheticSampler(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * Switches to the other game of the pair
+     *
+     * @param deck
+     * @param boardCards
+     * @return
+     */
+    public void prepare(Deck deck, int boardCards) {
+        antithetic = !antithetic;
+        dealt = 0;
+        locate(deck);
+    }
+
+    /**
+     * Locates every card left in the deck
+     */
+    private void locate(Deck deck) {
+        Arrays.fill(positions, -1);
+        for (int i = 0; i < deck.getSize(); i++)
+            positions[PokerDeck.indexOf(deck.getCard(i))] = i;
+        located = deck.getSize();
+    }
+
+    /**
+     * Deals the card selected by the uniform number of the current
+     * draw
+     *
+     * @param deck
+     * @return
+     */
+    public Card deal(Deck deck) {
+
+        // Drawing fresh numbers or mirroring the ones of the first game
+        double u;
+        if (!antithetic || dealt >= uniforms.length) {
+            u = random.nextDouble();
+            if (dealt < uniforms.length)
+                uniforms[dealt] = u;
+        } else {
+            u = 1 - uniforms[dealt];
+        }
+        dealt++;
+
+        // Selecting the card of such rank among the cards left
+        int rank = Math.min((int) (u * deck.getSize()), deck.getSize() - 1);
+
+        // Locating the cards again if some were dealt without the sampler
+        if (located != deck.getSize())
+            locate(deck);
+
+        // Walking the cards in Poker deck order up to the selected one
+        for (int index = 0; index < positions.length; index++) {
+            if (positions[index] < 0)
+                continue;
+            if (rank-- == 0)
+                return deal(deck, index);
+        }
+
+        // Only reached if the deck holds cards of a non Poker deck
+        return deck.dealCard(random.nextInt(deck.getSize()));
+    }
+
+    /**
+     * Deals the card of the given Poker deck position, the cards after
+     * it in the deck moving up by one
+     */
+    private Card deal(Deck deck, int index) {
+
+        int position = positions[index];
+        positions[index] = -1;
+        for (int i = 0; i < positions.length; i++)
+            if (positions[i] > position)
+                positions[i]--;
+        located--;
+
+        return deck.dealCard(position);
+    }
+}
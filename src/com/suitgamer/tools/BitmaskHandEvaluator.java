@@ -0,0 +1,250 @@
+package com.suitgamer.tools;
+
+/**
+ * Scores Poker hands held as card masks (see
+ * {@link PokerDeck#maskOf(int)}) without creating any object. The
+ * scores are the packed scores of {@link PokerHandEvaluator}, see
+ * {@link PokerHandEvaluator#packScore(int[])}, so both evaluators
+ * always agree. This includes the way {@link PokerHandEvaluator}
+ * scores two three of a kinds (as a three of a kind, not a full
+ * house) and three pairs (the kicker of the two pair leaves the third
+ * pair out).
+ *
+ * Every suit takes sixteen bits of the mask, so the ranks held in a
+ * suit are read with a shift. Ranks held twice, three or four times
+ * are found by adding the four suits bit by bit
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class BitmaskHandEvaluator {
+
+    /**
+     * Ranks of a suit, the deuce is the lowest bit
+     */
+    private static final int RANKS = 0x1FFF;
+
+    /*
+     * Hand combos, the first element of a score
+     */
+    public static final int NOTHING = 0;
+    public static final int PAIR = 1;
+    public static final int TWO_PAIR = 2;
+    public static final int THREE_OF_A_KIND = 3;
+    public static final int STRAIGHT = 4;
+    public static final int FLUSH = 5;
+    public static final int FULL_HOUSE = 6;
+    public static final int FOUR_OF_A_KIND = 7;
+    public static final int STRAIGHT_FLUSH = 8;
+
+    /**
+     * Returns the packed score of the hand holding the given cards
+     *
+     * @param cards Mask of the cards in the hand
+     * @return
+     */
+    public static int evaluate(long cards) {
+
+        // Ranks held in every suit
+        int clubs = (int) cards & RANKS;
+        int diamonds = (int) (cards >>> 16) & RANKS;
+        int hearts = (int) (cards >>> 32) & RANKS;
+        int spades = (int) (cards >>> 48) & RANKS;
+
+        // Adding the suits bit by bit to count the cards of every rank
+        int sum1 = clubs ^ diamonds;
+        int carry1 = clubs & diamonds;
+        int sum2 = hearts ^ spades;
+        int carry2 = hearts & spades;
+        int carry = sum1 & sum2;
+        int ones = sum1 ^ sum2;
+        int twos = carry1 ^ carry2 ^ carry;
+        int fours = (carry1 & carry2) | (carry & (carry1 ^ carry2));
+
+        int ranks = clubs | diamonds | hearts | spades;
+        int pairs = twos & ~ones & ~fours;
+        int trips = twos & ones;
+
+        // Ranks of the suits holding five or more cards
+        int flush = 0;
+        if (Integer.bitCount(clubs) >= 5)
+            flush |= clubs;
+        if (Integer.bitCount(diamonds) >= 5)
+            flush |= diamonds;
+        if (Integer.bitCount(hearts) >= 5)
+            flush |= hearts;
+        if (Integer.bitCount(spades) >= 5)
+            flush |= spades;
+
+        // Scoring if: straight flushes
+        if (flush != 0) {
+            int top = 0;
+            if (Integer.bitCount(clubs) >= 5)
+                top = Math.max(top, straight(clubs));
+            if (Integer.bitCount(diamonds) >= 5)
+                top = Math.max(top, straight(diamonds));
+            if (Integer.bitCount(hearts) >= 5)
+                top = Math.max(top, straight(hearts));
+            if (Integer.bitCount(spades) >= 5)
+                top = Math.max(top, straight(spades));
+
+            if (top != 0)
+                return pack(STRAIGHT_FLUSH, (top << 16) | ((top - 1) << 12) | ((top - 2) << 8) | ((top - 3) << 4) | (top - 4), 5);
+        }
+
+        // Scoring if: four of a kinds
+        if (fours != 0)
+            return pack(FOUR_OF_A_KIND, (highest(fours) << 4) | highest(ranks & ~fours), 2);
+
+        // Scoring full houses, a pair is needed besides the three of a kind
+        if (trips != 0 && pairs != 0)
+            return pack(FULL_HOUSE, (highest(trips) << 4) | highest(pairs), 2);
+
+        // Scoring flushes
+        if (flush != 0)
+            return pack(FLUSH, highest(flush, 5), 5);
+
+        // Scoring straights
+        int top = straight(ranks);
+        if (top != 0)
+            return pack(STRAIGHT, top, 1);
+
+        // Scoring three of a kinds
+        if (trips != 0)
+            return pack(THREE_OF_A_KIND, (highest(trips) << 8) | highest(ranks & ~trips, 2), 3);
+
+        // Scoring two pairs, the kicker is never one of the pairs
+        if (Integer.bitCount(pairs) >= 2) {
+            int high = highest(pairs);
+            int low = highest(pairs & ~(1 << (high - 2)));
+            return pack(TWO_PAIR, (high << 8) | (low << 4) | highest(ranks & ~pairs), 3);
+        }
+
+        // Scoring pairs
+        if (pairs != 0)
+            return pack(PAIR, (highest(pairs) << 12) | highest(ranks & ~pairs, 3), 4);
+
+        // The hand contains no traceable Poker combos
+        return pack(NOTHING, highest(ranks, 5), 5);
+    }
+
+    /**
+     * Returns the hand combo of the hand holding the given cards, that
+     * is the first element of its score. Only the rank counts and the
+     * suits are looked at, the ranks making the combo and the kickers
+     * are not, so the combo costs less than the score
+     *
+     * @param cards Mask of the cards in the hand
+     * @return
+     */
+    public static int combo(long cards) {
+
+        // Ranks held in every suit
+        int clubs = (int) cards & RANKS;
+        int diamonds = (int) (cards >>> 16) & RANKS;
+        int hearts = (int) (cards >>> 32) & RANKS;
+        int spades = (int) (cards >>> 48) & RANKS;
+
+        // Adding the suits bit by bit to count the cards of every rank
+        int sum1 = clubs ^ diamonds;
+        int carry1 = clubs & diamonds;
+        int sum2 = hearts ^ spades;
+        int carry2 = hearts & spades;
+        int carry = sum1 & sum2;
+        int ones = sum1 ^ sum2;
+        int twos = carry1 ^ carry2 ^ carry;
+        int fours = (carry1 & carry2) | (carry & (carry1 ^ carry2));
+
+        int ranks = clubs | diamonds | hearts | spades;
+        int pairs = twos & ~ones & ~fours;
+        int trips = twos & ones;
+
+        // Only the suit holding five cards or more may hold a straight flush
+        boolean flush = false;
+        for (int s = 0; s < 64; s += 16) {
+            int suit = (int) (cards >>> s) & RANKS;
+            if (Integer.bitCount(suit) >= 5) {
+                if (straight(suit) != 0)
+                    return STRAIGHT_FLUSH;
+                flush = true;
+            }
+        }
+
+        // Same order as the full scoring, without ranking the kickers
+        if (fours != 0)
+            return FOUR_OF_A_KIND;
+        if (trips != 0 && pairs != 0)
+            return FULL_HOUSE;
+        if (flush)
+            return FLUSH;
+        if (straight(ranks) != 0)
+            return STRAIGHT;
+        if (trips != 0)
+            return THREE_OF_A_KIND;
+        if (Integer.bitCount(pairs) >= 2)
+            return TWO_PAIR;
+        if (pairs != 0)
+            return PAIR;
+
+        return NOTHING;
+    }
+
+    /**
+     * Returns the hand combo out of a packed score
+     *
+     * @param score
+     * @return
+     */
+    public static int comboOf(int score) {
+        return score >>> 20;
+    }
+
+    /**
+     * Returns the highest rank of the straight formed by the given
+     * ranks, zero if there is none. The ace also counts as a one
+     */
+    private static int straight(int ranks) {
+
+        // Shifting so that bit r stands for rank r + 1, the ace lands on both ends
+        int shifted = (ranks << 1) | ((ranks >>> 12) & 1);
+        int runs = shifted & (shifted >>> 1) & (shifted >>> 2) & (shifted >>> 3) & (shifted >>> 4);
+        if (runs == 0)
+            return 0;
+
+        return 31 - Integer.numberOfLeadingZeros(runs) + 5;
+    }
+
+    /**
+     * Returns the highest rank among the given ranks, zero if none
+     */
+    private static int highest(int ranks) {
+        if (ranks == 0)
+            return 0;
+
+        return 31 - Integer.numberOfLeadingZeros(ranks) + 2;
+    }
+
+    /**
+     * Returns the given number of highest ranks among the given ranks
+     * four bits each, the highest rank first. Missing ranks are zero
+     */
+    private static int highest(int ranks, int count) {
+        int packed = 0;
+        for (int i = 0; i < count; i++) {
+            int rank = highest(ranks);
+            packed = (packed << 4) | rank;
+            if (rank != 0)
+                ranks &= ~(1 << (rank - 2));
+        }
+
+        return packed;
+    }
+
+    /**
+     * Packs a hand combo and its ranks, the given number of ranks are
+     * aligned to the first rank element of the score
+     */
+    private static int pack(int combo, int ranks, int count) {
+        return (combo << 20) | (ranks << (4 * (5 - count)));
+    }
+}
@@ -0,0 +1,212 @@
+package com.suitgamer.tools;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Buckets of every pocket on every board of a street, pockets in a
+ * same bucket having alike equity histograms (see
+ * {@link EquityHistograms}) and so being played alike by abstracted
+ * strategies. Pockets and boards equal up to a permutation of the
+ * suits share their bucket.
+ *
+ * The table is generated offline with
+ * {@link #generate(File, int, int, int, int, int)}, which computes the
+ * histograms and clusters them with {@link KMeans}, and loaded with
+ * {@link #load(File)}, which memory maps the file. Buckets are a flat
+ * array over the {@link HandIndexer} indexes of the pocket then the
+ * board cards, so a lookup is an index computation and a read off the
+ * heap.
+ *
+ * File layout, big endian: a header with {@link #MAGIC},
+ * {@link #VERSION}, the number of board cards, of buckets and of
+ * indexes, followed by the bucket of every index as a short, negative
+ * for the boards left out of the table
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class BucketTable {
+
+    public static final int MAGIC = 0x42554B54;
+    public static final int VERSION = 2;
+
+    /**
+     * Bytes taken by the header
+     */
+    private static final int HEADER = 20;
+
+    private int boardCards;
+    private int buckets;
+    private HandIndexer indexer;
+
+    /**
+     * Mapped file, the bucket of every index following the header
+     */
+    private TableStorage storage;
+
+    private BucketTable(TableStorage storage) {
+
+        if (storage.size() < HEADER || storage.getInt(0) != MAGIC)
+            throw new IllegalStateException("Not a bucket table");
+        int version = storage.getInt(4);
+        if (version != VERSION)
+            throw new IllegalStateException("Unsupported bucket table version " + version);
+
+        this.storage = storage;
+        this.boardCards = storage.getInt(8);
+        this.buckets = storage.getInt(12);
+        this.indexer = new HandIndexer(2, boardCards);
+
+        int size = storage.getInt(16);
+        if (size != indexer.size() || storage.size() != HEADER + 2L * size)
+            throw new IllegalStateException("Bucket table holds " + size + " indexes instead of " + indexer.size());
+    }
+
+    /**
+     * Memory maps a table generated by
+     * {@link #generate(File, int, int, int, int, int)}, buckets are read
+     * off the heap as they are looked up
+     *
+     * @param file
+     * @return
+     * @throws IOException
+     */
+    public static BucketTable load(File file) throws IOException {
+        return new BucketTable(TableStorage.map(file));
+    }
+
+    /**
+     * Unmaps the table, lookups then fail
+     */
+    public void close() {
+        storage.close();
+    }
+
+    /**
+     * Returns the bucket of the given pocket on the given board, from 0
+     * to {@link #getBuckets()} - 1, negative if the board was left out
+     * of the table
+     *
+     * @param pocket Mask of the pocket cards, see {@link PokerDeck#maskOf(int)}
+     * @param board Mask of the board cards
+     * @return
+     */
+    public int getBucket(long pocket, long board) {
+
+        if (Long.bitCount(pocket) != 2 || Long.bitCount(board) != boardCards || (pocket & board) != 0)
+            throw new IllegalArgumentException("A pocket of two cards and a board of " + boardCards + " other cards are needed");
+
+        return storage.getShort(HEADER + 2 * indexer.index(new long[] { pocket, board }));
+    }
+
+    /**
+     * Returns the bucket of the given pocket on the given board, cards
+     * are space separated lists such as 'JS 7D 2C'
+     *
+     * @param pocket
+     * @param board
+     * @return
+     */
+    public int getBucket(String pocket, String board) {
+        return getBucket(PokerDeck.parseMask(pocket), PokerDeck.parseMask(board));
+    }
+
+    public int getBoardCards() {
+        return boardCards;
+    }
+
+    public int getBuckets() {
+        return buckets;
+    }
+
+    /**
+     * Returns the number of indexes, see {@link HandIndexer#size()}
+     *
+     * @return
+     */
+    public int size() {
+        return (int) indexer.size();
+    }
+
+    /**
+     * Computes the histograms of every pocket on every canonical board
+     * of the street, clusters them and writes the table to the given
+     * file
+     *
+     * @param file
+     * @param boardCards Three for the flop, four for the turn
+     * @param bins Number of equity bins of the histograms
+     * @param buckets Number of buckets
+     * @param distance {@link KMeans#EUCLIDEAN} or {@link KMeans#EARTH_MOVERS}
+     * @param threads
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public static void generate(File file, int boardCards, int bins, int buckets, int distance, int threads) throws IOException, InterruptedException {
+        generate(file, boardCards, bins, buckets, distance, threads, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Same as {@link #generate(File, int, int, int, int, int)} over the
+     * given number of canonical boards, the smallest ones. Mostly
+     * useful to try the pipeline on a few boards
+     *
+     * @param file
+     * @param boardCards
+     * @param bins
+     * @param buckets
+     * @param distance
+     * @param threads
+     * @param maximumBoards
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public static void generate(File file, int boardCards, int bins, int buckets, int distance, int threads, int maximumBoards) throws IOException, InterruptedException {
+
+        if (buckets < 1 || buckets > Short.MAX_VALUE)
+            throw new IllegalArgumentException("Number of buckets must be from 1 to " + Short.MAX_VALUE);
+
+        EquityHistograms histograms = new EquityHistograms(boardCards, bins);
+        histograms.compute(threads, maximumBoards);
+
+        KMeans kMeans = new KMeans(histograms.getHistograms(), buckets, distance, 0);
+        kMeans.setThreads(threads);
+        int[] clusters = kMeans.cluster();
+
+        // Laying the buckets over the indexes, boards left out having none
+        short[] assignments = new short[(int) histograms.getIndexer().size()];
+        Arrays.fill(assignments, (short) -1);
+        for (int i = 0; i < histograms.size(); i++)
+            assignments[(int) histograms.getKey(i)] = (short) clusters[i];
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(boardCards);
+            out.writeInt(buckets);
+            out.writeInt(assignments.length);
+            for (short assignment : assignments)
+                out.writeShort(assignment);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Generates the flop or turn table into the given file, arguments
+     * are the file, the number of board cards and the number of buckets
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+
+        if (args.length < 3)
+            throw new IllegalArgumentException("Usage: BucketTable <file> <board cards> <buckets>");
+
+        generate(new File(args[0]), Integer.parseInt(args[1]), 50, Integer.parseInt(args[2]), KMeans.EARTH_MOVERS, Runtime.getRuntime().availableProcessors());
+    }
+}
@@ -0,0 +1,112 @@
+package com.suitgamer.tools;
+
+/**
+ * Combinatorial number system helpers. A k-combination of the
+ * positions 0 to n - 1 is mapped to its colexicographic rank, a dense
+ * number from 0 to C(n, k) - 1, and back
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class Combinations {
+
+    /**
+     * Largest number of elements supported, that is a full Poker deck
+     */
+    public static final int MAXIMUM = PokerDeck.SIZE;
+
+    /**
+     * Pascal triangle, BINOMIALS[n][k] holds C(n, k)
+     */
+    private static final long[][] BINOMIALS = new long[MAXIMUM + 1][MAXIMUM + 1];
+
+    static {
+        for (int n = 0; n <= MAXIMUM; n++) {
+            BINOMIALS[n][0] = 1;
+            for (int k = 1; k <= n; k++)
+                BINOMIALS[n][k] = BINOMIALS[n - 1][k - 1] + BINOMIALS[n - 1][k];
+        }
+    }
+
+    /**
+     * Returns the number of ways k elements can be chosen out of n
+     * elements. Zero is returned if k is negative or greater than n
+     *
+     * @param n
+     * @param k
+     * @return
+     */
+    public static long binomial(int n, int k) {
+        if (k < 0 || k > n)
+            return 0;
+
+        return BINOMIALS[n][k];
+    }
+
+    /**
+     * Returns the colexicographic rank of the k-combination whose
+     * positions are given in ascending order, the reverse of
+     * {@link #unrank(long, int, int, int[])}
+     *
+     * @param positions Positions of the combination, in ascending order
+     * @param k Number of elements in the combination
+     * @return
+     */
+    public static long rank(int[] positions, int k) {
+        long rank = 0;
+        for (int i = 0; i < k; i++)
+            rank += BINOMIALS[positions[i]][i + 1];
+
+        return rank;
+    }
+
+    /**
+     * Splits the ranks 0 to size - 1 into the given number of
+     * contiguous ranges of about the same length. Range i holds the
+     * ranks from element i, included, to element i + 1, excluded, of
+     * the returned array
+     *
+     * @param size Number of ranks
+     * @param parts Number of ranges
+     * @return
+     */
+    public static long[] partition(long size, int parts) {
+
+        if (parts < 1)
+            throw new IllegalArgumentException("Number of parts can not be less than one.");
+
+        long[] bounds = new long[parts + 1];
+        for (int p = 0; p <= parts; p++)
+            bounds[p] = size / parts * p + Math.min(p, size % parts);
+
+        return bounds;
+    }
+
+    /**
+     * Given a colexicographic rank this method writes the positions of
+     * the k-combination with such rank into the first k elements of
+     * the provided array, in ascending order
+     *
+     * @param rank Number from 0 to C(n, k) - 1
+     * @param k Number of elements in the combination
+     * @param n Number of elements to choose from
+     * @param positions Array receiving the positions
+     * @return
+     */
+    public static void unrank(long rank, int k, int n, int[] positions) {
+
+        // Largest position that may still be chosen
+        int c = n - 1;
+
+        for (int i = k; i >= 1; i--) {
+
+            // Finding the largest position whose binomial fits the rank
+            while (BINOMIALS[c][i] > rank)
+                c--;
+
+            positions[i - 1] = c;
+            rank -= BINOMIALS[c][i];
+            c--;
+        }
+    }
+}
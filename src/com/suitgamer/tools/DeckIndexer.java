@@ -0,0 +1,200 @@
+package com.suitgamer.tools;
+
+/**
+ * Maps every k-card subset of the cards left in a deck to a dense
+ * index from 0 to C(n, k) - 1, n being the number of cards left, and
+ * back. Cards left are ordered by their position in a freshly created
+ * Poker deck and subsets are indexed by their colexicographic rank
+ * (see {@link Combinations}), so the index space can be split into
+ * contiguous ranges of work (see {@link #partition(int)}) for
+ * threads, processes or checkpoints without listing the subsets
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class DeckIndexer {
+
+    /**
+     * Poker deck positions of the cards left, in ascending order
+     */
+    private int[] live;
+
+    /**
+     * Position of every card among the cards left, negative for cards
+     * out of the deck
+     */
+    private int[] positions = new int[PokerDeck.SIZE];
+
+    /**
+     * Number of cards in every subset
+     */
+    private int k;
+
+    /**
+     * Indexes the k-card subsets of the cards left in the given deck
+     *
+     * @param deck
+     * @param k
+     */
+    public DeckIndexer(Deck deck, int k) {
+        this(PokerDeck.maskOf(deck), k);
+    }
+
+    /**
+     * Indexes the k-card subsets of the cards in the given mask, see
+     * {@link PokerDeck#maskOf(int)}
+     *
+     * @param liveMask
+     * @param k
+     */
+    public DeckIndexer(long liveMask, int k) {
+
+        int size = 0;
+        int[] cards = new int[PokerDeck.SIZE];
+        for (int c = 0; c < PokerDeck.SIZE; c++) {
+            if ((PokerDeck.maskOf(c) & liveMask) != 0) {
+                positions[c] = size;
+                cards[size++] = c;
+            } else {
+                positions[c] = -1;
+            }
+        }
+
+        if (k < 0 || k > size)
+            throw new IllegalArgumentException("Can not choose " + k + " cards out of " + size);
+
+        this.live = new int[size];
+        System.arraycopy(cards, 0, live, 0, size);
+        this.k = k;
+    }
+
+    /**
+     * Returns the number of subsets, that is C(n, k)
+     *
+     * @return
+     */
+    public long size() {
+        return Combinations.binomial(live.length, k);
+    }
+
+    /**
+     * Returns the index of the subset holding the given cards
+     *
+     * @param cards Mask of the k cards, see {@link PokerDeck#maskOf(int)}
+     * @return
+     */
+    public long index(long cards) {
+
+        if (Long.bitCount(cards) != k)
+            throw new IllegalArgumentException("Subsets hold " + k + " cards");
+
+        // Adding the binomials of the cards in ascending order
+        long index = 0;
+        int i = 0;
+        for (int p = 0; p < live.length && i < k; p++)
+            if ((PokerDeck.maskOf(live[p]) & cards) != 0)
+                index += Combinations.binomial(p, ++i);
+
+        if (i < k)
+            throw new IllegalArgumentException("Cards are not left in the deck");
+
+        return index;
+    }
+
+    /**
+     * Returns the index of the subset holding the cards at the given
+     * Poker deck positions, in any order
+     *
+     * @param cards
+     * @return
+     */
+    public long index(int[] cards) {
+        long mask = 0;
+        for (int card : cards)
+            mask |= PokerDeck.maskOf(card);
+
+        return index(mask);
+    }
+
+    /**
+     * Writes the Poker deck positions of the cards of the subset with
+     * the given index into the first k elements of the provided array,
+     * in ascending order
+     *
+     * @param index Number from 0 to {@link #size()} - 1
+     * @param cards Array receiving the cards
+     */
+    public void cards(long index, int[] cards) {
+        Combinations.unrank(index, k, live.length, cards);
+        for (int c = 0; c < k; c++)
+            cards[c] = live[cards[c]];
+    }
+
+    /**
+     * Returns the mask of the cards of the subset with the given index
+     *
+     * @param index Number from 0 to {@link #size()} - 1
+     * @return
+     */
+    public long mask(long index) {
+        int[] cards = new int[k];
+        cards(index, cards);
+
+        long mask = 0;
+        for (int card : cards)
+            mask |= PokerDeck.maskOf(card);
+
+        return mask;
+    }
+
+    /**
+     * Splits the indexes into the given number of contiguous ranges,
+     * see {@link Combinations#partition(long, int)}
+     *
+     * @param parts
+     * @return
+     */
+    public long[] partition(int parts) {
+        return Combinations.partition(size(), parts);
+    }
+
+    /**
+     * Returns the Poker deck position of the card left at the given
+     * position, cards left are in ascending order
+     *
+     * @param position
+     * @return
+     */
+    public int getCard(int position) {
+        return live[position];
+    }
+
+    /**
+     * Returns the position of the card among the cards left, negative
+     * if the card is out of the deck
+     *
+     * @param card Poker deck position of the card
+     * @return
+     */
+    public int getPosition(int card) {
+        return positions[card];
+    }
+
+    /**
+     * Returns the number of cards left
+     *
+     * @return
+     */
+    public int getLiveSize() {
+        return live.length;
+    }
+
+    /**
+     * Returns the number of cards in every subset
+     *
+     * @return
+     */
+    public int getK() {
+        return k;
+    }
+}
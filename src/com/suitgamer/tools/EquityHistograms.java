@@ -0,0 +1,368 @@
+package com.suitgamer.tools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Computes, for every pocket on every board of a street up to a
+ * permutation of the suits, the histogram of its equity on the river
+ * over every runout of the board. The equity on a river is the share
+ * of the opponent pockets the pocket beats, ties counting half, and
+ * the histogram splits it in equal bins. Such histograms tell apart
+ * hands with the same average equity but different chances to end up
+ * strong or weak, which is what clustering them into buckets is for
+ * (see {@link KMeans} and {@link BucketTable}).
+ *
+ * Boards are canonical, the smallest mask among the suit permutations
+ * of the board, and so are the pockets on a board, the smallest mask
+ * among the permutations leaving the board as it is. Every pocket on
+ * every board is keyed by its {@link HandIndexer} index, the pocket
+ * then the board as two rounds, so the keys of every board of the
+ * street take every index once. Hands are held as card masks and every
+ * river is ranked once for every pocket on it: the scores of every
+ * pocket on the river are sorted, along with the scores of the pockets
+ * holding every card, so the equity of a pocket is three binary
+ * searches. Boards are shared among threads
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class EquityHistograms {
+
+    /**
+     * Number of board cards of the street, three on the flop and four
+     * on the turn
+     */
+    private int boardCards;
+
+    private int bins;
+
+    /**
+     * Indexes the pocket then the board cards
+     */
+    private HandIndexer indexer;
+
+    /**
+     * Index of every pocket and board, in the order of the boards and
+     * of the pockets on every board
+     */
+    private long[] keys;
+
+    /**
+     * Share of the runouts falling in every bin, for every key
+     */
+    private float[][] histograms;
+
+    /**
+     * Prepares the histograms of the given street
+     *
+     * @param boardCards Three for the flop, four for the turn
+     * @param bins Number of equity bins
+     */
+    public EquityHistograms(int boardCards, int bins) {
+
+        if (boardCards != 3 && boardCards != 4)
+            throw new IllegalArgumentException("Histograms are computed on the flop or the turn");
+        if (bins < 1)
+            throw new IllegalArgumentException("Number of bins can not be less than one.");
+
+        this.boardCards = boardCards;
+        this.bins = bins;
+        this.indexer = new HandIndexer(2, boardCards);
+    }
+
+    /**
+     * Computes the histograms of every pocket on every canonical board
+     * with the given number of threads
+     *
+     * @param threads
+     * @throws InterruptedException
+     */
+    public void compute(int threads) throws InterruptedException {
+        compute(threads, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Computes the histograms of every pocket on the given number of
+     * canonical boards, the smallest ones. Mostly useful to try the
+     * pipeline on a few boards
+     *
+     * @param threads
+     * @param maximumBoards
+     * @throws InterruptedException
+     */
+    public void compute(int threads, int maximumBoards) throws InterruptedException {
+
+        if (threads < 1)
+            throw new IllegalArgumentException("Number of threads can not be less than one.");
+
+        long[] all = canonicalBoards(boardCards);
+        final long[] boards = Arrays.copyOf(all, Math.min(all.length, maximumBoards));
+        final long[][] boardKeys = new long[boards.length][];
+        final float[][][] boardHistograms = new float[boards.length][][];
+
+        // Threads take the next board left until none is left
+        final AtomicInteger next = new AtomicInteger();
+        List<Thread> workers = new ArrayList<Thread>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(new Thread(new Runnable() {
+                public void run() {
+                    RiverRanking ranking = new RiverRanking();
+                    for (int b = next.getAndIncrement(); b < boards.length; b = next.getAndIncrement()) {
+                        long[] pockets = canonicalPockets(boards[b]);
+                        boardHistograms[b] = histograms(boards[b], pockets, ranking);
+                        boardKeys[b] = new long[pockets.length];
+                        for (int p = 0; p < pockets.length; p++)
+                            boardKeys[b][p] = indexer.index(new long[] { pockets[p], boards[b] });
+                    }
+                }
+            }));
+        }
+
+        for (Thread worker : workers)
+            worker.start();
+        for (Thread worker : workers)
+            worker.join();
+
+        // Laying the boards one after the other
+        int size = 0;
+        for (long[] board : boardKeys)
+            size += board.length;
+        keys = new long[size];
+        histograms = new float[size][];
+        int i = 0;
+        for (int b = 0; b < boards.length; b++) {
+            System.arraycopy(boardKeys[b], 0, keys, i, boardKeys[b].length);
+            System.arraycopy(boardHistograms[b], 0, histograms, i, boardHistograms[b].length);
+            i += boardKeys[b].length;
+        }
+    }
+
+    /**
+     * Fills the histograms of the pockets on the board, walking every
+     * runout once
+     */
+    private float[][] histograms(long board, long[] pockets, RiverRanking ranking) {
+
+        float[][] histograms = new float[pockets.length][bins];
+        int[] counts = new int[pockets.length];
+
+        DeckIndexer runouts = new DeckIndexer(~board, 5 - boardCards);
+        for (long r = 0; r < runouts.size(); r++) {
+            long runout = runouts.mask(r);
+            ranking.rank(board | runout);
+            for (int p = 0; p < pockets.length; p++) {
+                if ((pockets[p] & runout) != 0)
+                    continue;
+                int bin = (int) (ranking.equity(pockets[p]) * bins);
+                histograms[p][Math.min(bin, bins - 1)]++;
+                counts[p]++;
+            }
+        }
+
+        for (int p = 0; p < pockets.length; p++)
+            for (int b = 0; b < bins; b++)
+                histograms[p][b] /= counts[p];
+
+        return histograms;
+    }
+
+    /**
+     * Returns the boards of the given number of cards which are the
+     * smallest mask among their suit permutations, in ascending order
+     *
+     * @param cards
+     * @return
+     */
+    public static long[] canonicalBoards(int cards) {
+
+        List<Long> boards = new ArrayList<Long>();
+        int[] positions = new int[cards];
+        for (long rank = 0; rank < Combinations.binomial(PokerDeck.SIZE, cards); rank++) {
+            Combinations.unrank(rank, cards, PokerDeck.SIZE, positions);
+            long board = 0;
+            for (int position : positions)
+                board |= PokerDeck.maskOf(position);
+            if (SuitCanonicalizer.canonicalize(new long[] { board })[0] == board)
+                boards.add(board);
+        }
+
+        long[] masks = new long[boards.size()];
+        for (int b = 0; b < masks.length; b++)
+            masks[b] = boards.get(b);
+        Arrays.sort(masks);
+
+        return masks;
+    }
+
+    /**
+     * Returns the pockets which are the smallest mask among the suit
+     * permutations leaving the given canonical board as it is
+     *
+     * @param board
+     * @return
+     */
+    public static long[] canonicalPockets(long board) {
+
+        SuitSymmetry symmetry = new SuitSymmetry(board);
+        long[] pockets = new long[(int) Combinations.binomial(PokerDeck.SIZE - Long.bitCount(board), 2)];
+        int count = 0;
+        for (int first = 1; first < PokerDeck.SIZE; first++) {
+            for (int second = 0; second < first; second++) {
+                long pocket = PokerDeck.maskOf(first) | PokerDeck.maskOf(second);
+                if ((pocket & board) != 0)
+                    continue;
+                boolean canonical = true;
+                for (int i = 1; i < symmetry.size() && canonical; i++)
+                    canonical = symmetry.permute(pocket, i) >= pocket;
+                if (canonical)
+                    pockets[count++] = pocket;
+            }
+        }
+
+        return Arrays.copyOf(pockets, count);
+    }
+
+    /**
+     * Returns the number of pockets and boards computed
+     *
+     * @return
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Returns the index of the given pocket and board, see
+     * {@link #getIndexer()}
+     *
+     * @param i
+     * @return
+     */
+    public long getKey(int i) {
+        return keys[i];
+    }
+
+    /**
+     * Returns the share of the runouts falling in every equity bin
+     *
+     * @param i
+     * @return
+     */
+    public float[] getHistogram(int i) {
+        return histograms[i];
+    }
+
+    /**
+     * Returns every histogram, in the order of the keys
+     *
+     * @return
+     */
+    public float[][] getHistograms() {
+        return histograms;
+    }
+
+    /**
+     * Returns the indexer of the keys, the pocket then the board cards
+     *
+     * @return
+     */
+    public HandIndexer getIndexer() {
+        return indexer;
+    }
+
+    public int getBins() {
+        return bins;
+    }
+
+    public int getBoardCards() {
+        return boardCards;
+    }
+
+    /**
+     * Ranks every pocket on a river, arrays are reused from one river
+     * to the next
+     */
+    private static class RiverRanking {
+
+        /**
+         * Score of every pocket, by the positions of its two cards
+         */
+        private int[] scores = new int[PokerDeck.SIZE * PokerDeck.SIZE];
+
+        /**
+         * Sorted scores of every pocket, and of the pockets holding
+         * every card
+         */
+        private int[] all = new int[1081];
+        private int[][] byCard = new int[PokerDeck.SIZE][PokerDeck.SIZE];
+        private int[] byCardSize = new int[PokerDeck.SIZE];
+        private int size;
+
+        private void rank(long river) {
+
+            size = 0;
+            Arrays.fill(byCardSize, 0);
+            for (int first = 1; first < PokerDeck.SIZE; first++) {
+                long firstMask = PokerDeck.maskOf(first);
+                if ((firstMask & river) != 0)
+                    continue;
+                for (int second = 0; second < first; second++) {
+                    long secondMask = PokerDeck.maskOf(second);
+                    if ((secondMask & river) != 0)
+                        continue;
+                    int score = BitmaskHandEvaluator.evaluate(firstMask | secondMask | river);
+                    scores[first * PokerDeck.SIZE + second] = score;
+                    all[size++] = score;
+                    byCard[first][byCardSize[first]++] = score;
+                    byCard[second][byCardSize[second]++] = score;
+                }
+            }
+
+            Arrays.sort(all, 0, size);
+            for (int c = 0; c < PokerDeck.SIZE; c++)
+                Arrays.sort(byCard[c], 0, byCardSize[c]);
+        }
+
+        /**
+         * Returns the share of the pockets sharing no card with the
+         * given pocket it beats, ties counting half. The pockets holding
+         * either card are taken out, the pocket itself holds both so it
+         * is taken out twice and added back once
+         */
+        private double equity(long pocket) {
+
+            int low = position(Long.numberOfTrailingZeros(pocket));
+            int high = position(63 - Long.numberOfLeadingZeros(pocket));
+            int first = Math.max(low, high);
+            int second = Math.min(low, high);
+            int score = scores[first * PokerDeck.SIZE + second];
+
+            int below = lowerBound(all, size, score) - lowerBound(byCard[first], byCardSize[first], score) - lowerBound(byCard[second], byCardSize[second], score);
+            int notAbove = lowerBound(all, size, score + 1) - lowerBound(byCard[first], byCardSize[first], score + 1) - lowerBound(byCard[second], byCardSize[second], score + 1) + 1;
+            int total = size - byCardSize[first] - byCardSize[second] + 1;
+
+            return (below + (notAbove - below) / 2d) / total;
+        }
+
+        private static int position(int bit) {
+            return (bit % 16) * 4 + bit / 16;
+        }
+
+        private static int lowerBound(int[] sorted, int size, int score) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (sorted[middle] < score)
+                    low = middle + 1;
+                else
+                    high = middle;
+            }
+
+            return low;
+        }
+    }
+}
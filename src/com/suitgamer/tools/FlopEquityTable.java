@@ -0,0 +1,519 @@
+package com.suitgamer.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Exact heads-up equities of every pair of pockets on every flop, over
+ * every turn and river. Flops which only differ by a permutation of the
+ * suits share their equities, so only the 1,755 canonical flops are
+ * computed and stored (see {@link EquityHistograms#canonicalBoards(int)}),
+ * every one as a block holding every pair of the 1,176 pockets left.
+ *
+ * A block is computed with one evaluation per pocket and runout, every
+ * runout then comparing the scores of every pair of pockets. An entry
+ * holds twice the runouts the pocket with the higher number wins plus
+ * the runouts tied, out of {@link #RUNOUTS}, pockets being numbered by
+ * their {@link DeckIndexer} index among the cards left, and pairs laid
+ * as a lower triangle. Blocks are deflated.
+ *
+ * The table is generated offline with {@link #generate(File, int)},
+ * flops being shared among threads. Blocks are appended to the file in
+ * the order of their flops, so the file is the same whatever the
+ * number of threads, and every block is recorded in the index only
+ * once written, so an interrupted generation resumes from the flops
+ * left. The table
+ * is loaded with {@link #load(File)}, which memory maps the file, and
+ * blocks are inflated on lookup off the heap, the most recently used
+ * ones being kept.
+ *
+ * File layout, big endian: a header with {@link #MAGIC},
+ * {@link #VERSION} and the number of flops, followed by the offset and
+ * the length of the block of every flop, zero for flops not generated
+ * yet, then the blocks
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class FlopEquityTable {
+
+    /**
+     * Identifies flop equity table files
+     */
+    public static final int MAGIC = 0x46455154;
+
+    /**
+     * Version of the file layout
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Number of canonical flops, pockets left on a flop, pairs of them
+     * and runouts left to a pair of pockets
+     */
+    public static final int FLOPS = 1755;
+    public static final int POCKETS = (int) Combinations.binomial(PokerDeck.SIZE - 3, 2);
+    public static final int PAIRS = POCKETS * (POCKETS - 1) / 2;
+    public static final int RUNOUTS = (int) Combinations.binomial(PokerDeck.SIZE - 7, 2);
+
+    /**
+     * Bytes taken by the header, with the index, and by every index
+     * entry
+     */
+    private static final int HEADER = 12 + FLOPS * 12;
+    private static final int ENTRY = 12;
+
+    /**
+     * Canonical flops, in ascending order
+     */
+    private static long[] flops;
+
+    /**
+     * Mapped file, along with the offset and the length of the block of
+     * every flop, zero for flops not generated
+     */
+    private TableStorage storage;
+    private long[] offsets;
+    private int[] lengths;
+
+    /**
+     * Inflated blocks, the least recently used is evicted once the
+     * capacity is reached
+     */
+    private Map<Integer, TableStorage> inflated;
+
+    private FlopEquityTable(TableStorage storage, long[] offsets, int[] lengths, final int capacity) {
+        this.storage = storage;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.inflated = new LinkedHashMap<Integer, TableStorage>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            protected boolean removeEldestEntry(Map.Entry<Integer, TableStorage> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Memory maps a table generated by {@link #generate(File, int)},
+     * keeping up to sixteen inflated blocks
+     *
+     * @param file
+     * @return
+     * @throws IOException
+     */
+    public static FlopEquityTable load(File file) throws IOException {
+        return load(file, 16);
+    }
+
+    /**
+     * Memory maps a table generated by {@link #generate(File, int)}
+     *
+     * @param file
+     * @param capacity Number of inflated blocks kept, each one taking
+     *        about 1.4 MB off the heap
+     * @return
+     * @throws IOException
+     */
+    public static FlopEquityTable load(File file, int capacity) throws IOException {
+
+        if (capacity < 1)
+            throw new IllegalArgumentException("Capacity can not be less than one.");
+
+        long[] offsets = new long[FLOPS];
+        int[] lengths = new int[FLOPS];
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            if (!readIndex(raf, offsets, lengths))
+                throw new IllegalStateException("Not a flop equity table");
+        } finally {
+            raf.close();
+        }
+
+        return new FlopEquityTable(TableStorage.map(file), offsets, lengths, capacity);
+    }
+
+    /**
+     * Unmaps the table and drops the inflated blocks, lookups then fail
+     */
+    public synchronized void close() {
+        storage.close();
+        inflated.clear();
+    }
+
+    /**
+     * Reads the index of the file, false is returned if the file is not
+     * a flop equity table
+     */
+    private static boolean readIndex(RandomAccessFile raf, long[] offsets, int[] lengths) throws IOException {
+
+        if (raf.length() < HEADER)
+            return false;
+
+        raf.seek(0);
+        if (raf.readInt() != MAGIC)
+            return false;
+        int version = raf.readInt();
+        if (version != VERSION)
+            throw new IllegalStateException("Unsupported flop equity table version " + version);
+        if (raf.readInt() != FLOPS)
+            return false;
+
+        for (int f = 0; f < FLOPS; f++) {
+            offsets[f] = raf.readLong();
+            lengths[f] = raf.readInt();
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the share of the pot the hero is expected to win on the
+     * flop against the villain, all-in, ties counting half. Not a
+     * number is returned if the flop is not in the table
+     *
+     * @param hero Mask of the hero pocket cards, see {@link PokerDeck#maskOf(int)}
+     * @param villain Mask of the villain pocket cards
+     * @param flop Mask of the flop cards
+     * @return
+     */
+    public double getEquity(long hero, long villain, long flop) {
+
+        if (Long.bitCount(hero) != 2 || Long.bitCount(villain) != 2 || Long.bitCount(flop) != 3 || Long.bitCount(hero | villain | flop) != 7)
+            throw new IllegalArgumentException("Two pockets of two cards and a flop of three other cards are needed");
+
+        // Equities are shared by the suit permutations of the flop
+        long[] canonical = SuitCanonicalizer.canonicalize(new long[] { flop, hero, villain });
+        int f = Arrays.binarySearch(getFlops(), canonical[0]);
+        if (lengths[f] == 0)
+            return Double.NaN;
+
+        int h = pocketOf(canonical[0], canonical[1]);
+        int v = pocketOf(canonical[0], canonical[2]);
+        TableStorage block = inflate(f);
+        double equity = block.getChar(2L * pairOf(h, v)) / (2d * RUNOUTS);
+
+        return h > v ? equity : 1 - equity;
+    }
+
+    /**
+     * Returns the share of the pot the hero is expected to win on the
+     * flop against the villain, cards are space separated lists such
+     * as 'JS 7D 2C'
+     *
+     * @param hero
+     * @param villain
+     * @param flop
+     * @return
+     */
+    public double getEquity(String hero, String villain, String flop) {
+        return getEquity(PokerDeck.parseMask(hero), PokerDeck.parseMask(villain), PokerDeck.parseMask(flop));
+    }
+
+    /**
+     * Returns the number of flops in the table
+     *
+     * @return
+     */
+    public int size() {
+        int size = 0;
+        for (int length : lengths)
+            if (length > 0)
+                size++;
+
+        return size;
+    }
+
+    /**
+     * Returns the inflated block of the given flop, inflating it if it
+     * is not kept already
+     */
+    private synchronized TableStorage inflate(int flop) {
+
+        TableStorage block = inflated.get(flop);
+        if (block != null)
+            return block;
+
+        byte[] compressed = new byte[lengths[flop]];
+        storage.get(offsets[flop], compressed);
+
+        byte[] bytes = new byte[PAIRS * 2];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int length = 0;
+            while (length < bytes.length && !inflater.finished())
+                length += inflater.inflate(bytes, length, bytes.length - length);
+            if (length != bytes.length)
+                throw new IllegalStateException("Block of flop " + flop + " is truncated");
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Block of flop " + flop + " is corrupted", e);
+        } finally {
+            inflater.end();
+        }
+
+        block = TableStorage.allocate(bytes.length);
+        block.put(0, bytes);
+        inflated.put(flop, block);
+
+        return block;
+    }
+
+    /**
+     * Returns the canonical flops, in ascending order
+     *
+     * @return
+     */
+    public static synchronized long[] getFlops() {
+        if (flops == null)
+            flops = EquityHistograms.canonicalBoards(3);
+
+        return flops;
+    }
+
+    /**
+     * Returns the number of the pocket among the pockets left on the
+     * flop, its colexicographic rank among the cards left
+     */
+    private static int pocketOf(long flop, long pocket) {
+        int[] positions = new int[2];
+        int i = 0;
+        for (long bits = pocket; bits != 0; bits &= bits - 1) {
+            int bit = Long.numberOfTrailingZeros(bits);
+            int card = (bit % 16) * 4 + bit / 16;
+            int below = 0;
+            for (long cards = flop; cards != 0; cards &= cards - 1) {
+                int flopBit = Long.numberOfTrailingZeros(cards);
+                if ((flopBit % 16) * 4 + flopBit / 16 < card)
+                    below++;
+            }
+            positions[i++] = card - below;
+        }
+        Arrays.sort(positions);
+
+        return (int) Combinations.rank(positions, 2);
+    }
+
+    /**
+     * Returns the entry of the pair of two distinct pockets in the lower
+     * triangle
+     */
+    private static int pairOf(int first, int second) {
+        int high = Math.max(first, second);
+        return high * (high - 1) / 2 + Math.min(first, second);
+    }
+
+    /**
+     * Computes the entries of every pair of pockets on the flop, zero
+     * for pockets sharing a card
+     *
+     * @param flop
+     * @return
+     */
+    public static char[] compute(long flop) {
+
+        DeckIndexer indexer = new DeckIndexer(~flop, 2);
+        long[] masks = new long[POCKETS];
+        for (int p = 0; p < POCKETS; p++)
+            masks[p] = indexer.mask(p);
+
+        // Runouts are pockets too, the pockets holding one of their
+        // cards score the lowest
+        int[] counts = new int[PAIRS];
+        int[] scores = new int[POCKETS];
+        for (int r = 0; r < POCKETS; r++) {
+            long runout = masks[r];
+            for (int p = 0; p < POCKETS; p++)
+                scores[p] = (masks[p] & runout) != 0 ? Integer.MIN_VALUE : BitmaskHandEvaluator.evaluate(masks[p] | flop | runout);
+
+            for (int high = 1; high < POCKETS; high++) {
+                int score = scores[high];
+                int row = high * (high - 1) / 2;
+                for (int low = 0; low < high; low++)
+                    counts[row + low] += Integer.compare(score, scores[low]) + 1;
+            }
+        }
+
+        // Taking back the runouts holding a card of the low pocket only,
+        // won twice, and holding a card of both pockets, tied
+        int lowOnly = (int) (Combinations.binomial(PokerDeck.SIZE - 5, 2) - RUNOUTS);
+        int both = POCKETS - 2 * (RUNOUTS + lowOnly) + RUNOUTS;
+        char[] block = new char[PAIRS];
+        for (int high = 1; high < POCKETS; high++)
+            for (int low = 0; low < high; low++)
+                if ((masks[high] & masks[low]) == 0)
+                    block[pairOf(high, low)] = (char) (counts[pairOf(high, low)] - 2 * lowOnly - both);
+
+        return block;
+    }
+
+    /**
+     * Computes every flop left with the given number of threads,
+     * resuming the table in the given file if there is one
+     *
+     * @param file
+     * @param threads
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public static void generate(File file, int threads) throws IOException, InterruptedException {
+        generate(file, threads, FLOPS);
+    }
+
+    /**
+     * Computes the flops left among the given number of canonical
+     * flops, the smallest ones, resuming the table in the given file if
+     * there is one. Mostly useful to try the generator on a few flops
+     *
+     * @param file
+     * @param threads
+     * @param maximumFlops
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public static void generate(File file, int threads, int maximumFlops) throws IOException, InterruptedException {
+        generate(file, threads, maximumFlops, null);
+    }
+
+    /**
+     * Computes the flops left among the given number of canonical
+     * flops, resuming the table in the given file if there is one, and
+     * prints a line every percent of those flops computed
+     *
+     * @param file
+     * @param threads
+     * @param maximumFlops
+     * @param progress Stream receiving the progress, null for none
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public static void generate(File file, int threads, int maximumFlops, final PrintStream progress) throws IOException, InterruptedException {
+
+        if (threads < 1)
+            throw new IllegalArgumentException("Number of threads can not be less than one.");
+
+        final long[] flops = getFlops();
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            long[] offsets = new long[FLOPS];
+            int[] lengths = new int[FLOPS];
+
+            // Resuming after the last block recorded, a block written
+            // but not recorded is dropped
+            final long[] end = { HEADER };
+            if (readIndex(raf, offsets, lengths)) {
+                for (int f = 0; f < FLOPS; f++)
+                    end[0] = Math.max(end[0], offsets[f] + lengths[f]);
+            } else {
+                raf.setLength(0);
+                raf.writeInt(MAGIC);
+                raf.writeInt(VERSION);
+                raf.writeInt(FLOPS);
+                raf.write(new byte[FLOPS * ENTRY]);
+            }
+            raf.setLength(end[0]);
+
+            final List<Integer> left = new ArrayList<Integer>();
+            for (int f = 0; f < Math.min(FLOPS, maximumFlops); f++)
+                if (lengths[f] == 0)
+                    left.add(f);
+
+            // Threads take the next flop left until none is left, blocks
+            // computed ahead of their turn wait so blocks are written in
+            // the order of their flops, whatever the number of threads
+            final AtomicInteger next = new AtomicInteger();
+            final Map<Integer, byte[]> waiting = new HashMap<Integer, byte[]>();
+            final int[] written = { 0 };
+            final IOException[] failure = new IOException[1];
+            List<Thread> workers = new ArrayList<Thread>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(new Thread(new Runnable() {
+                    public void run() {
+                        for (int i = next.getAndIncrement(); i < left.size(); i = next.getAndIncrement()) {
+                            byte[] block = deflate(compute(flops[left.get(i)]));
+                            synchronized (raf) {
+                                waiting.put(i, block);
+                                try {
+                                    while (failure[0] == null && waiting.containsKey(written[0])) {
+                                        block = waiting.remove(written[0]);
+                                        int f = left.get(written[0]);
+                                        raf.seek(end[0]);
+                                        raf.write(block);
+                                        raf.getChannel().force(false);
+                                        raf.seek(12 + f * ENTRY);
+                                        raf.writeLong(end[0]);
+                                        raf.writeInt(block.length);
+                                        end[0] += block.length;
+                                        written[0]++;
+
+                                        if (progress != null && written[0] * 100 / left.size() != (written[0] - 1) * 100 / left.size())
+                                            progress.println("Computed " + written[0] + " of " + left.size() + " flops (" + written[0] * 100 / left.size() + "%)");
+                                    }
+                                } catch (IOException e) {
+                                    failure[0] = e;
+                                    next.set(left.size());
+                                }
+                            }
+                        }
+                    }
+                }));
+            }
+
+            for (Thread worker : workers)
+                worker.start();
+            for (Thread worker : workers)
+                worker.join();
+
+            if (failure[0] != null)
+                throw failure[0];
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Deflates the entries of a block, big endian
+     */
+    private static byte[] deflate(char[] block) {
+
+        byte[] bytes = new byte[block.length * 2];
+        ByteBuffer.wrap(bytes).asCharBuffer().put(block);
+
+        Deflater deflater = new Deflater();
+        deflater.setInput(bytes);
+        deflater.finish();
+        byte[] buffer = new byte[bytes.length + 1024];
+        int length = 0;
+        while (!deflater.finished())
+            length += deflater.deflate(buffer, length, buffer.length - length);
+        deflater.end();
+
+        return Arrays.copyOf(buffer, length);
+    }
+
+    /**
+     * Generates the table, or resumes it, into the file given as first
+     * argument
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+
+        if (args.length < 1)
+            throw new IllegalArgumentException("Usage: FlopEquityTable <file>");
+
+        generate(new File(args[0]), Runtime.getRuntime().availableProcessors(), FLOPS, System.out);
+    }
+}
@@ -0,0 +1,479 @@
+package com.suitgamer.tools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Maps every hand dealt over a sequence of rounds, such as the pocket
+ * cards then the flop, to a dense index equal for every hand equal up
+ * to a permutation of the suits, and back. No two hands differing by
+ * more than the suits share an index and every index from 0 to
+ * {@link #size()} - 1 is taken, so tables keyed by hands can be flat
+ * arrays. In Texas Hold'em the rounds are two pocket cards, three flop
+ * cards then one turn card and one river card (see
+ * {@link #forStreet(int)}), which gives 169, 1,286,792, 55,190,538 and
+ * 2,428,287,420 indexes.
+ *
+ * Up to a permutation of the suits, a hand is the multiset of what
+ * every suit holds, that is the ranks the suit holds on every round.
+ * Suits are first told apart by their counts, the number of cards they
+ * hold on every round, and sorted by them, the sorted counts of the
+ * four suits forming the configuration of the hand. Within a
+ * configuration every suit is indexed by the ranks it holds on every
+ * round, each round a combination of the ranks the earlier rounds left
+ * (see {@link Combinations}), and suits holding the same counts form
+ * a multiset of such indexes, which is indexed as a combination with
+ * repetitions. Configurations are listed once, along with the offset
+ * of their first index.
+ *
+ * The same scheme is the one of Waugh, A Fast and Optimal Hand
+ * Isomorphism Algorithm
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class HandIndexer {
+
+    private static final int SUITS = 4;
+    private static final int RANKS = 13;
+    private static final int RANKS_MASK = (1 << RANKS) - 1;
+
+    /**
+     * Number of cards dealt on every round
+     */
+    private int[] rounds;
+
+    /**
+     * Number of counts a suit may hold, the radix of the suit codes
+     */
+    private long radix;
+
+    /**
+     * Configurations, in ascending order of their codes
+     */
+    private long[] codes;
+    private Configuration[] configurations;
+
+    private long size;
+
+    /**
+     * Indexes the hands dealt over the given rounds
+     *
+     * @param rounds Number of cards dealt on every round, the pocket
+     *        cards first
+     */
+    public HandIndexer(int... rounds) {
+
+        if (rounds.length == 0)
+            throw new IllegalArgumentException("A hand is dealt over one round at least");
+
+        int cards = 0;
+        radix = 1;
+        for (int round : rounds) {
+            if (round < 1)
+                throw new IllegalArgumentException("Every round deals one card at least");
+            cards += round;
+            radix *= round + 1;
+        }
+        if (cards > PokerDeck.SIZE || radix > 1 << 15)
+            throw new IllegalArgumentException("Too many cards or rounds");
+
+        this.rounds = rounds.clone();
+
+        // Counts a single suit may hold, in ascending order of their codes
+        List<int[]> counts = new ArrayList<int[]>();
+        counts(new int[rounds.length], 0, 0, counts);
+
+        // Picking the counts of the four suits, in descending order
+        List<Configuration> found = new ArrayList<Configuration>();
+        configurations(counts, new int[SUITS], 0, counts.size() - 1, found);
+
+        configurations = found.toArray(new Configuration[found.size()]);
+        codes = new long[configurations.length];
+        for (int c = 0; c < configurations.length; c++) {
+            codes[c] = configurations[c].code;
+            configurations[c].offset = size;
+            size += configurations[c].size;
+        }
+    }
+
+    /**
+     * Returns the indexer of the hands of a Texas Hold'em street, from
+     * the pocket cards to the given number of board cards
+     *
+     * @param boardCards Zero, three, four or five
+     * @return
+     */
+    public static HandIndexer forStreet(int boardCards) {
+        switch (boardCards) {
+        case 0:
+            return new HandIndexer(2);
+        case 3:
+            return new HandIndexer(2, 3);
+        case 4:
+            return new HandIndexer(2, 3, 1);
+        case 5:
+            return new HandIndexer(2, 3, 1, 1);
+        default:
+            throw new IllegalArgumentException("A board holds zero, three, four or five cards");
+        }
+    }
+
+    /**
+     * Lists every counts of a single suit, in ascending order of their
+     * codes
+     */
+    private void counts(int[] current, int round, int cards, List<int[]> counts) {
+        if (round == rounds.length) {
+            counts.add(current.clone());
+            return;
+        }
+
+        for (int count = 0; count <= rounds[round] && cards + count <= RANKS; count++) {
+            current[round] = count;
+            counts(current, round + 1, cards + count, counts);
+        }
+    }
+
+    /**
+     * Picks the counts of every suit, from the first suit, in
+     * descending order, keeping those dealing every round its cards
+     */
+    private void configurations(List<int[]> counts, int[] picked, int suit, int highest, List<Configuration> found) {
+
+        if (suit == SUITS) {
+            for (int round = 0; round < rounds.length; round++) {
+                int cards = 0;
+                for (int s = 0; s < SUITS; s++)
+                    cards += counts.get(picked[s])[round];
+                if (cards != rounds[round])
+                    return;
+            }
+
+            int[][] suits = new int[SUITS][];
+            for (int s = 0; s < SUITS; s++)
+                suits[s] = counts.get(picked[s]);
+            found.add(new Configuration(suits));
+            return;
+        }
+
+        // Lowest codes first, so configurations come in ascending order
+        for (int c = 0; c <= highest; c++) {
+            picked[suit] = c;
+            configurations(counts, picked, suit + 1, c, found);
+        }
+    }
+
+    /**
+     * Returns the number of indexes, one per hand up to a permutation
+     * of the suits
+     *
+     * @return
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of cards dealt on every round
+     *
+     * @return
+     */
+    public int[] getRounds() {
+        return rounds.clone();
+    }
+
+    /**
+     * Returns the index of the hand, given as the mask of the cards
+     * dealt on every round (see {@link PokerDeck#maskOf(int)})
+     *
+     * @param masks
+     * @return
+     */
+    public long index(long[] masks) {
+
+        if (masks.length != rounds.length)
+            throw new IllegalArgumentException("A mask is needed for every one of the " + rounds.length + " rounds");
+        long dealt = 0;
+        for (int round = 0; round < rounds.length; round++) {
+            if (Long.bitCount(masks[round]) != rounds[round] || (masks[round] & dealt) != 0)
+                throw new IllegalArgumentException("Round " + round + " deals " + rounds[round] + " cards not dealt before");
+            dealt |= masks[round];
+        }
+
+        // Code and index of what every suit holds
+        long[] suitCodes = new long[SUITS];
+        long[] suitIndexes = new long[SUITS];
+        for (int s = 0; s < SUITS; s++) {
+            int used = 0;
+            long code = 0;
+            long index = 0;
+            long multiplier = 1;
+            for (int round = 0; round < rounds.length; round++) {
+                int ranks = (int) (masks[round] >>> (s * 16)) & RANKS_MASK;
+                int count = Integer.bitCount(ranks);
+
+                // Colexicographic rank of the ranks among the ranks left
+                long rank = 0;
+                int i = 0;
+                for (int bits = ranks; bits != 0; bits &= bits - 1) {
+                    int rankBit = Integer.numberOfTrailingZeros(bits);
+                    int position = rankBit - Integer.bitCount(used & ((1 << rankBit) - 1));
+                    rank += Combinations.binomial(position, ++i);
+                }
+
+                code = code * (rounds[round] + 1) + count;
+                index += multiplier * rank;
+                multiplier *= Combinations.binomial(RANKS - Integer.bitCount(used), count);
+                used |= ranks;
+            }
+            suitCodes[s] = code;
+            suitIndexes[s] = index;
+        }
+
+        // Sorting the suits by code then by index, in descending order
+        for (int s = 1; s < SUITS; s++) {
+            long code = suitCodes[s];
+            long index = suitIndexes[s];
+            int t = s;
+            while (t > 0 && (suitCodes[t - 1] < code || (suitCodes[t - 1] == code && suitIndexes[t - 1] < index))) {
+                suitCodes[t] = suitCodes[t - 1];
+                suitIndexes[t] = suitIndexes[t - 1];
+                t--;
+            }
+            suitCodes[t] = code;
+            suitIndexes[t] = index;
+        }
+
+        long code = 0;
+        for (int s = 0; s < SUITS; s++)
+            code = code * radix + suitCodes[s];
+        Configuration configuration = configurations[Arrays.binarySearch(codes, code)];
+
+        // Every group of suits holding the same counts is a multiset
+        long index = 0;
+        long multiplier = 1;
+        for (int g = 0; g < configuration.groups.length; g++) {
+            int first = configuration.groups[g];
+            int m = configuration.multiplicities[g];
+            long rank = 0;
+            for (int j = 0; j < m; j++)
+                rank += binomial(suitIndexes[first + j] + m - 1 - j, m - j);
+            index += multiplier * rank;
+            multiplier *= configuration.groupSizes[g];
+        }
+
+        return configuration.offset + index;
+    }
+
+    /**
+     * Returns the index of the hand, given as the Poker deck positions
+     * of its cards in the order they are dealt (see
+     * {@link PokerDeck#indexOf(Card)})
+     *
+     * @param cards
+     * @return
+     */
+    public long index(int[] cards) {
+
+        int total = 0;
+        for (int round : rounds)
+            total += round;
+        if (cards.length != total)
+            throw new IllegalArgumentException("A hand holds " + total + " cards");
+
+        long[] masks = new long[rounds.length];
+        int c = 0;
+        for (int round = 0; round < rounds.length; round++)
+            for (int i = 0; i < rounds[round]; i++)
+                masks[round] |= PokerDeck.maskOf(cards[c++]);
+
+        return index(masks);
+    }
+
+    /**
+     * Returns the index of the pocket cards on the board, cards are
+     * space separated lists such as 'JS 7D 2C', the board cards in the
+     * order they are dealt
+     *
+     * @param pocket
+     * @param board
+     * @return
+     */
+    public long index(String pocket, String board) {
+        return index(PokerDeck.parseCards(pocket + ' ' + board));
+    }
+
+    /**
+     * Returns the masks of the cards dealt on every round of the
+     * canonical hand with the given index, the reverse of
+     * {@link #index(long[])} up to a permutation of the suits
+     *
+     * @param index Number from 0 to {@link #size()} - 1
+     * @return
+     */
+    public long[] unindex(long index) {
+
+        if (index < 0 || index >= size)
+            throw new IllegalArgumentException("Index must be from 0 to " + (size - 1));
+
+        // Last configuration starting at or before the index
+        int c = configurations.length - 1;
+        int low = 0;
+        while (low < c) {
+            int middle = (low + c + 1) >>> 1;
+            if (configurations[middle].offset <= index)
+                low = middle;
+            else
+                c = middle - 1;
+        }
+        Configuration configuration = configurations[c];
+        index -= configuration.offset;
+
+        // Index of what every suit holds, out of the multisets
+        long[] suitIndexes = new long[SUITS];
+        for (int g = 0; g < configuration.groups.length; g++) {
+            int first = configuration.groups[g];
+            int m = configuration.multiplicities[g];
+            long rank = index % configuration.groupSizes[g];
+            index /= configuration.groupSizes[g];
+            long highest = configuration.suitSizes[first] + m - 2;
+            for (int j = 0; j < m; j++) {
+                int k = m - j;
+                long value = largest(rank, k, highest);
+                rank -= binomial(value, k);
+                suitIndexes[first + j] = value - (m - 1 - j);
+                highest = value - 1;
+            }
+        }
+
+        // Dealing every suit its ranks, round after round
+        long[] masks = new long[rounds.length];
+        int[] positions = new int[RANKS];
+        for (int s = 0; s < SUITS; s++) {
+            int used = 0;
+            long suitIndex = suitIndexes[s];
+            for (int round = 0; round < rounds.length; round++) {
+                int count = configuration.suits[s][round];
+                int left = RANKS - Integer.bitCount(used);
+                long radix = Combinations.binomial(left, count);
+                Combinations.unrank(suitIndex % radix, count, left, positions);
+                suitIndex /= radix;
+
+                int ranks = 0;
+                for (int i = 0; i < count; i++)
+                    ranks |= 1 << nthUnused(used, positions[i]);
+                masks[round] |= (long) ranks << (s * 16);
+                used |= ranks;
+            }
+        }
+
+        return masks;
+    }
+
+    /**
+     * Returns the rank of the n-th rank, from zero, not in the given
+     * set of ranks
+     */
+    private static int nthUnused(int used, int n) {
+        int rank = 0;
+        while (true) {
+            if ((used & (1 << rank)) == 0 && n-- == 0)
+                return rank;
+            rank++;
+        }
+    }
+
+    /**
+     * Returns the largest value from k - 1 to the given highest whose
+     * binomial of k does not exceed the rank
+     */
+    private static long largest(long rank, int k, long highest) {
+        long low = k - 1;
+        while (low < highest) {
+            long middle = (low + highest + 1) >>> 1;
+            if (binomial(middle, k) <= rank)
+                low = middle;
+            else
+                highest = middle - 1;
+        }
+
+        return low;
+    }
+
+    /**
+     * Returns the binomial of n and k beyond the binomials of
+     * {@link Combinations}, k being small
+     */
+    private static long binomial(long n, int k) {
+        if (k < 0 || k > n)
+            return 0;
+        if (n <= Combinations.MAXIMUM)
+            return Combinations.binomial((int) n, k);
+
+        long binomial = 1;
+        for (int i = 0; i < k; i++)
+            binomial = binomial * (n - i) / (i + 1);
+
+        return binomial;
+    }
+
+    /**
+     * Counts of the four suits, in descending order, along with the
+     * groups of suits holding the same counts
+     */
+    private class Configuration {
+
+        private int[][] suits;
+        private long code;
+
+        /**
+         * Number of indexes of a single suit holding the counts of every
+         * suit
+         */
+        private long[] suitSizes = new long[SUITS];
+
+        /**
+         * First suit, number of suits and number of multisets of every
+         * group
+         */
+        private int[] groups;
+        private int[] multiplicities;
+        private long[] groupSizes;
+
+        private long offset;
+        private long size = 1;
+
+        private Configuration(int[][] suits) {
+
+            this.suits = suits;
+            for (int s = 0; s < SUITS; s++) {
+                long suitCode = 0;
+                int used = 0;
+                suitSizes[s] = 1;
+                for (int round = 0; round < rounds.length; round++) {
+                    suitCode = suitCode * (rounds[round] + 1) + suits[s][round];
+                    suitSizes[s] *= Combinations.binomial(RANKS - used, suits[s][round]);
+                    used += suits[s][round];
+                }
+                code = code * radix + suitCode;
+            }
+
+            List<Integer> firsts = new ArrayList<Integer>();
+            for (int s = 0; s < SUITS; s++)
+                if (s == 0 || !Arrays.equals(suits[s], suits[s - 1]))
+                    firsts.add(s);
+
+            groups = new int[firsts.size()];
+            multiplicities = new int[groups.length];
+            groupSizes = new long[groups.length];
+            for (int g = 0; g < groups.length; g++) {
+                groups[g] = firsts.get(g);
+                multiplicities[g] = (g + 1 < groups.length ? firsts.get(g + 1) : SUITS) - groups[g];
+                groupSizes[g] = binomial(suitSizes[groups[g]] + multiplicities[g] - 1, multiplicities[g]);
+                size *= groupSizes[g];
+            }
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.suitgamer.tools;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Computes the prize equity of every player of a tournament with the
+ * Independent Chip Model. Every place is given out in turn, from the
+ * first down, to one of the players not placed yet with a probability
+ * proportional to its stack (the Harville model).
+ *
+ * The recursive calculation over every finishing order is exponential
+ * in the number of places paid. Here the probability that a given set
+ * of players takes the first places, in any order, is memoized once
+ * per set (a bit mask of the players), each set being reached from the
+ * sets with one player less. Sets are handled by number of players,
+ * and the sets of a same size are independent from one another so
+ * large ones are split among threads. Ten players take well under a
+ * millisecond
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class IcmCalculator {
+
+    /**
+     * Largest number of players with chips, memory grows as 2^n
+     */
+    public static final int MAXIMUM = 24;
+
+    /**
+     * Sets of a same size below which threads are not worth starting
+     */
+    private static final long PARALLEL_THRESHOLD = 1 << 14;
+
+    /**
+     * Prize of every place, first place first
+     */
+    private double[] payouts;
+
+    /**
+     * Threads sharing the sets of a same size, one per processor unless
+     * set otherwise
+     */
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Prepares the calculation of the given payout structure
+     *
+     * @param payouts Prize of every place, first place first
+     */
+    public IcmCalculator(double[] payouts) {
+
+        if (payouts.length < 1)
+            throw new IllegalArgumentException("At least one place must be paid");
+
+        this.payouts = payouts.clone();
+    }
+
+    /**
+     * Returns the prize equity of every player given their stacks.
+     * Players without chips have already busted, they take the last
+     * places and share evenly the prizes of those places
+     *
+     * @param stacks Chips of every player
+     * @return
+     */
+    public double[] compute(double[] stacks) {
+
+        int n = stacks.length;
+        double[] equities = new double[n];
+
+        // Players with chips take the first places
+        int[] alive = new int[n];
+        int count = 0;
+        double total = 0;
+        for (int p = 0; p < n; p++) {
+            if (!(stacks[p] >= 0))
+                throw new IllegalArgumentException("Stacks can not be negative");
+            if (stacks[p] > 0) {
+                alive[count++] = p;
+                total += stacks[p];
+            }
+        }
+
+        if (count > MAXIMUM)
+            throw new IllegalArgumentException("Can not compute more than " + MAXIMUM + " players with chips");
+
+        // Busted players share the places after those
+        if (count < n) {
+            double shared = 0;
+            for (int place = count; place < Math.min(n, payouts.length); place++)
+                shared += payouts[place];
+            for (int p = 0; p < n; p++)
+                if (stacks[p] == 0)
+                    equities[p] = shared / (n - count);
+        }
+
+        if (count == 0)
+            return equities;
+
+        double[] chips = new double[count];
+        for (int a = 0; a < count; a++)
+            chips[a] = stacks[alive[a]];
+
+        double[] alivesEquities = placements(chips, total);
+        for (int a = 0; a < count; a++)
+            equities[alive[a]] = alivesEquities[a];
+
+        return equities;
+    }
+
+    /**
+     * Runs the memoized calculation over the sets of players, every
+     * player holding chips
+     */
+    private double[] placements(final double[] chips, final double total) {
+
+        final int n = chips.length;
+        final double[] probabilities = new double[1 << n];
+        probabilities[0] = 1;
+
+        double[] equities = new double[n];
+        int places = Math.min(n, payouts.length);
+        for (int k = 1; k <= places; k++) {
+
+            final double prize = payouts[k - 1];
+            final int size = k;
+            long sets = Combinations.binomial(n, k);
+            int workers = sets < PARALLEL_THRESHOLD ? 1 : threads;
+
+            // Sets of k players are independent, each thread takes a range of them
+            long[] bounds = Combinations.partition(sets, workers);
+            if (workers == 1) {
+                placements(chips, total, probabilities, size, prize, bounds[0], bounds[1], equities);
+                continue;
+            }
+
+            List<Thread> running = new ArrayList<Thread>();
+            final List<double[]> tallies = new ArrayList<double[]>();
+            for (int t = 0; t < workers; t++) {
+                final double[] tally = new double[n];
+                final long from = bounds[t];
+                final long to = bounds[t + 1];
+                tallies.add(tally);
+                running.add(new Thread(new Runnable() {
+                    public void run() {
+                        placements(chips, total, probabilities, size, prize, from, to, tally);
+                    }
+                }));
+            }
+
+            for (Thread worker : running)
+                worker.start();
+            try {
+                for (Thread worker : running)
+                    worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while computing", e);
+            }
+
+            for (double[] tally : tallies)
+                for (int p = 0; p < n; p++)
+                    equities[p] += tally[p];
+        }
+
+        return equities;
+    }
+
+    /**
+     * Computes the probability of every set of k players, with colex
+     * rank from 'from' to 'to' - 1, taking the first k places, and adds
+     * the prize of place k to the equity of every player taking it
+     */
+    private static void placements(double[] chips, double total, double[] probabilities, int k, double prize, long from, long to, double[] equities) {
+
+        if (from >= to)
+            return;
+
+        int[] positions = new int[k];
+        Combinations.unrank(from, k, chips.length, positions);
+        int set = 0;
+        for (int position : positions)
+            set |= 1 << position;
+
+        for (long rank = from; rank < to; rank++) {
+
+            // Chips of the players not placed before the last one
+            double rest = total;
+            for (int bits = set; bits != 0; bits &= bits - 1)
+                rest -= chips[Integer.numberOfTrailingZeros(bits)];
+
+            // Reaching the set from every set with one player less
+            double probability = 0;
+            for (int bits = set; bits != 0; bits &= bits - 1) {
+                int last = Integer.numberOfTrailingZeros(bits);
+                double taking = probabilities[set ^ (1 << last)] * chips[last] / (rest + chips[last]);
+                probability += taking;
+                equities[last] += taking * prize;
+            }
+            probabilities[set] = probability;
+
+            // Next set of k players in colex order
+            int lowest = set & -set;
+            int ripple = set + lowest;
+            set = (((ripple ^ set) >>> 2) / lowest) | ripple;
+        }
+    }
+
+    public double[] getPayouts() {
+        return payouts.clone();
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Number of threads sharing the sets of players of a same size,
+     * small calculations always run on the calling thread
+     *
+     * @param threads
+     */
+    public void setThreads(int threads) {
+        if (threads < 1)
+            throw new IllegalArgumentException("Number of threads can not be less than one.");
+
+        this.threads = threads;
+    }
+}
@@ -0,0 +1,333 @@
+package com.suitgamer.tools;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Clusters points, such as equity histograms (see
+ * {@link EquityHistograms}), with Lloyd's k-means algorithm. Points
+ * are compared either with the euclidean distance or with the earth
+ * mover's distance. Between histograms over ordered bins the earth
+ * mover's distance is the sum of the absolute differences of their
+ * cumulative histograms, so points are turned into cumulative
+ * histograms once and compared bin by bin like with the euclidean
+ * distance, centroids being the means of those.
+ *
+ * Centroids are seeded with k-means++, every seed being drawn with a
+ * probability proportional to the distance to the closest seed so far.
+ * Points are split in contiguous ranges among threads for both the
+ * seeding and the assignments, the new centroids are then summed with
+ * dimensions split among threads, every sum adding the points in the
+ * same order whatever the number of threads. The same seed always gives
+ * the same clusters, with any number of threads
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class KMeans {
+
+    public static final int EUCLIDEAN = 0;
+    public static final int EARTH_MOVERS = 1;
+
+    private float[][] points;
+    private int clusters;
+    private int distance;
+    private long seed;
+
+    private int threads = 1;
+    private int maximumIterations = 100;
+
+    private double[][] centroids;
+    private int[] assignments;
+
+    /**
+     * Distance of every point to its centroid on the last iteration
+     */
+    private double[] shortest;
+
+    private int iterations;
+    private double cost;
+
+    /**
+     * Prepares the clustering of the given points
+     *
+     * @param points Points, all of the same dimension, left as they are
+     * @param clusters Number of clusters
+     * @param distance {@link #EUCLIDEAN} or {@link #EARTH_MOVERS}
+     * @param seed Seed of the centroids drawn
+     */
+    public KMeans(float[][] points, int clusters, int distance, long seed) {
+
+        if (clusters < 1 || clusters > points.length)
+            throw new IllegalArgumentException("Can not make " + clusters + " clusters out of " + points.length + " points");
+        if (distance != EUCLIDEAN && distance != EARTH_MOVERS)
+            throw new IllegalArgumentException("Unknown distance " + distance);
+
+        this.clusters = clusters;
+        this.distance = distance;
+        this.seed = seed;
+
+        // Earth mover's distances are taken between cumulative histograms
+        if (distance == EARTH_MOVERS) {
+            this.points = new float[points.length][];
+            for (int p = 0; p < points.length; p++) {
+                float[] cumulative = new float[points[p].length];
+                float sum = 0;
+                for (int d = 0; d < cumulative.length; d++)
+                    cumulative[d] = sum += points[p][d];
+                this.points[p] = cumulative;
+            }
+        } else {
+            this.points = points;
+        }
+    }
+
+    /**
+     * Clusters the points and returns the cluster of every point
+     *
+     * @return
+     * @throws InterruptedException
+     */
+    public int[] cluster() throws InterruptedException {
+
+        int dimensions = points[0].length;
+        assignments = new int[points.length];
+        shortest = new double[points.length];
+        seed();
+
+        iterations = 0;
+        boolean changed = true;
+        while (changed && iterations < maximumIterations) {
+            iterations++;
+
+            // Assigning the points
+            final boolean[] moved = new boolean[threads];
+            long[] bounds = Combinations.partition(points.length, threads);
+            List<Thread> workers = new ArrayList<Thread>();
+            for (int t = 0; t < threads; t++) {
+                final int thread = t;
+                final int from = (int) bounds[t];
+                final int to = (int) bounds[t + 1];
+                workers.add(new Thread(new Runnable() {
+                    public void run() {
+                        moved[thread] = assign(from, to);
+                    }
+                }));
+            }
+            run(workers);
+
+            changed = false;
+            for (boolean m : moved)
+                changed = changed || m;
+
+            cost = 0;
+            long[] counts = new long[clusters];
+            for (int p = 0; p < points.length; p++) {
+                cost += shortest[p];
+                counts[assignments[p]]++;
+            }
+
+            // Summing the points per cluster, every thread summing a
+            // range of dimensions over every point in turn
+            final double[][] sums = new double[clusters][dimensions];
+            bounds = Combinations.partition(dimensions, threads);
+            workers = new ArrayList<Thread>();
+            for (int t = 0; t < threads; t++) {
+                final int from = (int) bounds[t];
+                final int to = (int) bounds[t + 1];
+                workers.add(new Thread(new Runnable() {
+                    public void run() {
+                        for (int p = 0; p < points.length; p++) {
+                            double[] sum = sums[assignments[p]];
+                            for (int d = from; d < to; d++)
+                                sum[d] += points[p][d];
+                        }
+                    }
+                }));
+            }
+            run(workers);
+
+            // Moving the centroids to the means of their points
+            for (int c = 0; c < clusters; c++) {
+                if (counts[c] == 0) {
+                    reseed(c);
+                    changed = true;
+                    continue;
+                }
+                for (int d = 0; d < dimensions; d++)
+                    centroids[c][d] = sums[c][d] / counts[c];
+            }
+        }
+
+        return assignments;
+    }
+
+    /**
+     * Seeds the centroids with k-means++
+     */
+    private void seed() throws InterruptedException {
+
+        Random random = new Random(seed);
+        centroids = new double[clusters][];
+        centroids[0] = toDouble(points[random.nextInt(points.length)]);
+
+        final double[] closest = new double[points.length];
+        for (int p = 0; p < points.length; p++)
+            closest[p] = Double.POSITIVE_INFINITY;
+
+        for (int c = 1; c < clusters; c++) {
+
+            // Distances to the closest centroid, updated with the last one
+            final double[] last = centroids[c - 1];
+            long[] bounds = Combinations.partition(points.length, threads);
+            List<Thread> workers = new ArrayList<Thread>();
+            for (int t = 0; t < threads; t++) {
+                final int from = (int) bounds[t];
+                final int to = (int) bounds[t + 1];
+                workers.add(new Thread(new Runnable() {
+                    public void run() {
+                        for (int p = from; p < to; p++)
+                            closest[p] = Math.min(closest[p], distance(points[p], last));
+                    }
+                }));
+            }
+            run(workers);
+
+            // Drawing the next centroid proportionally to the distances
+            double total = 0;
+            for (double d : closest)
+                total += d;
+            double target = random.nextDouble() * total;
+            int chosen = 0;
+            double sum = closest[0];
+            while (sum <= target && chosen < points.length - 1)
+                sum += closest[++chosen];
+            centroids[c] = toDouble(points[chosen]);
+        }
+    }
+
+    /**
+     * Moves an empty cluster onto the point farthest from its centroid
+     */
+    private void reseed(int cluster) {
+        int farthest = 0;
+        double longest = -1;
+        for (int p = 0; p < points.length; p++) {
+            double d = distance(points[p], centroids[assignments[p]]);
+            if (d > longest) {
+                longest = d;
+                farthest = p;
+            }
+        }
+
+        centroids[cluster] = toDouble(points[farthest]);
+    }
+
+    private static void run(List<Thread> workers) throws InterruptedException {
+        for (Thread worker : workers)
+            worker.start();
+        for (Thread worker : workers)
+            worker.join();
+    }
+
+    private static double[] toDouble(float[] point) {
+        double[] copy = new double[point.length];
+        for (int d = 0; d < point.length; d++)
+            copy[d] = point[d];
+
+        return copy;
+    }
+
+    /**
+     * Returns the squared euclidean distance, or the earth mover's
+     * distance between cumulative histograms
+     */
+    private double distance(float[] point, double[] centroid) {
+        double sum = 0;
+        if (distance == EUCLIDEAN) {
+            for (int d = 0; d < point.length; d++) {
+                double difference = point[d] - centroid[d];
+                sum += difference * difference;
+            }
+        } else {
+            for (int d = 0; d < point.length; d++)
+                sum += Math.abs(point[d] - centroid[d]);
+        }
+
+        return sum;
+    }
+
+    /**
+     * Assigns a range of points to their closest centroid, returning
+     * whether or not any of them changed cluster
+     */
+    private boolean assign(int from, int to) {
+        boolean changed = false;
+        for (int p = from; p < to; p++) {
+            int best = 0;
+            double closest = Double.POSITIVE_INFINITY;
+            for (int c = 0; c < clusters; c++) {
+                double d = distance(points[p], centroids[c]);
+                if (d < closest) {
+                    closest = d;
+                    best = c;
+                }
+            }
+
+            if (iterations == 1 || assignments[p] != best)
+                changed = true;
+            assignments[p] = best;
+            shortest[p] = closest;
+        }
+
+        return changed;
+    }
+
+    /**
+     * Returns the centroid of every cluster, cumulative for the earth
+     * mover's distance
+     *
+     * @return
+     */
+    public double[][] getCentroids() {
+        return centroids;
+    }
+
+    public int[] getAssignments() {
+        return assignments;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Returns the sum of the distances of every point to its centroid
+     * on the last iteration, squared for the euclidean distance
+     *
+     * @return
+     */
+    public double getCost() {
+        return cost;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        if (threads < 1)
+            throw new IllegalArgumentException("Number of threads can not be less than one.");
+
+        this.threads = threads;
+    }
+
+    public int getMaximumIterations() {
+        return maximumIterations;
+    }
+
+    public void setMaximumIterations(int maximumIterations) {
+        this.maximumIterations = maximumIterations;
+    }
+}
@@ -41,6 +41,13 @@ public class Player implements Aggregable<Player> {
      */
     private Deck communityHand = new Deck();
 
+    /**
+     * Range of pocket cards the player might hold, if any. Players
+     * with a range are dealt one of its combos on every game rather
+     * than random cards
+     */
+    private Range range;
+
     /**
      * One used a convenience object
      */
@@ -54,29 +61,27 @@ public class Player implements Aggregable<Player> {
     /**
      * Number of times this player has won a game
      */
-    private int wonGames;
-
-    /**
-     * Number of times this payer tied a game
-     */
-    private int tiedGames;
+    private long wonGames;
 
     /**
      * Number of times this player has lost a game
      */
-    private int lostGames;
+    private long lostGames;
 
     /**
      * Number representing the number of times this player won games.
      * When this player ties the points which he/she gains is the
      * percentage winner the player was in the tie
      */
-    private double wonPoints;
+    private long wonPoints;
 
     /**
-     * Number representing the number of times player tied games.
+     * Number of tied games indexed by the number of players who
+     * shared the win. Tied points are derived from these exact
+     * counters, so no rounding error builds up no matter how many
+     * games are played or aggregated. The array grows as needed
      */
-    private double tiedPoints;
+    private long[] tiedGamesByWinners = new long[0];
     
     /**
      * Contains ten slots where this player's hand powers can be
@@ -103,37 +108,64 @@ public class Player implements Aggregable<Player> {
      *
      * @return
      */
-    public int getWonGames() {
+    public long getWonGames() {
         return wonGames;
     }
 
     /**
      * Returns the number of points the player accumlated after
-     * winning X games taking ties into account
+     * winning X games outright, a point per game, ties being counted
+     * by {@link #getTiedPoints()}
      *
      * @return
      */
-    public double getWonPoints() {
+    public long getWonPoints() {
         return wonPoints;
     }
 
-/**
+    /**
      * Returns the number of games the player tied
      *
      * @return
      */
-    public int getTiedGames() {
-        return tiedGames;
+    public long getTiedGames() {
+        // Summing the ties of every size
+        long count = 0;
+        for (long games : tiedGamesByWinners)
+            count += games;
+
+        return count;
+    }
+
+    /**
+     * Returns the number of games the player tied with exactly the
+     * given number of winners, the player included
+     *
+     * @param numberOfPlayersWhoWon
+     * @return
+     */
+    public long getTiedGames(int numberOfPlayersWhoWon) {
+        if (numberOfPlayersWhoWon >= tiedGamesByWinners.length)
+            return 0;
+
+        return tiedGamesByWinners[numberOfPlayersWhoWon];
     }
 
     /**
      * Returns the number of points the player accumulated after
-     * tying X games
+     * tying X games. The points are computed from the exact tie
+     * counters, each tie size contributing its games divided by the
+     * number of winners
      *
      * @return
      */
     public double getTiedPoints() {
-        return tiedPoints;
+        // Adding the largest ties first, these hold the smallest terms
+        double points = 0;
+        for (int w = tiedGamesByWinners.length - 1; w > 0; w--)
+            points += (double) tiedGamesByWinners[w] / w;
+
+        return points;
     }
 
 
@@ -143,14 +175,18 @@ public class Player implements Aggregable<Player> {
      *
      * @return
      */
-    public int getLostGames() {
+    public long getLostGames() {
         return lostGames;
     }
 
 
 
     /**
-     * Returns the power representation of a hand
+     * Returns the power representation of a hand. When the game prunes
+     * hands which can not win (see
+     * {@link com.suitgamer.games.Game#setPruning(boolean)}), a player
+     * pruned on the last game only holds its hand combo followed by
+     * zeros, in an array the game reuses from game to game
      *
      * @return
      */
@@ -229,15 +265,28 @@ public class Player implements Aggregable<Player> {
      * @return
      */
     public void tied(int numberOfPlayersWhoWon) {
+        tied(numberOfPlayersWhoWon, 1);
+    }
 
-        // Calculating winning percentage for player
-        double value = 1 / ((double) numberOfPlayersWhoWon);
+    /**
+     * Documents the given number of ties at once, see
+     * {@link #tied(int)}
+     *
+     * @param numberOfPlayersWhoWon
+     * @param games
+     * @return
+     */
+    public void tied(int numberOfPlayersWhoWon, long games) {
 
-        // Incrementing player tied points
-        tiedPoints += value;
+        // Ignoring ties without any winner
+        if (numberOfPlayersWhoWon < 1)
+            return;
 
-        // Incrementing tied games
-        tiedGames++;
+        // Making room for ties of this size
+        if (numberOfPlayersWhoWon >= tiedGamesByWinners.length)
+            tiedGamesByWinners = Arrays.copyOf(tiedGamesByWinners, numberOfPlayersWhoWon + 1);
+
+        tiedGamesByWinners[numberOfPlayersWhoWon] += games;
     }
 
     /**
@@ -284,6 +333,14 @@ public class Player implements Aggregable<Player> {
         return communityHand;
     }
 
+    public Range getRange() {
+        return range;
+    }
+
+    public void setRange(Range range) {
+        this.range = range;
+    }
+
     public void setLockedHand(Deck deck) {
         lockedHand = deck;
     }
@@ -296,15 +353,15 @@ public class Player implements Aggregable<Player> {
         communityHand = deck;
     }
 
-    public void setWonGames (int wonGames) {
+    public void setWonGames (long wonGames) {
         this.wonGames = wonGames;
     }
 
-    public void setLostGames (int lostGames) {
+    public void setLostGames (long lostGames) {
         this.lostGames = lostGames;
     }
 
-    public void setWonPoints (double wonPoints) {
+    public void setWonPoints (long wonPoints) {
         this.wonPoints = wonPoints;
     }
 
@@ -351,6 +408,7 @@ public class Player implements Aggregable<Player> {
 
         output.append("Name: ").append(getName()).append(nl);
         output.append("Locked hand: ").append(getLockedHand()).append(nl);
+        output.append("Range: ").append(getRange()).append(nl);
         output.append("Unlocked hand: ").append(getUnlockedHand()).append(nl);
         output.append("Community hand: ").append(getCommunityHand()).append(nl);
         output.append("Hand: ").append(getHand()).append(nl);
@@ -365,10 +423,14 @@ public class Player implements Aggregable<Player> {
     }
 
     public void aggregate(Player player) {
-      wonGames = wonGames + player.getWonGames();
-      wonPoints = wonPoints + player.getWonPoints();
-      tiedGames = tiedGames + player.getTiedGames();
-      tiedPoints = tiedPoints + player.getTiedPoints();
-      lostGames = lostGames + player.getLostGames();
+      wonGames = wonGames + player.wonGames;
+      wonPoints = wonPoints + player.wonPoints;
+      lostGames = lostGames + player.lostGames;
+
+      // Merging the exact tie counters size by size
+      if (player.tiedGamesByWinners.length > tiedGamesByWinners.length)
+        tiedGamesByWinners = Arrays.copyOf(tiedGamesByWinners, player.tiedGamesByWinners.length);
+      for (int w = 0; w < player.tiedGamesByWinners.length; w++)
+        tiedGamesByWinners[w] = tiedGamesByWinners[w] + player.tiedGamesByWinners[w];
     }
 }
@@ -1,5 +1,7 @@
 package com.suitgamer.tools;
 
+import java.util.Arrays;
+
 /**
  * Represents a regular deck of cards for the game of Poker
  *
@@ -8,6 +10,39 @@ package com.suitgamer.tools;
  */
 public class PokerDeck extends Deck {
 
+    /**
+     * All faces of a Poker deck, from the lowest to the highest
+     */
+    public static final String FACES = "23456789TJQKA";
+
+    /**
+     * All suits of a Poker deck, in the order cards are added to the
+     * deck
+     */
+    public static final String SUITS = "CDHS";
+
+    /**
+     * Number of cards in a Poker deck
+     */
+    public static final int SIZE = 52;
+
+    /**
+     * Position of every face and suit character in {@link #FACES} and
+     * {@link #SUITS}, negative for other characters, so cards are
+     * located without searching the strings
+     */
+    private static final int[] FACE_INDEXES = new int[128];
+    private static final int[] SUIT_INDEXES = new int[128];
+
+    static {
+        Arrays.fill(FACE_INDEXES, -1);
+        Arrays.fill(SUIT_INDEXES, -1);
+        for (int f = 0; f < FACES.length(); f++)
+            FACE_INDEXES[FACES.charAt(f)] = f;
+        for (int s = 0; s < SUITS.length(); s++)
+            SUIT_INDEXES[SUITS.charAt(s)] = s;
+    }
+
     /**
      * Initialize all the cards with their appropriate value by a For
      * loop in order to create a specific deck card
@@ -19,13 +54,13 @@ public class PokerDeck extends Deck {
          * Defining all possible faces in deck, each face must be
          * represented by a single character
          */
-        setFaces("23456789TJQKA");
+        setFaces(FACES);
 
         /*
          * Defining all possible suits in deck, each suit must be
          * represented by a single character
          */
-        setSuits("CDHS");
+        setSuits(SUITS);
 
         /*
          * Defining all possible ranks or values in deck, each rank or
@@ -92,4 +127,126 @@ public class PokerDeck extends Deck {
         addCard(new Card('A', 'H', new int[]{1, 14}));
         addCard(new Card('A', 'S', new int[]{1, 14}));
     }
+
+    /**
+     * Provided a face and suit character this method returns the
+     * position the card takes in a freshly created Poker deck. That
+     * is, the deuce of clubs is 0 and the ace of spades is 51. If
+     * the face or suit are not part of a Poker deck then a negative
+     * number is returned
+     *
+     * @param face
+     * @param suit
+     * @return
+     */
+    public static int indexOf(char face, char suit) {
+        // Locating face and suit
+        int faceIndex = face < FACE_INDEXES.length ? FACE_INDEXES[face] : -1;
+        int suitIndex = suit < SUIT_INDEXES.length ? SUIT_INDEXES[suit] : -1;
+
+        // Unknown face or suit
+        if (faceIndex < 0 || suitIndex < 0)
+            return -1;
+
+        return faceIndex * SUITS.length() + suitIndex;
+    }
+
+    /**
+     * Returns the position the card takes in a freshly created Poker
+     * deck, see {@link #indexOf(char, char)}
+     *
+     * @param card
+     * @return
+     */
+    public static int indexOf(Card card) {
+        return indexOf(card.getFace(), card.getSuit());
+    }
+
+    /**
+     * Returns the face of the card at the given position of a
+     * freshly created Poker deck
+     *
+     * @param index
+     * @return
+     */
+    public static char faceOf(int index) {
+        return FACES.charAt(index / SUITS.length());
+    }
+
+    /**
+     * Returns the suit of the card at the given position of a
+     * freshly created Poker deck
+     *
+     * @param index
+     * @return
+     */
+    public static char suitOf(int index) {
+        return SUITS.charAt(index % SUITS.length());
+    }
+
+    /**
+     * Returns a bit mask holding only the card at the given position
+     * of a freshly created Poker deck. Masks reserve sixteen bits per
+     * suit, clubs first, and within a suit the deuce takes the lowest
+     * bit. Cards are combined by or-ing their masks
+     *
+     * @param index
+     * @return
+     */
+    public static long maskOf(int index) {
+        return 1L << ((index % SUITS.length()) * 16 + index / SUITS.length());
+    }
+
+    /**
+     * Returns the mask holding all the cards of the given deck, see
+     * {@link #maskOf(int)}
+     *
+     * @param deck
+     * @return
+     */
+    public static long maskOf(Deck deck) {
+        long mask = 0;
+        for (Card card : deck.getCards())
+            mask |= maskOf(indexOf(card));
+
+        return mask;
+    }
+
+    /**
+     * Parses a space separated list of cards such as 'AS KD' into the
+     * positions those cards take in a freshly created Poker deck
+     *
+     * @param cards
+     * @return
+     */
+    public static int[] parseCards(String cards) {
+        String trimmed = cards.trim().toUpperCase();
+        if (trimmed.length() == 0)
+            return new int[0];
+
+        String[] tokens = trimmed.split("\\s+");
+        int[] indexes = new int[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            indexes[i] = tokens[i].length() == 2 ? indexOf(tokens[i].charAt(0), tokens[i].charAt(1)) : -1;
+            if (indexes[i] < 0)
+                throw new IllegalArgumentException("Invalid card: " + tokens[i]);
+        }
+
+        return indexes;
+    }
+
+    /**
+     * Parses a space separated list of cards such as 'AS KD' into
+     * their mask, see {@link #maskOf(int)}
+     *
+     * @param cards
+     * @return
+     */
+    public static long parseMask(String cards) {
+        long mask = 0;
+        for (int index : parseCards(cards))
+            mask |= maskOf(index);
+
+        return mask;
+    }
 }
@@ -827,6 +827,24 @@ public class PokerHandEvaluator {
         
     }
     
+    /**
+     * Packs a score (see {@link #score}) into a single integer. The
+     * hand combo takes the highest four bits and every following rank
+     * takes the next four bits, so that packed scores compare the
+     * same way {@link #compareScores(int[], int[])} compares scores
+     * 
+     * @param score
+     * @return
+     */
+    public static int packScore(int[] score)
+    {
+        int packed = 0;
+        for (int i = 0; i < 6; i++)
+            packed = (packed << 4) | score[i];
+
+        return packed;
+    }
+
     /**
      * Resets all variabler of referee. The provided hand is not reset
      * 
@@ -0,0 +1,410 @@
+package com.suitgamer.tools;
+
+import java.io.DataOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exact heads-up preflop all-in results for every pair of pocket
+ * hands. Matchups which only differ by a permutation of the suits, or
+ * by the order of the players, share the same results, so only one
+ * matchup per class is computed and stored. That is every suit
+ * relationship of every pair of the 169 starting hands.
+ *
+ * The table is generated offline with {@link #generate(File, int)},
+ * which enumerates all the boards of every matchup, and loaded with
+ * {@link #load(File)}, which memory maps the file. Lookups are a
+ * binary search over the mapped matchups.
+ *
+ * File layout, big endian: a header with {@link #MAGIC},
+ * {@link #VERSION} and the number of matchups, followed by the
+ * matchups sorted by key, each one as its key, the number of boards
+ * the first player wins and the number of boards tied
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class PreflopEquityTable {
+
+    /**
+     * Identifies preflop equity table files
+     */
+    public static final int MAGIC = 0x50464551;
+
+    /**
+     * Version of the file layout
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Number of boards of every preflop heads-up matchup, that is
+     * five cards out of the 48 cards left in the deck
+     */
+    public static final int BOARDS = (int) Combinations.binomial(PokerDeck.SIZE - 4, 5);
+
+    /**
+     * Number of starting hands, thirteen pairs, 78 suited hands and
+     * 78 offsuit hands
+     */
+    public static final int STARTING_HANDS = 169;
+
+    /**
+     * Bytes taken by the header and by every matchup
+     */
+    private static final int HEADER = 12;
+    private static final int ENTRY = 12;
+
+    /**
+     * Mapped matchups
+     */
+    private TableStorage storage;
+
+    /**
+     * Number of matchups in the table
+     */
+    private int size;
+
+    /**
+     * Equity of every starting hand against every other, computed on
+     * first use
+     */
+    private double[][] startingHandEquities;
+
+    private PreflopEquityTable(TableStorage storage) {
+        this.storage = storage;
+
+        if (storage.size() < HEADER || storage.getInt(0) != MAGIC)
+            throw new IllegalStateException("Not a preflop equity table");
+        if (storage.getInt(4) != VERSION)
+            throw new IllegalStateException("Unsupported preflop equity table version " + storage.getInt(4));
+
+        this.size = storage.getInt(8);
+    }
+
+    /**
+     * Memory maps a table generated by {@link #generate(File, int)}
+     *
+     * @param file
+     * @return
+     * @throws IOException
+     */
+    public static PreflopEquityTable load(File file) throws IOException {
+        return new PreflopEquityTable(TableStorage.map(file));
+    }
+
+    /**
+     * Unmaps the table, lookups then fail
+     */
+    public void close() {
+        storage.close();
+    }
+
+    /**
+     * Returns the exact results of the first player in a heads-up
+     * preflop matchup, the number of boards won, tied and lost out of
+     * {@link #BOARDS}. Cards are positions in a freshly created Poker
+     * deck, see {@link PokerDeck#indexOf(char, char)}. Null is
+     * returned if the matchup is not in the table
+     *
+     * @param heroFirst
+     * @param heroSecond
+     * @param villainFirst
+     * @param villainSecond
+     * @return
+     */
+    public int[] lookup(int heroFirst, int heroSecond, int villainFirst, int villainSecond) {
+
+        int key = canonical(heroFirst, heroSecond, villainFirst, villainSecond);
+        boolean swapped = key < 0;
+        key &= Integer.MAX_VALUE;
+
+        // Binary search over the mapped keys
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int current = storage.getInt(HEADER + (long) middle * ENTRY);
+            if (current < key) {
+                low = middle + 1;
+            } else if (current > key) {
+                high = middle - 1;
+            } else {
+                int wins = storage.getInt(HEADER + (long) middle * ENTRY + 4);
+                int ties = storage.getInt(HEADER + (long) middle * ENTRY + 8);
+                int losses = BOARDS - wins - ties;
+                return swapped ? new int[] { losses, ties, wins } : new int[] { wins, ties, losses };
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the share of the pot the first player is expected to win
+     * in a heads-up preflop matchup, ties count as half. Not a number
+     * is returned if the matchup is not in the table
+     *
+     * @param heroFirst
+     * @param heroSecond
+     * @param villainFirst
+     * @param villainSecond
+     * @return
+     */
+    public double getEquity(int heroFirst, int heroSecond, int villainFirst, int villainSecond) {
+        int[] results = lookup(heroFirst, heroSecond, villainFirst, villainSecond);
+        if (results == null)
+            return Double.NaN;
+
+        return (results[0] + results[1] / 2d) / BOARDS;
+    }
+
+    /**
+     * Returns the equity of a starting hand against another one, that
+     * is the average over every pair of non colliding combos. Starting
+     * hands are numbered by {@link #startingHandOf(int, int)}
+     *
+     * @param hero
+     * @param villain
+     * @return
+     */
+    public synchronized double getStartingHandEquity(int hero, int villain) {
+
+        if (startingHandEquities == null) {
+
+            double[][] sums = new double[STARTING_HANDS][STARTING_HANDS];
+            int[][] counts = new int[STARTING_HANDS][STARTING_HANDS];
+
+            for (int h1 = 0; h1 < PokerDeck.SIZE; h1++)
+                for (int h2 = 0; h2 < h1; h2++)
+                    for (int v1 = 0; v1 < PokerDeck.SIZE; v1++)
+                        for (int v2 = 0; v2 < v1; v2++) {
+                            if (v1 == h1 || v1 == h2 || v2 == h1 || v2 == h2)
+                                continue;
+                            int h = startingHandOf(h1, h2);
+                            int v = startingHandOf(v1, v2);
+                            sums[h][v] += getEquity(h1, h2, v1, v2);
+                            counts[h][v]++;
+                        }
+
+            startingHandEquities = new double[STARTING_HANDS][STARTING_HANDS];
+            for (int h = 0; h < STARTING_HANDS; h++)
+                for (int v = 0; v < STARTING_HANDS; v++)
+                    startingHandEquities[h][v] = sums[h][v] / counts[h][v];
+        }
+
+        return startingHandEquities[hero][villain];
+    }
+
+    /**
+     * Returns the number of the starting hand of the given two cards,
+     * from 0 to 168. Starting hands lay on a thirteen by thirteen grid
+     * by face, the number being row * 13 + column: pairs on the
+     * diagonal, suited hands below it (the high face as the row) and
+     * offsuit hands above it (the high face as the column)
+     *
+     * @param first
+     * @param second
+     * @return
+     */
+    public static int startingHandOf(int first, int second) {
+        int high = Math.max(first, second) / 4;
+        int low = Math.min(first, second) / 4;
+        int faces = PokerDeck.FACES.length();
+
+        if (first % 4 == second % 4)
+            return high * faces + low;
+
+        return low * faces + high;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the key of the class of the given matchup: the smallest
+     * key over every suit permutation and both orders of the players.
+     * The sign bit is set if the smallest key puts the villain first
+     */
+    private static int canonical(int heroFirst, int heroSecond, int villainFirst, int villainSecond) {
+
+        int straight = Integer.MAX_VALUE;
+        int swapped = Integer.MAX_VALUE;
+        for (int[] permutation : SuitCanonicalizer.PERMUTATIONS) {
+            int h1 = SuitCanonicalizer.permute(heroFirst, permutation);
+            int h2 = SuitCanonicalizer.permute(heroSecond, permutation);
+            int v1 = SuitCanonicalizer.permute(villainFirst, permutation);
+            int v2 = SuitCanonicalizer.permute(villainSecond, permutation);
+            straight = Math.min(straight, key(h1, h2, v1, v2));
+            swapped = Math.min(swapped, key(v1, v2, h1, h2));
+        }
+
+        return straight <= swapped ? straight : swapped | Integer.MIN_VALUE;
+    }
+
+    private static int key(int h1, int h2, int v1, int v2) {
+        return (Math.max(h1, h2) << 18) | (Math.min(h1, h2) << 12) | (Math.max(v1, v2) << 6) | Math.min(v1, v2);
+    }
+
+    /**
+     * Enumerates every board of the matchup whose key is given and
+     * returns the number of boards the first player wins and ties
+     */
+    private static int[] compute(int key) {
+
+        long hero = PokerDeck.maskOf(key >>> 18) | PokerDeck.maskOf((key >>> 12) & 63);
+        long villain = PokerDeck.maskOf((key >>> 6) & 63) | PokerDeck.maskOf(key & 63);
+
+        // Cards boards are made of
+        long[] live = new long[PokerDeck.SIZE - 4];
+        int size = 0;
+        for (int c = 0; c < PokerDeck.SIZE; c++)
+            if ((PokerDeck.maskOf(c) & (hero | villain)) == 0)
+                live[size++] = PokerDeck.maskOf(c);
+
+        // Scoring one board out of every set of boards equivalent by suits
+        SuitSymmetry symmetry = new SuitSymmetry(hero, villain);
+        boolean trivial = symmetry.isTrivial();
+
+        int wins = 0;
+        int ties = 0;
+        for (int a = 4; a < size; a++)
+            for (int b = 3; b < a; b++)
+                for (int c = 2; c < b; c++)
+                    for (int d = 1; d < c; d++) {
+                        long board = live[a] | live[b] | live[c] | live[d];
+                        for (int e = 0; e < d; e++) {
+                            int weight = trivial ? 1 : symmetry.weight(board | live[e]);
+                            if (weight == 0)
+                                continue;
+
+                            int heroScore = BitmaskHandEvaluator.evaluate(board | live[e] | hero);
+                            int villainScore = BitmaskHandEvaluator.evaluate(board | live[e] | villain);
+                            if (heroScore > villainScore)
+                                wins += weight;
+                            else if (heroScore == villainScore)
+                                ties += weight;
+                        }
+                    }
+
+        return new int[] { wins, ties };
+    }
+
+    /**
+     * Returns the sorted keys of every class of heads-up preflop
+     * matchups
+     *
+     * @return
+     */
+    private static int[] matchups() {
+
+        int[] keys = new int[1326 * 1225];
+        int count = 0;
+        for (int h1 = 0; h1 < PokerDeck.SIZE; h1++)
+            for (int h2 = 0; h2 < h1; h2++)
+                for (int v1 = 0; v1 < PokerDeck.SIZE; v1++)
+                    for (int v2 = 0; v2 < v1; v2++) {
+                        if (v1 == h1 || v1 == h2 || v2 == h1 || v2 == h2)
+                            continue;
+                        keys[count++] = canonical(h1, h2, v1, v2) & Integer.MAX_VALUE;
+                    }
+
+        // Sorting and leaving out repeated keys
+        Arrays.sort(keys, 0, count);
+        int unique = 0;
+        for (int i = 0; i < count; i++)
+            if (unique == 0 || keys[i] != keys[unique - 1])
+                keys[unique++] = keys[i];
+
+        return Arrays.copyOf(keys, unique);
+    }
+
+    /**
+     * Computes every matchup class with the given number of threads
+     * and writes the table to the given file
+     *
+     * @param file
+     * @param threads
+     * @return
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public static void generate(File file, int threads) throws IOException, InterruptedException {
+        generate(file, threads, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Computes the given number of matchup classes, the ones with the
+     * smallest keys, and writes the table to the given file. Mostly
+     * useful to try the generator on a small table
+     *
+     * @param file
+     * @param threads
+     * @param maximumMatchups
+     * @return
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public static void generate(File file, int threads, int maximumMatchups) throws IOException, InterruptedException {
+
+        if (threads < 1)
+            throw new IllegalArgumentException("Number of threads can not be less than one.");
+
+        int[] all = matchups();
+        final int[] keys = Arrays.copyOf(all, Math.min(all.length, maximumMatchups));
+        final int[] wins = new int[keys.length];
+        final int[] ties = new int[keys.length];
+
+        // Threads take the next matchup left until none is left
+        final AtomicInteger next = new AtomicInteger();
+        List<Thread> workers = new ArrayList<Thread>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(new Thread(new Runnable() {
+                public void run() {
+                    for (int m = next.getAndIncrement(); m < keys.length; m = next.getAndIncrement()) {
+                        int[] results = compute(keys[m]);
+                        wins[m] = results[0];
+                        ties[m] = results[1];
+                    }
+                }
+            }));
+        }
+
+        for (Thread worker : workers)
+            worker.start();
+        for (Thread worker : workers)
+            worker.join();
+
+        // Writing the table
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(keys.length);
+            for (int m = 0; m < keys.length; m++) {
+                out.writeInt(keys[m]);
+                out.writeInt(wins[m]);
+                out.writeInt(ties[m]);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Generates the table into the file given as first argument
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+
+        if (args.length < 1)
+            throw new IllegalArgumentException("Usage: PreflopEquityTable <file>");
+
+        generate(new File(args[0]), Runtime.getRuntime().availableProcessors());
+    }
+}
@@ -0,0 +1,172 @@
+package com.suitgamer.tools;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import com.suitgamer.ifaces.Sampler;
+
+/**
+ * Quasi Monte-Carlo sampler for the board. Instead of drawing the
+ * board cards one by one at random, the i-th game takes the i-th
+ * point of a low discrepancy sequence, scales it to the number of
+ * boards that can be made out of the cards left in the deck and
+ * unranks it with {@link DeckIndexer} into the board cards. The
+ * points spread evenly over all boards, which lowers the error for
+ * the same number of games. Pocket cards are still dealt at random
+ *
+ * The sequence is the first dimension of a Sobol sequence (the base
+ * two van der Corput sequence) scrambled with a random digital shift.
+ * Threads sharing a seed and starting at disjoint indexes, for
+ * instance thread t starting at t times the games per thread, play
+ * disjoint segments of the same scrambled sequence. Segments whose
+ * length and start are multiples of a power of two are themselves
+ * evenly spread
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class QuasiRandomSampler implements Sampler {
+
+    /**
+     * Number of board indexers kept, see {@link #indexerOf(long, int)}
+     */
+    private static final int INDEXERS = 64;
+
+    /**
+     * Random digital shift applied to every point of the sequence
+     */
+    private long shift;
+
+    /**
+     * Index of the next point of the sequence
+     */
+    private long index;
+
+    /**
+     * Random number generator for the cards which are not part of the
+     * board
+     */
+    private Random random;
+
+    /**
+     * Positions in a freshly created Poker deck of the board cards of
+     * the current game, in the order they are dealt
+     */
+    private int[] board = new int[PokerDeck.SIZE];
+
+    /**
+     * Number of board cards of the current game
+     */
+    private int boardCards;
+
+    /**
+     * Number of cards dealt so far in the current game
+     */
+    private int dealt;
+
+    /**
+     * Indexers of the boards of the last sets of cards left, keyed by
+     * the mask of those cards and the number of board cards, see
+     * {@link #indexerOf(long, int)}. The cards left only change from
+     * game to game when players are dealt out of a range, so the last
+     * indexer used is kept apart and most games find it there
+     */
+    private Map<Long, DeckIndexer> indexers = new LinkedHashMap<Long, DeckIndexer>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        protected boolean removeEldestEntry(Map.Entry<Long, DeckIndexer> eldest) {
+            return size() > INDEXERS;
+        }
+    };
+    private long lastKey = -1;
+    private DeckIndexer lastIndexer;
+
+    public QuasiRandomSampler() {
+        this(new Random().nextLong(), 0);
+    }
+
+    /**
+     * Creates a sampler that starts at the given index of the sequence
+     * scrambled by the given seed
+     *
+     * @param seed Seed of the scramble, shared by all the threads
+     * @param index Index of the first point used by this sampler
+     */
+    public QuasiRandomSampler(long seed, long index) {
+        this.shift = new Random(seed).nextLong();
+        this.index = index;
+        this.random = new Random(seed ^ index);
+    }
+
+    /**
+     * Takes the next point of the sequence and unranks it into the
+     * board cards of the game
+     *
+     * @param deck
+     * @param boardCards
+     * @return
+     */
+    public void prepare(Deck deck, int boardCards) {
+
+        this.boardCards = boardCards;
+        this.dealt = 0;
+
+        // Nothing to do without board cards
+        if (boardCards == 0)
+            return;
+
+        // Scrambled radical inverse of the index, as a number in [0, 1)
+        double point = ((Long.reverse(index++) ^ shift) >>> 11) * 0x1.0p-53;
+
+        // Mapping the point onto one of all the possible boards
+        DeckIndexer indexer = indexerOf(PokerDeck.maskOf(deck), boardCards);
+        long boards = indexer.size();
+        long rank = Math.min((long) (point * boards), boards - 1);
+        indexer.cards(rank, board);
+    }
+
+    /**
+     * Returns the indexer of the boards of the given number of cards out
+     * of the given cards left, creating it only the first time those
+     * cards are left
+     */
+    private DeckIndexer indexerOf(long live, int boardCards) {
+
+        // Ranks never use the top three bits of a suit
+        long key = live | ((long) boardCards << 13);
+        if (key == lastKey)
+            return lastIndexer;
+
+        DeckIndexer indexer = indexers.get(key);
+        if (indexer == null) {
+            indexer = new DeckIndexer(live, boardCards);
+            indexers.put(key, indexer);
+        }
+
+        lastKey = key;
+        lastIndexer = indexer;
+        return indexer;
+    }
+
+    /**
+     * Deals the next board card of the game, or a random card once the
+     * board is complete
+     *
+     * @param deck
+     * @return
+     */
+    public Card deal(Deck deck) {
+
+        if (dealt < boardCards) {
+            int card = board[dealt++];
+            return deck.dealSpecificCard(PokerDeck.faceOf(card), PokerDeck.suitOf(card));
+        }
+
+        return deck.dealCard(random.nextInt(deck.getSize()));
+    }
+
+    public long getIndex() {
+        return index;
+    }
+}
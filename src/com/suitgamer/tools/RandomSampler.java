@@ -0,0 +1,46 @@
+package com.suitgamer.tools;
+
+import java.util.Random;
+
+import com.suitgamer.ifaces.Sampler;
+
+/**
+ * Plain Monte-Carlo sampler, every card is dealt uniformly at random
+ * out of the cards left in the deck
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class RandomSampler implements Sampler {
+
+    /**
+     * Random number generator owned by this sampler so that threads
+     * do not compete for a shared generator
+     */
+    private Random random;
+
+    public RandomSampler() {
+        this(new Random());
+    }
+
+    public RandomSampler(Random random) {
+        this.random = random;
+    }
+
+    public void prepare(Deck deck, int boardCards) {
+    }
+
+    /**
+     * Deals a card uniformly at random and removes it from the deck
+     *
+     * @param deck
+     * @return
+     */
+    public Card deal(Deck deck) {
+        return deck.dealCard(random.nextInt(deck.getSize()));
+    }
+
+    public Random getRandom() {
+        return random;
+    }
+}
@@ -0,0 +1,329 @@
+package com.suitgamer.tools;
+
+import java.util.Random;
+
+/**
+ * Represents the range of pocket cards a Texas Hold'em player might
+ * hold, that is a list of two card combos each with a weight. Ranges
+ * are parsed from the usual notation, a comma separated list of:
+ *
+ * <ul>
+ * <li>Pairs such as 'QQ', every pair from a pair up 'QQ+' or
+ * between two pairs '22-55'</li>
+ * <li>Suited, offsuit or any hands such as 'AKs', 'AKo' or 'AK',
+ * every kicker up to the highest card 'ATs+' or between two kickers
+ * 'KTo-K7o'</li>
+ * <li>Specific combos such as 'AhKh'</li>
+ * </ul>
+ *
+ * Any of the above can be followed by a weight such as '76s:0.5', by
+ * default weights are one. Before being sampled with
+ * {@link #sample(Random)} the range must be prepared with the cards
+ * that are known to be out of the deck, see {@link #prepare(long)}
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class Range {
+
+    /**
+     * Number of different faces in a Poker deck
+     */
+    private static final int FACES = PokerDeck.FACES.length();
+
+    /**
+     * Number of different suits in a Poker deck
+     */
+    private static final int SUITS = PokerDeck.SUITS.length();
+
+    /**
+     * Notation the range was parsed from
+     */
+    private String notation;
+
+    /**
+     * Poker deck position of the highest card of every combo
+     */
+    private int[] firsts;
+
+    /**
+     * Poker deck position of the lowest card of every combo
+     */
+    private int[] seconds;
+
+    /**
+     * Weight of every combo
+     */
+    private double[] weights;
+
+    /**
+     * Card mask of every combo, see {@link PokerDeck#maskOf(int)}
+     */
+    private long[] masks;
+
+    /**
+     * Combos which do not collide with the cards provided to
+     * {@link #prepare(long)}
+     */
+    private int[] live;
+
+    /**
+     * Table sampling the live combos by weight
+     */
+    private AliasTable table;
+
+    /**
+     * Parses a range out of its notation
+     *
+     * @param notation
+     * @return
+     */
+    public static Range parse(String notation) {
+
+        // Weights of every combo, indexed by its two card positions
+        double[] grid = new double[PokerDeck.SIZE * PokerDeck.SIZE];
+
+        for (String token : notation.trim().split("[,\\s]+")) {
+
+            // In case the user entered extra spaces or commas
+            if (token.length() == 0)
+                continue;
+
+            // Parsing the weight, if any
+            double weight = 1;
+            int colon = token.indexOf(':');
+            if (colon >= 0) {
+                try {
+                    weight = Double.parseDouble(token.substring(colon + 1));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid weight in range token: " + token);
+                }
+                if (!(weight >= 0))
+                    throw new IllegalArgumentException("Invalid weight in range token: " + token);
+                token = token.substring(0, colon);
+            }
+            token = token.toUpperCase();
+
+            // Specific combo such as 'AHKH'
+            if (token.length() == 4 && isCard(token.substring(0, 2)) && isCard(token.substring(2, 4))) {
+                int first = PokerDeck.indexOf(token.charAt(0), token.charAt(1));
+                int second = PokerDeck.indexOf(token.charAt(2), token.charAt(3));
+                if (first == second)
+                    throw new IllegalArgumentException("Combo repeats a card: " + token);
+                grid[Math.max(first, second) * PokerDeck.SIZE + Math.min(first, second)] = weight;
+                continue;
+            }
+
+            // Hands between two hands such as '22-55' or 'KTO-K7O'
+            int dash = token.indexOf('-');
+            if (dash >= 0) {
+                int[] from = parseHand(token.substring(0, dash), token);
+                int[] to = parseHand(token.substring(dash + 1), token);
+
+                if (from[0] == from[1] && to[0] == to[1]) {
+                    for (int f = Math.min(from[0], to[0]); f <= Math.max(from[0], to[0]); f++)
+                        addHand(grid, f, f, 'P', weight);
+                } else if (from[0] == to[0] && from[2] == to[2] && from[0] != from[1] && to[0] != to[1]) {
+                    for (int f = Math.min(from[1], to[1]); f <= Math.max(from[1], to[1]); f++)
+                        addHand(grid, from[0], f, (char) from[2], weight);
+                } else {
+                    throw new IllegalArgumentException("Invalid hand interval in range token: " + token);
+                }
+                continue;
+            }
+
+            // Hands from a hand up such as 'QQ+' or 'ATS+'
+            if (token.endsWith("+")) {
+                int[] from = parseHand(token.substring(0, token.length() - 1), token);
+
+                if (from[0] == from[1]) {
+                    for (int f = from[0]; f < FACES; f++)
+                        addHand(grid, f, f, 'P', weight);
+                } else {
+                    for (int f = from[1]; f < from[0]; f++)
+                        addHand(grid, from[0], f, (char) from[2], weight);
+                }
+                continue;
+            }
+
+            // Single hand such as 'AKS'
+            int[] hand = parseHand(token, token);
+            addHand(grid, hand[0], hand[1], (char) hand[2], weight);
+        }
+
+        // Gathering the combos that have a weight
+        int size = 0;
+        for (double weight : grid)
+            if (weight > 0)
+                size++;
+
+        Range range = new Range();
+        range.notation = notation.trim();
+        range.firsts = new int[size];
+        range.seconds = new int[size];
+        range.weights = new double[size];
+        range.masks = new long[size];
+
+        int c = 0;
+        for (int i = 0; i < grid.length; i++) {
+            if (grid[i] > 0) {
+                range.firsts[c] = i / PokerDeck.SIZE;
+                range.seconds[c] = i % PokerDeck.SIZE;
+                range.weights[c] = grid[i];
+                range.masks[c] = PokerDeck.maskOf(range.firsts[c]) | PokerDeck.maskOf(range.seconds[c]);
+                c++;
+            }
+        }
+
+        return range;
+    }
+
+    /**
+     * Returns whether or not the given player cards are written in
+     * range notation rather than as a list of cards such as 'AS KD'
+     *
+     * @param cards
+     * @return
+     */
+    public static boolean isRange(String cards) {
+        String trimmed = cards.trim();
+        if (trimmed.length() == 0)
+            return false;
+
+        for (String token : trimmed.split("\\s+"))
+            if (!isCard(token.toUpperCase()))
+                return true;
+
+        return false;
+    }
+
+    /**
+     * Whether or not the token is a single card such as 'AS'
+     */
+    private static boolean isCard(String token) {
+        return token.length() == 2 && PokerDeck.indexOf(token.charAt(0), token.charAt(1)) >= 0;
+    }
+
+    /**
+     * Parses a hand such as 'AKS', 'AKO', 'AK' or 'QQ' into its highest
+     * face, lowest face and kind: 'P' for pairs, 'S' for suited, 'O'
+     * for offsuit and 'A' for any
+     */
+    private static int[] parseHand(String hand, String token) {
+
+        if (hand.length() < 2 || hand.length() > 3)
+            throw new IllegalArgumentException("Invalid hand in range token: " + token);
+
+        int first = PokerDeck.FACES.indexOf(hand.charAt(0));
+        int second = PokerDeck.FACES.indexOf(hand.charAt(1));
+        if (first < 0 || second < 0)
+            throw new IllegalArgumentException("Invalid face in range token: " + token);
+
+        char kind = hand.length() == 3 ? hand.charAt(2) : 'A';
+        if (first == second) {
+            if (hand.length() == 3)
+                throw new IllegalArgumentException("Pairs can not be suited or offsuit: " + token);
+            kind = 'P';
+        } else if (kind != 'S' && kind != 'O' && kind != 'A') {
+            throw new IllegalArgumentException("Invalid suitedness in range token: " + token);
+        }
+
+        return new int[] { Math.max(first, second), Math.min(first, second), kind };
+    }
+
+    /**
+     * Sets the weight of every combo of the given hand
+     */
+    private static void addHand(double[] grid, int first, int second, char kind, double weight) {
+        for (int s1 = 0; s1 < SUITS; s1++) {
+            for (int s2 = 0; s2 < SUITS; s2++) {
+
+                // Skipping suits which do not belong to the hand
+                if (kind == 'P' && s2 <= s1)
+                    continue;
+                if (kind == 'S' && s1 != s2)
+                    continue;
+                if (kind == 'O' && s1 == s2)
+                    continue;
+
+                int high = Math.max(first * SUITS + s1, second * SUITS + s2);
+                int low = Math.min(first * SUITS + s1, second * SUITS + s2);
+                grid[high * PokerDeck.SIZE + low] = weight;
+            }
+        }
+    }
+
+    /**
+     * Leaves out of the sampling every combo that holds one of the
+     * given cards, these are usually the cards known to be out of the
+     * deck such as the board or the pockets of other players
+     *
+     * @param deadMask Cards out of the deck, see {@link PokerDeck#maskOf(int)}
+     * @return
+     */
+    public void prepare(long deadMask) {
+
+        // Gathering the combos that are still possible
+        int size = 0;
+        live = new int[masks.length];
+        for (int c = 0; c < masks.length; c++)
+            if ((masks[c] & deadMask) == 0)
+                live[size++] = c;
+
+        if (size == 0)
+            throw new IllegalStateException("No combo of range " + notation + " is left in the deck");
+
+        double[] liveWeights = new double[size];
+        int[] liveCombos = new int[size];
+        for (int c = 0; c < size; c++) {
+            liveCombos[c] = live[c];
+            liveWeights[c] = weights[live[c]];
+        }
+
+        live = liveCombos;
+        table = new AliasTable(liveWeights);
+    }
+
+    /**
+     * Returns the index of a combo chosen with probability proportional
+     * to its weight among the combos left by {@link #prepare(long)}
+     *
+     * @param random
+     * @return
+     */
+    public int sample(Random random) {
+        if (table == null)
+            prepare(0);
+
+        return live[table.sample(random)];
+    }
+
+    /**
+     * Returns the number of combos in the range
+     *
+     * @return
+     */
+    public int size() {
+        return firsts.length;
+    }
+
+    public int getFirst(int combo) {
+        return firsts[combo];
+    }
+
+    public int getSecond(int combo) {
+        return seconds[combo];
+    }
+
+    public double getWeight(int combo) {
+        return weights[combo];
+    }
+
+    public long getMask(int combo) {
+        return masks[combo];
+    }
+
+    public String toString() {
+        return notation;
+    }
+}
@@ -0,0 +1,447 @@
+package com.suitgamer.tools;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps simulation results on disk so they outlive the process that
+ * computed them. Results are the tallies of every player of a scenario
+ * and the number of games they were played over, stored under the
+ * scenario key (see {@link SuitCanonicalizer}).
+ *
+ * The store is a single append-only log. Every record holds its
+ * length, a CRC32 of its content and the content itself: the key, the
+ * number of games and the tallies. Storing a key again appends a new
+ * record which shadows the older one. The index, the position of the
+ * latest record of every key, is kept on the heap only: it is rebuilt
+ * on every open by scanning the memory mapped log. A bad record with
+ * no valid record after it (a crash while appending) is cut off, while
+ * a bad record followed by valid ones fails the open, the records
+ * after it being left as they are. Records are forced to the disk by
+ * {@link #sync()} and on {@link #close()}. Shadowed records are only
+ * reclaimed by {@link #compact()},
+ * which rewrites the live records into a new log and moves it over
+ * the old one
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class ResultStore {
+
+    /**
+     * Identifies result store files, 'SGRS'
+     */
+    public static final int MAGIC = 0x53475253;
+    public static final int VERSION = 1;
+
+    /**
+     * Bytes taken by the header of the log and by the length and CRC
+     * of every record
+     */
+    private static final int HEADER = 8;
+    private static final int RECORD_HEADER = 8;
+
+    /**
+     * Largest region of the log mapped at once while scanning
+     */
+    private static final int WINDOW = Integer.MAX_VALUE;
+
+    /**
+     * Results of a scenario
+     */
+    public static class Result {
+
+        private Group players;
+        private long simulations;
+
+        public Result(Group players, long simulations) {
+            this.players = players;
+            this.simulations = simulations;
+        }
+
+        public Group getPlayers() {
+            return players;
+        }
+
+        public long getSimulations() {
+            return simulations;
+        }
+    }
+
+    private File file;
+    private RandomAccessFile raf;
+    private FileChannel channel;
+
+    /**
+     * Position of the latest record of every key
+     */
+    private Map<String, Long> index;
+
+    /**
+     * Position the next record is appended at
+     */
+    private long end;
+
+    /**
+     * Bytes taken by shadowed records
+     */
+    private long garbage;
+
+    private ResultStore(File file) throws IOException {
+        this.file = file;
+        open();
+    }
+
+    /**
+     * Opens the store kept in the given file, the file is created if it
+     * does not exist
+     *
+     * @param file
+     * @return
+     * @throws IOException
+     */
+    public static ResultStore open(File file) throws IOException {
+        return new ResultStore(file);
+    }
+
+    /**
+     * Opens the log and indexes its records
+     */
+    private void open() throws IOException {
+        raf = new RandomAccessFile(file, "rw");
+        channel = raf.getChannel();
+        index = new HashMap<String, Long>();
+        garbage = 0;
+
+        // Writing the header of a new log
+        if (channel.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            header.putInt(MAGIC).putInt(VERSION).flip();
+            channel.write(header, 0);
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        channel.read(header, 0);
+        if (header.getInt(0) != MAGIC) {
+            close();
+            throw new IllegalStateException("Not a result store: " + file);
+        }
+        if (header.getInt(4) != VERSION) {
+            close();
+            throw new IllegalStateException("Unsupported result store version " + header.getInt(4));
+        }
+
+        scan();
+    }
+
+    /**
+     * Maps the log window by window and indexes every valid record. A
+     * bad record, one running past the end of the log, failing its CRC
+     * or holding no key, is a torn append when no valid record follows
+     * it, such as a partial or zero-filled tail left by a crash, and is
+     * cut off. A bad record followed by valid ones is corruption, so the
+     * store fails to open rather than dropping the records after it
+     */
+    private void scan() throws IOException {
+
+        long size = channel.size();
+        long position = HEADER;
+        long base = 0;
+        MappedByteBuffer map = null;
+        CRC32 crc = new CRC32();
+
+        while (position + RECORD_HEADER <= size) {
+
+            // Mapping the next window when the record header is not in this one
+            if (map == null || position + RECORD_HEADER > base + map.limit()) {
+                base = position;
+                map = channel.map(FileChannel.MapMode.READ_ONLY, base, Math.min(size - base, WINDOW));
+            }
+
+            int length = map.getInt((int) (position - base));
+            int checksum = map.getInt((int) (position - base) + 4);
+            if (length <= 0 || position + RECORD_HEADER + length > size)
+                break;
+
+            // Mapping from this record on when its content is not in this window
+            if (position + RECORD_HEADER + length > base + map.limit()) {
+                map = null;
+                if (position == base)
+                    break;
+                continue;
+            }
+
+            byte[] content = new byte[length];
+            map.position((int) (position - base) + RECORD_HEADER);
+            map.get(content);
+
+            crc.reset();
+            crc.update(content, 0, length);
+            String key = (int) crc.getValue() == checksum ? keyOf(content) : null;
+            if (key == null)
+                break;
+
+            index(key, position);
+            position += RECORD_HEADER + length;
+        }
+
+        if (position < size) {
+            if (hasRecordAfter(position, size)) {
+                close();
+                throw new IllegalStateException("Corrupted result store record at " + position + " in " + file);
+            }
+
+            // Cutting off a record torn while being appended
+            channel.truncate(position);
+        }
+
+        end = position;
+    }
+
+    /**
+     * Returns whether or not a valid record starts anywhere after the
+     * bad record at the given position, within a window of the log
+     */
+    private boolean hasRecordAfter(long position, long size) throws IOException {
+
+        MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(size - position, WINDOW));
+        CRC32 crc = new CRC32();
+        for (int offset = 1; offset + RECORD_HEADER <= map.limit(); offset++) {
+            int length = map.getInt(offset);
+            if (length <= 0 || (long) offset + RECORD_HEADER + length > map.limit())
+                continue;
+
+            byte[] content = new byte[length];
+            map.position(offset + RECORD_HEADER);
+            map.get(content);
+            crc.reset();
+            crc.update(content, 0, length);
+            if ((int) crc.getValue() == map.getInt(offset + 4) && keyOf(content) != null)
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the key a record content starts with, null if it does not
+     * hold one
+     */
+    private static String keyOf(byte[] content) {
+        try {
+            return new DataInputStream(new ByteArrayInputStream(content)).readUTF();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Points the key at the record at the given position, accounting
+     * for the record it shadows, if any
+     */
+    private void index(String key, long position) throws IOException {
+        Long shadowed = index.put(key, position);
+        if (shadowed != null)
+            garbage += RECORD_HEADER + length(shadowed);
+    }
+
+    /**
+     * Reads the length of the record at the given position
+     */
+    private int length(long position) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(4);
+        channel.read(header, position);
+        return header.getInt(0);
+    }
+
+    /**
+     * Returns the results stored under the given key, null if none
+     *
+     * @param key
+     * @return
+     * @throws IOException
+     */
+    public synchronized Result get(String key) throws IOException {
+
+        Long position = index.get(key);
+        if (position == null)
+            return null;
+
+        // Reading the record
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER);
+        channel.read(header, position);
+        ByteBuffer content = ByteBuffer.allocate(header.getInt(0));
+        channel.read(content, position + RECORD_HEADER);
+
+        CRC32 crc = new CRC32();
+        crc.update(content.array(), 0, content.capacity());
+        if ((int) crc.getValue() != header.getInt(4))
+            throw new IllegalStateException("Corrupted result store record for key " + key);
+
+        // Decoding the tallies of every player
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(content.array()));
+        in.readUTF();
+        long simulations = in.readLong();
+        int size = in.readInt();
+
+        Group players = new Group();
+        for (int p = 0; p < size; p++) {
+            Player player = new Player(in.readUTF());
+            player.setWonGames(in.readLong());
+            player.setLostGames(in.readLong());
+            player.setWonPoints(in.readLong());
+            int ties = in.readInt();
+            for (int w = 1; w <= ties; w++)
+                player.tied(w, in.readLong());
+            players.addPlayer(player);
+        }
+
+        return new Result(players, simulations);
+    }
+
+    /**
+     * Appends the results of a scenario, shadowing the results stored
+     * under the same key before
+     *
+     * @param key
+     * @param players
+     * @param simulations
+     * @throws IOException
+     */
+    public synchronized void put(String key, Group players, long simulations) throws IOException {
+
+        // Encoding the tallies of every player
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(key);
+        out.writeLong(simulations);
+        out.writeInt(players.size());
+        for (Player player : players.getPlayers()) {
+            out.writeUTF(player.getName());
+            out.writeLong(player.getWonGames());
+            out.writeLong(player.getLostGames());
+            out.writeLong(player.getWonPoints());
+            out.writeInt(players.size());
+            for (int w = 1; w <= players.size(); w++)
+                out.writeLong(player.getTiedGames(w));
+        }
+        out.close();
+        byte[] content = bytes.toByteArray();
+
+        CRC32 crc = new CRC32();
+        crc.update(content, 0, content.length);
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + content.length);
+        record.putInt(content.length).putInt((int) crc.getValue()).put(content).flip();
+        while (record.hasRemaining())
+            channel.write(record, end + record.position());
+
+        index(key, end);
+        end += RECORD_HEADER + content.length;
+    }
+
+    /**
+     * Rewrites the live records into a new log which then replaces the
+     * current one, reclaiming the space of shadowed records
+     *
+     * @throws IOException
+     */
+    public synchronized void compact() throws IOException {
+
+        File compacted = new File(file.getPath() + ".compact");
+        RandomAccessFile target = new RandomAccessFile(compacted, "rw");
+        try {
+            FileChannel out = target.getChannel();
+            out.truncate(0);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            header.putInt(MAGIC).putInt(VERSION).flip();
+            out.write(header, 0);
+
+            // Copying the latest record of every key as it is
+            out.position(HEADER);
+            for (long record : index.values()) {
+                long length = RECORD_HEADER + length(record);
+                long copied = 0;
+                while (copied < length)
+                    copied += channel.transferTo(record + copied, length - copied, out);
+            }
+
+            out.force(true);
+        } finally {
+            target.close();
+        }
+
+        // Swapping the logs while the old one is still open, so that the
+        // store keeps working on it if the move fails
+        Files.move(compacted.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        close();
+        open();
+    }
+
+    /**
+     * Forces the appended records to the disk
+     *
+     * @throws IOException
+     */
+    public synchronized void sync() throws IOException {
+        channel.force(false);
+    }
+
+    /**
+     * Forces the appended records to the disk and closes the log
+     *
+     * @throws IOException
+     */
+    public synchronized void close() throws IOException {
+        if (channel.isOpen())
+            channel.force(false);
+        raf.close();
+    }
+
+    /**
+     * Returns the number of keys in the store
+     *
+     * @return
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * Returns the number of bytes of the log
+     *
+     * @return
+     */
+    public synchronized long getLength() {
+        return end;
+    }
+
+    /**
+     * Returns the number of bytes taken by shadowed records, which
+     * {@link #compact()} would reclaim
+     *
+     * @return
+     */
+    public synchronized long getGarbage() {
+        return garbage;
+    }
+
+    public synchronized String toString() {
+        return "Result store: " + index.size() + " keys, " + end + " bytes, " + garbage + " bytes of garbage";
+    }
+
+}
@@ -0,0 +1,234 @@
+package com.suitgamer.tools;
+
+/**
+ * Enumerates the k-combinations of the positions 0 to n - 1 in
+ * revolving door order, a Gray code in which every combination
+ * differs from the previous one by exactly one position leaving and
+ * one position entering. Enumerating boards this way lets the card
+ * masks of the board and the hands be updated with a single card swap
+ * per board rather than unranked and rebuilt, the hands are still
+ * scored in full.
+ *
+ * The order is defined recursively, the combinations of n positions
+ * are those of n - 1 positions followed, in reverse order, by the
+ * (k - 1)-combinations of n - 1 positions with position n - 1 added.
+ * Successors are found with Knuth's algorithm R (The Art of Computer
+ * Programming, 7.2.1.3) and combinations can be ranked and unranked
+ * so that threads start enumerating anywhere in the order
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class RevolvingDoor {
+
+    private int n;
+    private int k;
+
+    /**
+     * Positions of the current combination, c[1] to c[k] in ascending
+     * order, c[k + 1] holds n as a sentinel
+     */
+    private int[] c;
+
+    /**
+     * Position which left and position which entered the combination
+     * on the last call to {@link #next()}
+     */
+    private int out;
+    private int in;
+
+    /**
+     * Starts the enumeration at the first combination
+     *
+     * @param n Number of positions to choose from
+     * @param k Number of positions in every combination
+     */
+    public RevolvingDoor(int n, int k) {
+        this(n, k, 0);
+    }
+
+    /**
+     * Starts the enumeration at the combination of the given rank in
+     * revolving door order
+     *
+     * @param n Number of positions to choose from
+     * @param k Number of positions in every combination
+     * @param rank Number from 0 to C(n, k) - 1
+     */
+    public RevolvingDoor(int n, int k, long rank) {
+
+        if (k < 0 || k > n || n > Combinations.MAXIMUM)
+            throw new IllegalArgumentException("Invalid combinations of " + k + " out of " + n);
+        if (rank < 0 || rank >= Combinations.binomial(n, k))
+            throw new IllegalArgumentException("Invalid rank " + rank);
+
+        this.n = n;
+        this.k = k;
+        this.c = new int[k + 2];
+
+        int[] positions = new int[k];
+        unrank(rank, k, n, positions);
+        for (int j = 1; j <= k; j++)
+            c[j] = positions[j - 1];
+        c[k + 1] = n;
+    }
+
+    /**
+     * Moves to the next combination, returns false if the current one
+     * was the last. Positions that left and entered are then given by
+     * {@link #getOut()} and {@link #getIn()}
+     *
+     * @return
+     */
+    public boolean next() {
+
+        if (k == 0 || k == n)
+            return false;
+
+        // Single positions simply move up
+        if (k == 1) {
+            if (c[1] + 1 >= n)
+                return false;
+            out = c[1];
+            in = ++c[1];
+            return true;
+        }
+
+        // Easy cases, moving the lowest position
+        int j;
+        boolean decrease;
+        if ((k & 1) == 1) {
+            if (c[1] + 1 < c[2]) {
+                out = c[1];
+                in = ++c[1];
+                return true;
+            }
+            j = 2;
+            decrease = true;
+        } else {
+            if (c[1] > 0) {
+                out = c[1];
+                in = --c[1];
+                return true;
+            }
+            j = 2;
+            decrease = false;
+        }
+
+        while (j <= k) {
+
+            // Trying to decrease c[j], here c[j] = c[j - 1] + 1
+            if (decrease) {
+                if (c[j] >= j) {
+                    out = c[j];
+                    in = j - 2;
+                    c[j] = c[j - 1];
+                    c[j - 1] = j - 2;
+                    return true;
+                }
+                j++;
+                if (j > k)
+                    break;
+            }
+
+            // Trying to increase c[j], here c[j - 1] = j - 2
+            if (c[j] + 1 < c[j + 1]) {
+                out = c[j - 1];
+                in = c[j] + 1;
+                c[j - 1] = c[j];
+                c[j]++;
+                return true;
+            }
+            j++;
+            decrease = true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the i-th position of the current combination, positions
+     * are in ascending order
+     *
+     * @param i Number from 0 to k - 1
+     * @return
+     */
+    public int get(int i) {
+        return c[i + 1];
+    }
+
+    /**
+     * Writes the positions of the current combination into the first
+     * k elements of the provided array, in ascending order
+     *
+     * @param positions
+     */
+    public void get(int[] positions) {
+        System.arraycopy(c, 1, positions, 0, k);
+    }
+
+    /**
+     * Returns the position which left the combination on the last call
+     * to {@link #next()}
+     *
+     * @return
+     */
+    public int getOut() {
+        return out;
+    }
+
+    /**
+     * Returns the position which entered the combination on the last
+     * call to {@link #next()}
+     *
+     * @return
+     */
+    public int getIn() {
+        return in;
+    }
+
+    /**
+     * Returns the rank in revolving door order of the k-combination
+     * whose positions are given in ascending order
+     *
+     * @param positions
+     * @param k
+     * @return
+     */
+    public static long rank(int[] positions, int k) {
+
+        // The combination ranks after every combination of lower positions, reversed below it
+        long rank = 0;
+        for (int i = 0; i < k; i++)
+            rank = Combinations.binomial(positions[i] + 1, i + 1) - 1 - rank;
+
+        return rank;
+    }
+
+    /**
+     * Given a rank in revolving door order this method writes the
+     * positions of the k-combination with such rank into the first k
+     * elements of the provided array, in ascending order
+     *
+     * @param rank Number from 0 to C(n, k) - 1
+     * @param k Number of elements in the combination
+     * @param n Number of elements to choose from
+     * @param positions Array receiving the positions
+     */
+    public static void unrank(long rank, int k, int n, int[] positions) {
+
+        // Largest position that may still be chosen
+        int m = n - 1;
+
+        for (int i = k; i >= 1; i--) {
+
+            // Finding the highest position, combinations below it come first
+            while (Combinations.binomial(m, i) > rank)
+                m--;
+
+            positions[i - 1] = m;
+            rank = Combinations.binomial(m + 1, i) - 1 - rank;
+            m--;
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.suitgamer.tools;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.suitgamer.ifaces.Aggregable;
+
+/**
+ * Settles the pot of a multi-way all-in game at showdown. Every player
+ * puts in the pot up to its stack, the main pot is contested by every
+ * player while every side pot is only contested by the players who
+ * put enough in it. Players are ordered once by their stack, largest
+ * first, then every game is settled in a single pass over that order:
+ * players join the contest from the largest stack down and every pot
+ * layer goes to the best hands among the players contesting it, split
+ * evenly on ties. Nothing is allocated per game.
+ *
+ * The winnings minus the stack put in are accumulated per player so
+ * that the expected value of every player can be read after many
+ * games, see {@link #getExpectedValue(int)}. In a tournament the chips
+ * won are not worth their face value, given an {@link IcmCalculator}
+ * every distinct outcome is counted so that the prize equity of every
+ * player can be averaged over the games, see {@link #getPrizeEquities()}
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class Showdown implements Aggregable<Showdown> {
+
+    /**
+     * Amount every player puts in the pot
+     */
+    private double[] stacks;
+
+    /**
+     * Money in the pot from players who folded, it goes to the main pot
+     */
+    private double deadMoney;
+
+    /**
+     * Players ordered by stack, largest first
+     */
+    private int[] order;
+
+    /**
+     * Players holding the best hand among the contesting players
+     */
+    private int[] winners;
+
+    /**
+     * Winnings of every player on the last game settled
+     */
+    private double[] payouts;
+
+    /**
+     * Winnings minus stack of every player, summed over the games
+     * settled
+     */
+    private double[] profits;
+
+    /**
+     * Number of games settled
+     */
+    private long games;
+
+    /**
+     * Calculator of prize equities, null unless playing a tournament
+     */
+    private IcmCalculator icm;
+
+    /**
+     * Stacks of the players at the table not in the game
+     */
+    private double[] others = new double[0];
+
+    /**
+     * Distinct winnings settled and number of games each was settled
+     */
+    private double[][] outcomes = new double[0][];
+    private long[] counts = new long[0];
+    private int distinct;
+
+    /**
+     * Slot of every distinct outcome, looked up through a key reused by
+     * every game so that nothing is allocated unless the outcome is new
+     */
+    private Map<Outcome, Integer> slots = new HashMap<Outcome, Integer>();
+    private Outcome probe = new Outcome();
+
+    /**
+     * Prepares the showdown of players putting in the given stacks
+     *
+     * @param stacks Amount every player puts in the pot
+     * @param deadMoney Money in the pot from players who folded
+     */
+    public Showdown(double[] stacks, double deadMoney) {
+
+        if (stacks.length < 2)
+            throw new IllegalArgumentException("A showdown needs at least two players");
+        for (double stack : stacks)
+            if (!(stack >= 0))
+                throw new IllegalArgumentException("Stacks can not be negative");
+
+        this.stacks = stacks.clone();
+        this.deadMoney = deadMoney;
+        this.winners = new int[stacks.length];
+        this.payouts = new double[stacks.length];
+        this.profits = new double[stacks.length];
+
+        // Ordering players by stack, largest first
+        order = new int[stacks.length];
+        for (int p = 0; p < stacks.length; p++) {
+            int i = p;
+            for (; i > 0 && stacks[order[i - 1]] < stacks[p]; i--)
+                order[i] = order[i - 1];
+            order[i] = p;
+        }
+    }
+
+    /**
+     * Returns whether or not some side pot is contested by fewer players
+     * than the main pot, that is whether or not the players who can put
+     * in the most do not all put in the same amount. Players with the
+     * largest stack win an uncalled excess back, which is no side pot
+     *
+     * @return
+     */
+    public boolean hasSidePots() {
+        double called = stacks[order[1]];
+        for (double stack : stacks)
+            if (stack < called)
+                return true;
+
+        return false;
+    }
+
+    /**
+     * Settles the game given the packed score of every player, see
+     * {@link PokerHandEvaluator#packScore(int[])}, and returns the
+     * winnings of every player. The returned array is reused by the
+     * next game
+     *
+     * @param scores Packed score of every player, higher is better
+     * @return
+     */
+    public double[] settle(int[] scores) {
+
+        for (int p = 0; p < payouts.length; p++)
+            payouts[p] = 0;
+
+        int best = Integer.MIN_VALUE;
+        int count = 0;
+        for (int i = 0; i < order.length; i++) {
+
+            // Player joining the contest, keeping the best hands so far
+            int player = order[i];
+            if (scores[player] > best) {
+                best = scores[player];
+                count = 0;
+            }
+            if (scores[player] == best)
+                winners[count++] = player;
+
+            // Layer of the pot contested by the players joined so far
+            double below = i + 1 < order.length ? stacks[order[i + 1]] : 0;
+            double layer = (stacks[player] - below) * (i + 1);
+            if (i + 1 == order.length)
+                layer += deadMoney;
+            if (layer == 0)
+                continue;
+
+            for (int w = 0; w < count; w++)
+                payouts[winners[w]] += layer / count;
+        }
+
+        // Documenting the profit of every player
+        for (int p = 0; p < payouts.length; p++)
+            profits[p] += payouts[p] - stacks[p];
+        games++;
+
+        if (icm != null)
+            count(payouts, 1);
+
+        return payouts;
+    }
+
+    /**
+     * Returns the average amount the player won minus the stack it put
+     * in, over every game settled
+     *
+     * @param player
+     * @return
+     */
+    public double getExpectedValue(int player) {
+        return games == 0 ? 0 : profits[player] / games;
+    }
+
+    /**
+     * Counts the given outcome, there are few distinct ones as they
+     * only depend on which players win every pot layer
+     */
+    private void count(double[] outcome, long times) {
+
+        probe.values = outcome;
+        probe.hash = Arrays.hashCode(outcome);
+        Integer slot = slots.get(probe);
+        if (slot != null) {
+            counts[slot] += times;
+            return;
+        }
+
+        if (distinct == outcomes.length) {
+            outcomes = Arrays.copyOf(outcomes, Math.max(4, distinct * 2));
+            counts = Arrays.copyOf(counts, outcomes.length);
+        }
+        outcomes[distinct] = outcome.clone();
+        counts[distinct] = times;
+
+        Outcome key = new Outcome();
+        key.values = outcomes[distinct];
+        key.hash = probe.hash;
+        slots.put(key, distinct++);
+    }
+
+    /**
+     * Returns the prize equity of every player in the game averaged
+     * over every game settled, each player being left with its winnings
+     * as its stack. Null unless a calculator was given, see
+     * {@link #setIcm(IcmCalculator, double[])}
+     *
+     * @return
+     */
+    public double[] getPrizeEquities() {
+
+        if (icm == null)
+            return null;
+
+        double[] equities = new double[stacks.length];
+        if (games == 0)
+            return equities;
+
+        double[] table = new double[stacks.length + others.length];
+        System.arraycopy(others, 0, table, stacks.length, others.length);
+        for (int o = 0; o < distinct; o++) {
+            System.arraycopy(outcomes[o], 0, table, 0, stacks.length);
+            double[] prizes = icm.compute(table);
+            for (int p = 0; p < stacks.length; p++)
+                equities[p] += prizes[p] * counts[o] / games;
+        }
+
+        return equities;
+    }
+
+    /**
+     * Returns the prize equity every player in the game gains on
+     * average, that is its averaged prize equity after the game minus
+     * its prize equity before the game. Dead money is not part of the
+     * stacks before the game. Null unless a calculator was given
+     *
+     * @return
+     */
+    public double[] getPrizeExpectedValues() {
+
+        double[] equities = getPrizeEquities();
+        if (equities == null)
+            return null;
+
+        double[] table = new double[stacks.length + others.length];
+        System.arraycopy(stacks, 0, table, 0, stacks.length);
+        System.arraycopy(others, 0, table, stacks.length, others.length);
+        double[] before = icm.compute(table);
+        for (int p = 0; p < stacks.length; p++)
+            equities[p] -= before[p];
+
+        return equities;
+    }
+
+    /**
+     * Values outcomes with the given calculator of prize equities
+     *
+     * @param icm Calculator with the payout structure of the tournament
+     * @param others Stacks of the players at the table not in the game
+     */
+    public void setIcm(IcmCalculator icm, double[] others) {
+        this.icm = icm;
+        this.others = others.clone();
+    }
+
+    public IcmCalculator getIcm() {
+        return icm;
+    }
+
+    public double getStack(int player) {
+        return stacks[player];
+    }
+
+    public double getDeadMoney() {
+        return deadMoney;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public void aggregate(Showdown showdown) {
+
+        if (showdown.profits.length != profits.length)
+            throw new IllegalStateException("Can not aggregate showdowns with different number of players");
+
+        for (int p = 0; p < profits.length; p++)
+            profits[p] = profits[p] + showdown.profits[p];
+        games = games + showdown.games;
+
+        if (icm != null)
+            for (int o = 0; o < showdown.distinct; o++)
+                count(showdown.outcomes[o], showdown.counts[o]);
+    }
+
+    /**
+     * Winnings of every player hashed by value, see {@link Arrays#equals(double[], double[])}
+     */
+    private static class Outcome {
+
+        private double[] values;
+        private int hash;
+
+        public int hashCode() {
+            return hash;
+        }
+
+        public boolean equals(Object other) {
+            return other instanceof Outcome && Arrays.equals(values, ((Outcome) other).values);
+        }
+    }
+}
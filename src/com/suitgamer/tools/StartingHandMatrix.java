@@ -0,0 +1,286 @@
+package com.suitgamer.tools;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Heads-up preflop all-in equity of every starting hand against every
+ * other one, along with the number of pairs of pockets the two
+ * starting hands can be dealt as without sharing a card. Starting
+ * hands are numbered by {@link PreflopEquityTable#startingHandOf(int, int)}.
+ *
+ * The matrix is either averaged out of an exact table (see
+ * {@link #of(PreflopEquityTable)}) or sampled with the bitmask
+ * evaluator (see {@link #sample(int, long, int)}). Either way it is
+ * meant to be built once and reused, {@link #save(File)} and
+ * {@link #load(File)} keep it across processes
+ *
+ * File layout, big endian: a header with {@link #MAGIC} and
+ * {@link #VERSION}, followed by the equities row by row
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class StartingHandMatrix {
+
+    public static final int MAGIC = 0x5348454D;
+    public static final int VERSION = 1;
+
+    public static final int STARTING_HANDS = PreflopEquityTable.STARTING_HANDS;
+
+    /**
+     * Pockets of every starting hand, as pairs of Poker deck positions
+     */
+    private static final int[][][] POCKETS = new int[STARTING_HANDS][][];
+
+    /**
+     * Pairs of pockets of every two starting hands sharing no card
+     */
+    private static final int[][] PAIRS = new int[STARTING_HANDS][STARTING_HANDS];
+
+    static {
+
+        List<List<int[]>> pockets = new ArrayList<List<int[]>>();
+        for (int h = 0; h < STARTING_HANDS; h++)
+            pockets.add(new ArrayList<int[]>());
+        for (int first = 0; first < PokerDeck.SIZE; first++)
+            for (int second = 0; second < first; second++)
+                pockets.get(PreflopEquityTable.startingHandOf(first, second)).add(new int[] { first, second });
+        for (int h = 0; h < STARTING_HANDS; h++)
+            POCKETS[h] = pockets.get(h).toArray(new int[0][]);
+
+        for (int h = 0; h < STARTING_HANDS; h++)
+            for (int v = 0; v < STARTING_HANDS; v++)
+                for (int[] hero : POCKETS[h])
+                    for (int[] villain : POCKETS[v])
+                        if (hero[0] != villain[0] && hero[0] != villain[1] && hero[1] != villain[0] && hero[1] != villain[1])
+                            PAIRS[h][v]++;
+    }
+
+    private double[][] equities;
+
+    private StartingHandMatrix(double[][] equities) {
+        this.equities = equities;
+    }
+
+    /**
+     * Averages the exact results of the given table, the table must
+     * hold every matchup
+     *
+     * @param table
+     * @return
+     */
+    public static StartingHandMatrix of(PreflopEquityTable table) {
+
+        double[][] equities = new double[STARTING_HANDS][STARTING_HANDS];
+        for (int h = 0; h < STARTING_HANDS; h++)
+            for (int v = 0; v < STARTING_HANDS; v++)
+                equities[h][v] = table.getStartingHandEquity(h, v);
+
+        return new StartingHandMatrix(equities);
+    }
+
+    /**
+     * Samples the given number of deals for every two starting hands,
+     * each deal being two random pockets sharing no card and a random
+     * board. The same seed always gives the same matrix, whatever the
+     * number of threads
+     *
+     * @param deals Number of deals sampled for every two starting hands
+     * @param seed
+     * @param threads
+     * @return
+     * @throws InterruptedException
+     */
+    public static StartingHandMatrix sample(final int deals, final long seed, int threads) throws InterruptedException {
+
+        if (threads < 1)
+            throw new IllegalArgumentException("Number of threads can not be less than one.");
+        if (deals < 1)
+            throw new IllegalArgumentException("Number of deals can not be less than one.");
+
+        final double[][] equities = new double[STARTING_HANDS][STARTING_HANDS];
+
+        // Threads take the next hero starting hand left until none is left
+        final AtomicInteger next = new AtomicInteger();
+        List<Thread> workers = new ArrayList<Thread>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(new Thread(new Runnable() {
+                public void run() {
+                    for (int h = next.getAndIncrement(); h < STARTING_HANDS; h = next.getAndIncrement()) {
+                        equities[h][h] = 0.5;
+                        for (int v = h + 1; v < STARTING_HANDS; v++)
+                            equities[h][v] = sample(h, v, deals, new Random(seed * STARTING_HANDS * STARTING_HANDS + h * STARTING_HANDS + v));
+                    }
+                }
+            }));
+        }
+
+        for (Thread worker : workers)
+            worker.start();
+        for (Thread worker : workers)
+            worker.join();
+
+        // Villain equities are what the hero leaves
+        for (int h = 0; h < STARTING_HANDS; h++)
+            for (int v = 0; v < h; v++)
+                equities[h][v] = 1 - equities[v][h];
+
+        return new StartingHandMatrix(equities);
+    }
+
+    /**
+     * Returns the equity of the hero starting hand over the given
+     * number of random deals
+     */
+    private static double sample(int hero, int villain, int deals, Random random) {
+
+        double points = 0;
+        for (int d = 0; d < deals; d++) {
+
+            // Dealing both pockets until they share no card
+            long heroMask;
+            long villainMask;
+            do {
+                int[] h = POCKETS[hero][random.nextInt(POCKETS[hero].length)];
+                int[] v = POCKETS[villain][random.nextInt(POCKETS[villain].length)];
+                heroMask = PokerDeck.maskOf(h[0]) | PokerDeck.maskOf(h[1]);
+                villainMask = PokerDeck.maskOf(v[0]) | PokerDeck.maskOf(v[1]);
+            } while ((heroMask & villainMask) != 0);
+
+            // Dealing the board out of the cards left
+            long used = heroMask | villainMask;
+            long board = 0;
+            for (int c = 0; c < 5; c++) {
+                long card;
+                do {
+                    card = PokerDeck.maskOf(random.nextInt(PokerDeck.SIZE));
+                } while ((card & used) != 0);
+                used |= card;
+                board |= card;
+            }
+
+            int heroScore = BitmaskHandEvaluator.evaluate(heroMask | board);
+            int villainScore = BitmaskHandEvaluator.evaluate(villainMask | board);
+            if (heroScore > villainScore)
+                points += 1;
+            else if (heroScore == villainScore)
+                points += 0.5;
+        }
+
+        return points / deals;
+    }
+
+    /**
+     * Reads a matrix written by {@link #save(File)}
+     *
+     * @param file
+     * @return
+     * @throws IOException
+     */
+    public static StartingHandMatrix load(File file) throws IOException {
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != MAGIC)
+                throw new IllegalStateException("Not a starting hand matrix");
+            int version = in.readInt();
+            if (version != VERSION)
+                throw new IllegalStateException("Unsupported starting hand matrix version " + version);
+
+            double[][] equities = new double[STARTING_HANDS][STARTING_HANDS];
+            for (int h = 0; h < STARTING_HANDS; h++)
+                for (int v = 0; v < STARTING_HANDS; v++)
+                    equities[h][v] = in.readDouble();
+
+            return new StartingHandMatrix(equities);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Writes the matrix to the given file
+     *
+     * @param file
+     * @throws IOException
+     */
+    public void save(File file) throws IOException {
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            for (int h = 0; h < STARTING_HANDS; h++)
+                for (int v = 0; v < STARTING_HANDS; v++)
+                    out.writeDouble(equities[h][v]);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Returns the equity of the hero starting hand against the villain
+     * one
+     *
+     * @param hero
+     * @param villain
+     * @return
+     */
+    public double getEquity(int hero, int villain) {
+        return equities[hero][villain];
+    }
+
+    /**
+     * Returns the number of pairs of pockets both starting hands can be
+     * dealt as without sharing a card
+     *
+     * @param hero
+     * @param villain
+     * @return
+     */
+    public static int getPairs(int hero, int villain) {
+        return PAIRS[hero][villain];
+    }
+
+    /**
+     * Returns the number of pockets of the starting hand: 6 for pairs,
+     * 4 for suited hands and 12 for offsuit hands
+     *
+     * @param hand
+     * @return
+     */
+    public static int getPockets(int hand) {
+        return POCKETS[hand].length;
+    }
+
+    /**
+     * Returns the usual name of the starting hand, such as 'AKs', 'T9o'
+     * or '77'
+     *
+     * @param hand
+     * @return
+     */
+    public static String nameOf(int hand) {
+        int faces = PokerDeck.FACES.length();
+        int row = hand / faces;
+        int column = hand % faces;
+        char high = PokerDeck.FACES.charAt(Math.max(row, column));
+        char low = PokerDeck.FACES.charAt(Math.min(row, column));
+
+        if (row == column)
+            return "" + high + low;
+
+        return "" + high + low + (row > column ? 's' : 'o');
+    }
+}
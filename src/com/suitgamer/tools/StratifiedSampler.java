@@ -0,0 +1,92 @@
+package com.suitgamer.tools;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import com.suitgamer.ifaces.Sampler;
+
+/**
+ * Stratified sampler over the first board card dealt in a game, that
+ * is the first flop card when no board is known or the turn card when
+ * the flop is known. Every card left in the deck is a stratum and
+ * since each of them is equally likely, proportional allocation means
+ * each stratum gets the same number of games. Games cycle through the
+ * strata in a shuffled order while the remaining cards are dealt at
+ * random
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class StratifiedSampler implements Sampler {
+
+    /**
+     * Random number generator used for the shuffle of the strata and
+     * for all the non stratified cards
+     */
+    private Random random;
+
+    /**
+     * Cards that were left in the deck on the first game, in the
+     * order in which the games visit them
+     */
+    private List<Card> strata;
+
+    /**
+     * Number of games which have been prepared so far
+     */
+    private long games;
+
+    /**
+     * Whether or not the next card dealt is the stratified one
+     */
+    private boolean stratify;
+
+    public StratifiedSampler() {
+        this(new Random());
+    }
+
+    public StratifiedSampler(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * Captures the strata on the first game and flags the first board
+     * card of every game as the stratified card
+     *
+     * @param deck
+     * @param boardCards
+     * @return
+     */
+    public void prepare(Deck deck, int boardCards) {
+
+        // Capturing the strata out of the cards left in the deck
+        if (strata == null) {
+            strata = new ArrayList<Card>(deck.getCards());
+            Collections.shuffle(strata, random);
+        }
+
+        // Only games that deal a board card are stratified
+        stratify = boardCards > 0;
+    }
+
+    /**
+     * Deals the stratum card of the current game if it has not been
+     * dealt yet, otherwise deals a card at random
+     *
+     * @param deck
+     * @return
+     */
+    public Card deal(Deck deck) {
+
+        // Dealing the stratum of the current game
+        if (stratify) {
+            stratify = false;
+            Card stratum = strata.get((int) (games++ % strata.size()));
+            return deck.dealSpecificCard(stratum);
+        }
+
+        return deck.dealCard(random.nextInt(deck.getSize()));
+    }
+}
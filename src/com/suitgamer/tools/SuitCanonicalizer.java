@@ -0,0 +1,148 @@
+package com.suitgamer.tools;
+
+import java.util.List;
+
+/**
+ * Maps Poker scenarios which only differ by a permutation of the suits
+ * to the same canonical key. For instance 'AH KH' against 'QS QD' and
+ * 'AS KS' against 'QH QC' share their key, and therefore their
+ * equities. A scenario is made of groups of cards, the cards of every
+ * player in order, the community cards and the dead cards. Suits are
+ * permuted over all the groups at once and the permutation giving the
+ * smallest sequence of group masks (see {@link PokerDeck#maskOf(int)})
+ * is the canonical one
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class SuitCanonicalizer {
+
+    /**
+     * Every permutation of the four suits, suit s becomes suit
+     * PERMUTATIONS[p][s]. The first permutation is the identity
+     */
+    public static final int[][] PERMUTATIONS = new int[24][];
+
+    static {
+        int p = 0;
+        for (int a = 0; a < 4; a++)
+            for (int b = 0; b < 4; b++)
+                for (int c = 0; c < 4; c++)
+                    for (int d = 0; d < 4; d++)
+                        if (a != b && a != c && a != d && b != c && b != d && c != d)
+                            PERMUTATIONS[p++] = new int[] { a, b, c, d };
+    }
+
+    /**
+     * Returns the canonical key of a scenario given as the unparsed
+     * cards of every player, of every set of community cards and the
+     * dead cards. Players given as a range (see {@link Range}) are
+     * keyed by their notation and, since a range may name specific
+     * suits, suits are then left as they are
+     *
+     * @param playersCards Strings containing unparsed player cards
+     * @param communitiesCards Strings containing unparsed community cards
+     * @param deadCards String containing unparsed dead cards
+     * @return
+     */
+    public static String canonicalize(List<String> playersCards, List<String> communitiesCards, String deadCards) {
+
+        int groups = playersCards.size() + (communitiesCards == null ? 0 : communitiesCards.size()) + 1;
+        long[] masks = new long[groups];
+        StringBuilder ranges = new StringBuilder();
+
+        // Parsing every group of cards
+        int g = 0;
+        for (String cards : playersCards) {
+            if (Range.isRange(cards)) {
+                ranges.append('|').append(g).append('=').append(cards.trim().toUpperCase());
+                g++;
+            } else {
+                masks[g++] = PokerDeck.parseMask(cards);
+            }
+        }
+        if (communitiesCards != null)
+            for (String cards : communitiesCards)
+                masks[g++] = PokerDeck.parseMask(cards);
+        masks[g] = deadCards == null ? 0 : PokerDeck.parseMask(deadCards);
+
+        // Ranges keep their suits
+        long[] best = masks;
+        if (ranges.length() == 0)
+            best = canonicalize(masks);
+
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < best.length; i++) {
+            if (i > 0)
+                key.append('|');
+            key.append(Long.toHexString(best[i]));
+        }
+        key.append(ranges);
+
+        return key.toString();
+    }
+
+    /**
+     * Returns the given masks under the suit permutation which makes
+     * the sequence of masks the smallest
+     *
+     * @param masks
+     * @return
+     */
+    public static long[] canonicalize(long[] masks) {
+
+        long[] best = null;
+        long[] current = new long[masks.length];
+        for (int[] permutation : PERMUTATIONS) {
+
+            for (int i = 0; i < masks.length; i++)
+                current[i] = permute(masks[i], permutation);
+
+            if (best == null || compare(current, best) < 0) {
+                best = current;
+                current = new long[masks.length];
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Moves every card of the mask to the suit given by the
+     * permutation
+     *
+     * @param mask
+     * @param permutation
+     * @return
+     */
+    public static long permute(long mask, int[] permutation) {
+        long permuted = 0;
+        for (int s = 0; s < 4; s++)
+            permuted |= ((mask >>> (16 * s)) & 0xFFFFL) << (16 * permutation[s]);
+
+        return permuted;
+    }
+
+    /**
+     * Moves a card, given by its position in a freshly created Poker
+     * deck, to the suit given by the permutation
+     *
+     * @param card
+     * @param permutation
+     * @return
+     */
+    public static int permute(int card, int[] permutation) {
+        return (card & ~3) | permutation[card & 3];
+    }
+
+    /**
+     * Compares two sequences of masks element by element
+     */
+    private static int compare(long[] first, long[] second) {
+        for (int i = 0; i < first.length; i++)
+            if (first[i] != second[i])
+                return first[i] < second[i] ? -1 : 1;
+
+        return 0;
+    }
+}
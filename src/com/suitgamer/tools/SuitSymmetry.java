@@ -0,0 +1,177 @@
+package com.suitgamer.tools;
+
+/**
+ * Finds the suits left interchangeable by the known cards of a spot so
+ * that exact enumerations only evaluate one runout out of every set
+ * of equivalent runouts. Two suits are interchangeable when every
+ * group of known cards (the pocket of a player, the board, the dead
+ * cards) holds the same ranks in both suits, swapping them then
+ * leaves every group, and so every result, as it is. A preflop
+ * heads-up spot between 'AH KH' and 'QS QH' leaves clubs and diamonds
+ * interchangeable.
+ *
+ * Interchangeable suits form classes. A runout is canonical when,
+ * within every class, the ranks it holds in each suit (as a rank
+ * mask) do not increase from one suit to the next. Every runout is
+ * equivalent to exactly one canonical runout, which stands for as many
+ * runouts as there are distinct ways of permuting the suits of its
+ * classes, see {@link #weight(long)}. Results gathered on canonical
+ * runouts only are spread back to every runout with the permutations
+ * of {@link #permute(long, int)}
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class SuitSymmetry {
+
+    private static final int SUITS = 4;
+    private static final int RANKS = 0x1FFF;
+
+    /**
+     * Previous suit of the same class for every suit, negative for the
+     * first suit of a class
+     */
+    private int[] previous = new int[SUITS];
+
+    /**
+     * Position of every suit within its class, starting at one
+     */
+    private int[] order = new int[SUITS];
+
+    /**
+     * Suit permutations which leave every class in place
+     */
+    private int[][] permutations;
+
+    /**
+     * Finds the classes of interchangeable suits of the given groups of
+     * known cards
+     *
+     * @param groups Card masks of every group, see {@link PokerDeck#maskOf(int)}
+     */
+    public SuitSymmetry(long... groups) {
+
+        for (int s = 0; s < SUITS; s++) {
+            previous[s] = -1;
+            for (int t = s - 1; t >= 0 && previous[s] < 0; t--)
+                if (interchangeable(groups, s, t))
+                    previous[s] = t;
+            order[s] = previous[s] < 0 ? 1 : order[previous[s]] + 1;
+        }
+
+        // Keeping the permutations that only move suits within their class
+        int count = 0;
+        int[][] kept = new int[SuitCanonicalizer.PERMUTATIONS.length][];
+        for (int[] permutation : SuitCanonicalizer.PERMUTATIONS) {
+            boolean inClass = true;
+            for (int s = 0; s < SUITS; s++)
+                inClass = inClass && classOf(s) == classOf(permutation[s]);
+            if (inClass)
+                kept[count++] = permutation;
+        }
+
+        permutations = new int[count][];
+        System.arraycopy(kept, 0, permutations, 0, count);
+    }
+
+    /**
+     * Whether or not swapping both suits leaves every group as it is
+     */
+    private static boolean interchangeable(long[] groups, int s, int t) {
+        for (long group : groups)
+            if (ranks(group, s) != ranks(group, t))
+                return false;
+
+        return true;
+    }
+
+    /**
+     * Returns the ranks the mask holds in the given suit
+     */
+    private static int ranks(long mask, int suit) {
+        return (int) (mask >>> (suit * 16)) & RANKS;
+    }
+
+    /**
+     * Returns the first suit of the class of the given suit
+     */
+    private int classOf(int suit) {
+        while (previous[suit] >= 0)
+            suit = previous[suit];
+
+        return suit;
+    }
+
+    /**
+     * Returns whether or not no suits are interchangeable, every
+     * runout is then canonical with a weight of one
+     *
+     * @return
+     */
+    public boolean isTrivial() {
+        return permutations.length == 1;
+    }
+
+    /**
+     * Returns whether or not the runout is the canonical one among the
+     * runouts equivalent to it
+     *
+     * @param runout Card mask of the runout
+     * @return
+     */
+    public boolean isCanonical(long runout) {
+        for (int s = 1; s < SUITS; s++)
+            if (previous[s] >= 0 && ranks(runout, previous[s]) < ranks(runout, s))
+                return false;
+
+        return true;
+    }
+
+    /**
+     * Returns the number of runouts the given runout stands for if it
+     * is canonical, zero otherwise
+     *
+     * @param runout Card mask of the runout
+     * @return
+     */
+    public int weight(long runout) {
+
+        if (!isCanonical(runout))
+            return 0;
+
+        // Permutations of every class divided by those of its equal suits
+        int weight = 1;
+        for (int s = 0; s < SUITS; s++) {
+            weight *= order[s];
+
+            int equal = 1;
+            for (int t = s; previous[t] >= 0 && ranks(runout, previous[t]) == ranks(runout, t); t = previous[t])
+                equal++;
+            weight /= equal;
+        }
+
+        return weight;
+    }
+
+    /**
+     * Returns the number of suit permutations which only move suits
+     * within their class
+     *
+     * @return
+     */
+    public int size() {
+        return permutations.length;
+    }
+
+    /**
+     * Applies the i-th suit permutation which only moves suits within
+     * their class to the given mask, the first one is the identity
+     *
+     * @param mask
+     * @param i Number from 0 to {@link #size()} - 1
+     * @return
+     */
+    public long permute(long mask, int i) {
+        return SuitCanonicalizer.permute(mask, permutations[i]);
+    }
+}
@@ -0,0 +1,248 @@
+package com.suitgamer.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.suitgamer.ifaces.TableSource;
+
+/**
+ * Builds a {@link TableFile} out of the int entries computed by a
+ * {@link TableSource}, splitting the entries in blocks computed by as
+ * many threads as asked. Every block is written at the offset of its
+ * first entry, so the file is the same byte for byte whatever the
+ * number of threads and the order blocks are done in.
+ *
+ * Blocks are written to a partial file next to the table, and every
+ * block written is then marked in a checkpoint file, so a build which
+ * was interrupted resumes with the blocks left once started again with
+ * the same source, kind and version. Once every block is written, the
+ * table file is written out of the partial file, along with its
+ * checksum, and the partial and checkpoint files are deleted. A build
+ * which fails in any way, errors included, writes no table and keeps
+ * the checkpoint
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class TableBuilder {
+
+    /**
+     * Bytes of the checkpoint header: the number of entries, of entries
+     * per block, the kind and the version of the table
+     */
+    private static final int CHECKPOINT_HEADER = 20;
+
+    private TableSource source;
+    private int kind;
+    private int version;
+
+    private int threads = 1;
+    private int blockSize = 1 << 16;
+
+    /**
+     * Receives a line every percent of the blocks built, none when null
+     */
+    private PrintStream progress;
+
+    /**
+     * Number of blocks of the table and blocks written so far
+     */
+    private int blocks;
+    private AtomicInteger written = new AtomicInteger();
+
+    /**
+     * Prepares the build of a table of the given kind and version, see
+     * {@link TableFile}
+     *
+     * @param source
+     * @param kind
+     * @param version
+     */
+    public TableBuilder(TableSource source, int kind, int version) {
+        this.source = source;
+        this.kind = kind;
+        this.version = version;
+    }
+
+    /**
+     * Builds the table into the given file, resuming the build left by
+     * an earlier call if there is one
+     *
+     * @param file
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public void build(File file) throws IOException, InterruptedException {
+
+        final long size = source.size();
+        long count = (size + blockSize - 1) / blockSize;
+        if (count > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Too many blocks, blocks must be larger");
+        blocks = (int) count;
+
+        File partial = new File(file.getPath() + ".part");
+        File checkpoint = new File(file.getPath() + ".checkpoint");
+        final RandomAccessFile data = new RandomAccessFile(partial, "rw");
+        final RandomAccessFile marks = new RandomAccessFile(checkpoint, "rw");
+        try {
+            // Starting over unless the checkpoint is of the same build
+            boolean resumed = marks.length() == CHECKPOINT_HEADER + blocks && data.length() == 4 * size;
+            if (resumed) {
+                marks.seek(0);
+                resumed = marks.readLong() == size && marks.readInt() == blockSize && marks.readInt() == kind && marks.readInt() == version;
+            }
+            if (!resumed) {
+                data.setLength(0);
+                data.setLength(4 * size);
+                marks.setLength(0);
+                marks.writeLong(size);
+                marks.writeInt(blockSize);
+                marks.writeInt(kind);
+                marks.writeInt(version);
+                marks.write(new byte[blocks]);
+            }
+
+            byte[] done = new byte[blocks];
+            marks.seek(CHECKPOINT_HEADER);
+            marks.readFully(done);
+            final List<Integer> left = new ArrayList<Integer>();
+            for (int b = 0; b < blocks; b++)
+                if (done[b] == 0)
+                    left.add(b);
+            written.set(blocks - left.size());
+
+            // Threads take the next block left until none is left
+            final AtomicInteger next = new AtomicInteger();
+            final Throwable[] failure = new Throwable[1];
+            List<Thread> workers = new ArrayList<Thread>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(new Thread(new Runnable() {
+                    public void run() {
+                        for (int i = next.getAndIncrement(); i < left.size(); i = next.getAndIncrement()) {
+                            int b = left.get(i);
+                            long first = (long) b * blockSize;
+                            try {
+                                int[] entries = new int[(int) Math.min(blockSize, size - first)];
+                                source.compute(first, entries);
+                                write(data, marks, b, first, entries);
+                            } catch (Throwable e) {
+                                synchronized (failure) {
+                                    failure[0] = e;
+                                }
+                                next.set(left.size());
+                            }
+                        }
+                    }
+                }));
+            }
+
+            for (Thread worker : workers)
+                worker.start();
+            for (Thread worker : workers)
+                worker.join();
+
+            if (failure[0] instanceof IOException)
+                throw (IOException) failure[0];
+            if (failure[0] instanceof Error)
+                throw (Error) failure[0];
+            if (failure[0] != null)
+                throw (RuntimeException) failure[0];
+
+            // Keeping the checkpoint unless every block was written
+            if (written.get() != blocks)
+                throw new IllegalStateException("Table build is incomplete, " + written.get() + " of " + blocks + " blocks written");
+        } finally {
+            data.close();
+            marks.close();
+        }
+
+        TableStorage payload = TableStorage.map(partial);
+        try {
+            TableFile.write(file, kind, version, payload);
+        } finally {
+            payload.close();
+        }
+
+        checkpoint.delete();
+        partial.delete();
+    }
+
+    /**
+     * Writes the entries of a block, then marks the block once they are
+     * on disk
+     */
+    private void write(RandomAccessFile data, RandomAccessFile marks, int block, long first, int[] entries) throws IOException {
+
+        byte[] bytes = new byte[4 * entries.length];
+        ByteBuffer.wrap(bytes).asIntBuffer().put(entries);
+
+        synchronized (this) {
+            data.seek(4 * first);
+            data.write(bytes);
+            data.getChannel().force(false);
+            marks.seek(CHECKPOINT_HEADER + block);
+            marks.write(1);
+        }
+
+        int count = written.incrementAndGet();
+        if (progress != null && count * 100L / blocks != (count - 1) * 100L / blocks)
+            progress.println("Built " + count + " of " + blocks + " blocks (" + count * 100L / blocks + "%)");
+    }
+
+    /**
+     * Returns the share of the blocks written so far, from 0 to 1
+     *
+     * @return
+     */
+    public double getProgress() {
+        return blocks == 0 ? 0 : written.get() / (double) blocks;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        if (threads < 1)
+            throw new IllegalArgumentException("Number of threads can not be less than one.");
+
+        this.threads = threads;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Sets the number of entries computed at once, a checkpoint being
+     * made after every block
+     *
+     * @param blockSize
+     */
+    public void setBlockSize(int blockSize) {
+        if (blockSize < 1)
+            throw new IllegalArgumentException("Block size can not be less than one.");
+
+        this.blockSize = blockSize;
+    }
+
+    public PrintStream getProgressStream() {
+        return progress;
+    }
+
+    /**
+     * Sets the stream receiving a line every percent of the blocks
+     * built, null for none
+     *
+     * @param progress
+     */
+    public void setProgressStream(PrintStream progress) {
+        this.progress = progress;
+    }
+}
@@ -0,0 +1,202 @@
+package com.suitgamer.tools;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.zip.CRC32;
+
+/**
+ * Binary file holding a precomputed lookup table, such as the tables of
+ * {@link TableHandEvaluator}, so tables are generated once, at build
+ * time or on the first run, and mapped on every later start instead of
+ * being computed again.
+ *
+ * Files are versioned twice: by the version of the layout below and by
+ * the kind and the version of the table they hold, a table whose kind
+ * or version differs from the one expected failing to open. Opening a
+ * file only reads its header and maps its payload, see
+ * {@link TableStorage}, the checksum of the payload is checked apart
+ * with {@link #verify()}, which reads every page, so it can be done
+ * later or on another thread while the table is already in use. Files
+ * are written to a temporary file first and renamed once complete, so
+ * a file is never seen half written.
+ *
+ * File layout, big endian: {@link #MAGIC}, {@link #VERSION}, the kind
+ * and the version of the table, the number of bytes of the payload as
+ * a long, the CRC32 checksum of the payload as a long, then the payload
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class TableFile {
+
+    /**
+     * Identifies table files
+     */
+    public static final int MAGIC = 0x53475442;
+
+    /**
+     * Version of the file layout
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Bytes taken by the header
+     */
+    public static final int HEADER = 32;
+
+    private int kind;
+    private int version;
+    private long checksum;
+    private TableStorage payload;
+
+    /**
+     * Whether or not the checksum was checked, and matched
+     */
+    private boolean verified;
+    private boolean valid;
+
+    private TableFile(int kind, int version, long checksum, TableStorage payload) {
+        this.kind = kind;
+        this.version = version;
+        this.checksum = checksum;
+        this.payload = payload;
+    }
+
+    /**
+     * Maps the payload of the given file, checking its header but not
+     * its checksum
+     *
+     * @param file
+     * @param kind Kind of the table expected, such as its own magic number
+     * @param version Version of the table expected
+     * @return
+     * @throws IOException
+     */
+    public static TableFile open(File file, int kind, int version) throws IOException {
+
+        TableStorage header = TableStorage.map(file, 0, Math.min(HEADER, file.length()));
+        if (header.size() < HEADER || header.getInt(0) != MAGIC)
+            throw new IllegalStateException("Not a table file: " + file);
+        if (header.getInt(4) != VERSION)
+            throw new IllegalStateException("Unsupported table file version " + header.getInt(4));
+        if (header.getInt(8) != kind)
+            throw new IllegalStateException("Table file holds another kind of table: " + file);
+        if (header.getInt(12) != version)
+            throw new IllegalStateException("Unsupported table version " + header.getInt(12));
+
+        long length = header.getLong(16);
+        if (file.length() != HEADER + length)
+            throw new IllegalStateException("Table file is truncated: " + file);
+
+        return new TableFile(kind, version, header.getLong(24), TableStorage.map(file, HEADER, length));
+    }
+
+    /**
+     * Writes the given payload along with its header, replacing the
+     * file once it is complete
+     *
+     * @param file
+     * @param kind
+     * @param version
+     * @param payload
+     * @throws IOException
+     */
+    public static void write(File file, int kind, int version, TableStorage payload) throws IOException {
+
+        File temporary = new File(file.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(kind);
+            out.writeInt(version);
+            out.writeLong(payload.size());
+            out.writeLong(checksum(payload));
+
+            byte[] buffer = new byte[1 << 16];
+            for (long offset = 0; offset < payload.size(); offset += buffer.length) {
+                if (payload.size() - offset < buffer.length)
+                    buffer = new byte[(int) (payload.size() - offset)];
+                payload.get(offset, buffer);
+                out.write(buffer);
+            }
+        } finally {
+            out.close();
+        }
+
+        if (!temporary.renameTo(file)) {
+            file.delete();
+            if (!temporary.renameTo(file))
+                throw new IOException("Can not rename " + temporary + " to " + file);
+        }
+    }
+
+    /**
+     * Returns the CRC32 checksum of every byte of the storage
+     */
+    private static long checksum(TableStorage storage) {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[1 << 16];
+        for (long offset = 0; offset < storage.size(); offset += buffer.length) {
+            int length = (int) Math.min(buffer.length, storage.size() - offset);
+            if (length < buffer.length)
+                buffer = new byte[length];
+            storage.get(offset, buffer);
+            crc.update(buffer, 0, length);
+        }
+
+        return crc.getValue();
+    }
+
+    /**
+     * Checks the payload against its checksum, reading all of it the
+     * first time only
+     *
+     * @return
+     */
+    public synchronized boolean verify() {
+        if (!verified) {
+            valid = checksum(payload) == checksum;
+            verified = true;
+        }
+
+        return valid;
+    }
+
+    /**
+     * Whether or not the checksum was checked already, see
+     * {@link #verify()}
+     *
+     * @return
+     */
+    public synchronized boolean isVerified() {
+        return verified;
+    }
+
+    /**
+     * Returns the mapped payload, off the heap
+     *
+     * @return
+     */
+    public TableStorage getPayload() {
+        return payload;
+    }
+
+    public int getKind() {
+        return kind;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Unmaps the payload
+     */
+    public void close() {
+        payload.close();
+    }
+}
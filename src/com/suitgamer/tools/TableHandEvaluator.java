@@ -0,0 +1,346 @@
+package com.suitgamer.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+
+import com.suitgamer.ifaces.TableSource;
+
+/**
+ * Scores Poker hands of five to seven cards held as card masks (see
+ * {@link PokerDeck#maskOf(int)}) with two lookup tables, giving the
+ * packed scores of {@link PokerHandEvaluator} like
+ * {@link BitmaskHandEvaluator}:
+ *
+ * <ul>
+ * <li>The flush table, the score of the ranks held in a suit holding
+ * five cards or more. Seven cards holding a flush can not hold a full
+ * house or four of a kind, so such a hand scores its flush</li>
+ * <li>The rank table, the score of every multiset of ranks, as held by
+ * hands holding no flush. Multisets of k ranks are numbered as
+ * k-combinations of 12 + k elements, see {@link Combinations}</li>
+ * </ul>
+ *
+ * Tables are kept in a {@link TableFile}, generated at build time with
+ * {@link #generate(File)} or on the first run by {@link #open(File)},
+ * every entry being scored by {@link PokerHandEvaluator}, so an
+ * evaluator is ready as soon as the file is read. Both tables take a
+ * third of a megabyte, so they are read in bulk into the heap, lookups
+ * off the heap costing more than the lookups themselves. The checksum
+ * of the tables is verified on another thread once opened. Until tables
+ * are there, and for hands of other sizes, hands are scored by
+ * {@link BitmaskHandEvaluator}, the evaluator of
+ * {@link PokerHandEvaluator} scores on card masks
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class TableHandEvaluator {
+
+    /**
+     * Kind and version of the tables, see {@link TableFile}
+     */
+    public static final int KIND = 0x54484556;
+    public static final int VERSION = 2;
+
+    /**
+     * Ranks of a suit, the deuce is the lowest bit
+     */
+    private static final int RANKS = 0x1FFF;
+
+    /**
+     * Entries of the flush table, one per set of ranks of a suit
+     */
+    public static final int FLUSHES = RANKS + 1;
+
+    /**
+     * Offset of the multisets of every number of ranks in the rank
+     * table, and number of entries of both tables
+     */
+    private static final int[] OFFSETS = new int[8];
+    public static final int ENTRIES;
+
+    static {
+        int offset = FLUSHES;
+        for (int k = 5; k <= 7; k++) {
+            OFFSETS[k] = offset;
+            offset += (int) Combinations.binomial(12 + k, k);
+        }
+        ENTRIES = offset;
+    }
+
+    /**
+     * Lowest rank bit of every suit
+     */
+    private static final long SUITS = 0x0001000100010001L;
+
+    /**
+     * What the cards of a rank add to the number of a multiset, by
+     * rank, number of cards of lower ranks and number of cards of the
+     * rank, see {@link #rankIndex(long)}
+     */
+    private static final int[][][] CONTRIBUTIONS = new int[13][8][5];
+
+    static {
+        for (int rank = 0; rank < 13; rank++)
+            for (int below = 0; below < 8; below++)
+                for (int held = 1; held < 5 && below + held <= 7; held++)
+                    CONTRIBUTIONS[rank][below][held] = CONTRIBUTIONS[rank][below][held - 1] + (int) Combinations.binomial(rank + below + held - 1, below + held);
+    }
+
+    /**
+     * Mapped file and entries of both tables read from it, null while
+     * they are missing or if they are found corrupted
+     */
+    private volatile TableFile tables;
+    private volatile int[] entries;
+
+    private TableHandEvaluator() {
+    }
+
+    /**
+     * Returns an evaluator of the tables of the given file. The file is
+     * mapped and its checksum verified on another thread. If the file
+     * is missing, or holds other tables, it is generated on another
+     * thread, hands being scored without tables meanwhile
+     *
+     * @param file
+     * @return
+     */
+    public static TableHandEvaluator open(final File file) {
+
+        final TableHandEvaluator evaluator = new TableHandEvaluator();
+        try {
+            if (file.exists()) {
+                evaluator.use(TableFile.open(file, KIND, VERSION));
+                return evaluator;
+            }
+        } catch (IOException e) {
+        } catch (IllegalStateException e) {
+        }
+
+        // Generating the file on the first run
+        Thread generator = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    generate(file);
+                    evaluator.use(TableFile.open(file, KIND, VERSION));
+                } catch (IOException e) {
+                    // Staying without tables
+                }
+            }
+        });
+        generator.setDaemon(true);
+        generator.start();
+
+        return evaluator;
+    }
+
+    /**
+     * Scores hands with the given tables, dropping them if their
+     * checksum does not match
+     */
+    private void use(final TableFile file) {
+
+        byte[] bytes = new byte[4 * ENTRIES];
+        file.getPayload().get(0, bytes);
+        int[] read = new int[ENTRIES];
+        ByteBuffer.wrap(bytes).asIntBuffer().get(read);
+
+        tables = file;
+        entries = read;
+        Thread verifier = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    if (!file.verify()) {
+                        entries = null;
+                        tables = null;
+                    }
+                } catch (IllegalStateException e) {
+                    // Closed meanwhile
+                }
+            }
+        });
+        verifier.setDaemon(true);
+        verifier.start();
+    }
+
+    /**
+     * Returns the packed score of the hand holding the given cards, see
+     * {@link PokerHandEvaluator#packScore(int[])}
+     *
+     * @param cards Mask of the cards in the hand
+     * @return
+     */
+    public int evaluate(long cards) {
+
+        int[] entries = this.entries;
+        int count = Long.bitCount(cards);
+        if (entries == null || count < 5 || count > 7)
+            return BitmaskHandEvaluator.evaluate(cards);
+
+        for (int s = 0; s < 64; s += 16) {
+            int suit = (int) (cards >>> s) & RANKS;
+            if (Integer.bitCount(suit) >= 5)
+                return entries[suit];
+        }
+
+        return entries[OFFSETS[count] + rankIndex(cards)];
+    }
+
+    /**
+     * Returns the number of the multiset of the ranks of the cards, as
+     * the colexicographic rank of the combination of positions
+     * rank + number of cards of lower or equal rank counted so far
+     */
+    private static int rankIndex(long cards) {
+        int ranks = (int) (cards | (cards >>> 16) | (cards >>> 32) | (cards >>> 48)) & RANKS;
+        int index = 0;
+        int below = 0;
+        for (int bits = ranks; bits != 0; bits &= bits - 1) {
+            int rank = Integer.numberOfTrailingZeros(bits);
+            int held = Long.bitCount(cards & (SUITS << rank));
+            index += CONTRIBUTIONS[rank][below][held];
+            below += held;
+        }
+
+        return index;
+    }
+
+    /**
+     * Whether or not hands are scored with the tables, they may still be
+     * generated or verified
+     *
+     * @return
+     */
+    public boolean isLoaded() {
+        return entries != null;
+    }
+
+    /**
+     * Whether or not the tables are loaded and their checksum verified
+     *
+     * @return
+     */
+    public boolean isVerified() {
+        TableFile tables = this.tables;
+        return entries != null && tables != null && tables.isVerified();
+    }
+
+    /**
+     * Computes both tables and writes them to the given file, on as
+     * many threads as there are processors
+     *
+     * @param file
+     * @throws IOException
+     */
+    public static void generate(File file) throws IOException {
+        generate(file, Runtime.getRuntime().availableProcessors(), null);
+    }
+
+    /**
+     * Computes both tables on the given number of threads and writes
+     * them to the given file, see {@link TableBuilder}. Every entry is
+     * scored by {@link PokerHandEvaluator}, so the tables hold the
+     * scores of the reference evaluator and the file is the same
+     * whatever the number of threads
+     *
+     * @param file
+     * @param threads
+     * @param progress Stream receiving the progress, null for none
+     * @throws IOException
+     */
+    public static void generate(File file, int threads, PrintStream progress) throws IOException {
+
+        TableBuilder builder = new TableBuilder(new Entries(), KIND, VERSION);
+        builder.setThreads(threads);
+        builder.setBlockSize(1 << 12);
+        builder.setProgressStream(progress);
+        try {
+            builder.build(file);
+        } catch (InterruptedException e) {
+            throw new IOException("Interrupted while generating " + file);
+        }
+    }
+
+    /**
+     * Entries of both tables, scored by {@link PokerHandEvaluator}.
+     * Entries matching no hand, flushes of less than five or more than
+     * seven ranks and numbers matching no multiset held four times at
+     * most, are left to zero
+     */
+    private static class Entries implements TableSource {
+
+        public long size() {
+            return ENTRIES;
+        }
+
+        public void compute(long first, int[] entries) {
+
+            // Cards are taken from a fresh deck, by their position
+            PokerDeck deck = new PokerDeck();
+            PokerHandEvaluator phe = new PokerHandEvaluator();
+            int[] positions = new int[7];
+            for (int i = 0; i < entries.length; i++) {
+                int entry = (int) first + i;
+                long cards = 0;
+                if (entry < FLUSHES) {
+                    // Flushes, held in clubs
+                    int count = Integer.bitCount(entry);
+                    if (count >= 5 && count <= 7)
+                        cards = entry;
+                } else {
+                    // Multisets dealt over the suits in turn so no suit
+                    // holds a flush
+                    int k = 7;
+                    while (entry < OFFSETS[k])
+                        k--;
+                    int index = entry - OFFSETS[k];
+                    Combinations.unrank(index, k, 12 + k, positions);
+                    for (int j = 0; j < k; j++)
+                        cards |= 1L << ((j % 4) * 16 + positions[j] - j);
+                    if (Long.bitCount(cards) != k || rankIndex(cards) != index)
+                        cards = 0;
+                }
+
+                if (cards == 0)
+                    continue;
+
+                Deck hand = new Deck();
+                for (long bits = cards; bits != 0; bits &= bits - 1) {
+                    int bit = Long.numberOfTrailingZeros(bits);
+                    hand.addCard(deck.getCard((bit & 15) * 4 + (bit >>> 4)));
+                }
+                phe.reset();
+                phe.setHand(hand);
+                phe.evaluate();
+                entries[i] = PokerHandEvaluator.packScore(phe.getScore());
+            }
+        }
+    }
+
+    /**
+     * Unmaps the file and drops the tables, hands are then scored
+     * without them
+     */
+    public void close() {
+        TableFile tables = this.tables;
+        this.entries = null;
+        this.tables = null;
+        if (tables != null)
+            tables.close();
+    }
+
+    /**
+     * Generates the tables into the file given as first argument, such
+     * as at build time
+     */
+    public static void main(String[] args) throws IOException {
+
+        if (args.length < 1)
+            throw new IllegalArgumentException("Usage: TableHandEvaluator <file>");
+
+        generate(new File(args[0]), Runtime.getRuntime().availableProcessors(), System.out);
+    }
+}
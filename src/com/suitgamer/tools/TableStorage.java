@@ -0,0 +1,328 @@
+package com.suitgamer.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Holds lookup tables outside of the Java heap, so tables of hundreds
+ * of megabytes or more neither grow the heap nor slow its collections.
+ * Storage is either allocated, as direct buffers, or mapped from a
+ * file, read only, the pages of the file being read by the operating
+ * system as they are first touched.
+ *
+ * Buffers are limited to two gigabytes, so storage is split into
+ * chunks, of a gigabyte by default, and addressed by long offsets. Values
+ * are read and written at absolute offsets, big endian, values laying
+ * across two chunks being put together byte by byte. Reads never move
+ * a buffer, so they are safe from any number of threads. Storage is
+ * released with {@link #close()}, after which every access fails,
+ * memory itself being freed once the chunks are collected
+ *
+ * @author Omid Sadeghpour <somid3@gmail.com>
+ * @version 1.0
+ */
+public class TableStorage {
+
+    /**
+     * Default bits of the offsets within a chunk, chunks holding two to
+     * the power of those bytes
+     */
+    public static final int CHUNK_BITS = 30;
+
+    private ByteBuffer[] chunks;
+    private long size;
+    private boolean readOnly;
+
+    /**
+     * Bits of the offsets within a chunk, bytes of every chunk but the
+     * last one and mask of the offsets within a chunk
+     */
+    private int chunkBits;
+    private int chunk;
+    private long chunkMask;
+
+    private TableStorage(long size, int chunkBits, boolean readOnly) {
+
+        if (size < 0)
+            throw new IllegalArgumentException("Size can not be negative");
+        if (chunkBits < 3 || chunkBits > CHUNK_BITS)
+            throw new IllegalArgumentException("Chunks hold from 2^3 to 2^" + CHUNK_BITS + " bytes");
+
+        this.size = size;
+        this.chunkBits = chunkBits;
+        this.chunk = 1 << chunkBits;
+        this.chunkMask = chunk - 1;
+        this.readOnly = readOnly;
+        this.chunks = new ByteBuffer[(int) ((size + chunkMask) >>> chunkBits)];
+    }
+
+    /**
+     * Returns the bytes of the given chunk
+     */
+    private int lengthOf(int c) {
+        return (int) Math.min(chunk, size - ((long) c << chunkBits));
+    }
+
+    /**
+     * Allocates the given number of bytes outside of the heap, all
+     * zeros
+     *
+     * @param size
+     * @return
+     */
+    public static TableStorage allocate(long size) {
+        return allocate(size, CHUNK_BITS);
+    }
+
+    /**
+     * Allocates the given number of bytes outside of the heap, all
+     * zeros, in chunks of two to the given power bytes. Mostly useful
+     * to try values laying across chunks
+     *
+     * @param size
+     * @param chunkBits
+     * @return
+     */
+    public static TableStorage allocate(long size, int chunkBits) {
+        TableStorage storage = new TableStorage(size, chunkBits, false);
+        for (int c = 0; c < storage.chunks.length; c++)
+            storage.chunks[c] = ByteBuffer.allocateDirect(storage.lengthOf(c));
+
+        return storage;
+    }
+
+    /**
+     * Maps the whole file, read only
+     *
+     * @param file
+     * @return
+     * @throws IOException
+     */
+    public static TableStorage map(File file) throws IOException {
+        return map(file, 0, file.length());
+    }
+
+    /**
+     * Maps the given range of bytes of the file, read only
+     *
+     * @param file
+     * @param offset
+     * @param size
+     * @return
+     * @throws IOException
+     */
+    public static TableStorage map(File file, long offset, long size) throws IOException {
+        return map(file, offset, size, CHUNK_BITS);
+    }
+
+    /**
+     * Maps the given range of bytes of the file, read only, in chunks
+     * of two to the given power bytes
+     *
+     * @param file
+     * @param offset
+     * @param size
+     * @param chunkBits
+     * @return
+     * @throws IOException
+     */
+    public static TableStorage map(File file, long offset, long size, int chunkBits) throws IOException {
+
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            if (offset < 0 || size < 0 || offset + size > raf.length())
+                throw new IllegalArgumentException("Range from " + offset + " of " + size + " bytes is out of the file");
+
+            // Mappings outlive the channel
+            FileChannel channel = raf.getChannel();
+            TableStorage storage = new TableStorage(size, chunkBits, true);
+            for (int c = 0; c < storage.chunks.length; c++)
+                storage.chunks[c] = channel.map(FileChannel.MapMode.READ_ONLY, offset + ((long) c << chunkBits), storage.lengthOf(c));
+
+            return storage;
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Releases the storage, every access then fails
+     */
+    public synchronized void close() {
+        chunks = null;
+    }
+
+    public boolean isClosed() {
+        return chunks == null;
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * Returns the number of bytes held
+     *
+     * @return
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns the chunk holding the given offset, checking the storage
+     * is open and the given bytes are held
+     */
+    private ByteBuffer chunk(long offset, int bytes) {
+        ByteBuffer[] chunks = this.chunks;
+        if (chunks == null)
+            throw new IllegalStateException("Table storage is closed");
+        if (offset < 0 || offset + bytes > size)
+            throw new IndexOutOfBoundsException("Offset " + offset + " is out of the " + size + " bytes held");
+
+        return chunks[(int) (offset >>> chunkBits)];
+    }
+
+    /**
+     * Whether or not the value of the given bytes at the offset lays
+     * within a single chunk
+     */
+    private boolean within(long offset, int bytes) {
+        return (offset & chunkMask) + bytes <= chunk;
+    }
+
+    public byte getByte(long offset) {
+        return chunk(offset, 1).get((int) (offset & chunkMask));
+    }
+
+    public short getShort(long offset) {
+        if (within(offset, 2))
+            return chunk(offset, 2).getShort((int) (offset & chunkMask));
+
+        return (short) getBytes(offset, 2);
+    }
+
+    public char getChar(long offset) {
+        return (char) getShort(offset);
+    }
+
+    public int getInt(long offset) {
+        if (within(offset, 4))
+            return chunk(offset, 4).getInt((int) (offset & chunkMask));
+
+        return (int) getBytes(offset, 4);
+    }
+
+    public long getLong(long offset) {
+        if (within(offset, 8))
+            return chunk(offset, 8).getLong((int) (offset & chunkMask));
+
+        return getBytes(offset, 8);
+    }
+
+    /**
+     * Copies the bytes from the given offset into the given array
+     *
+     * @param offset
+     * @param bytes
+     */
+    public void get(long offset, byte[] bytes) {
+        copy(offset, bytes, false);
+    }
+
+    public void putByte(long offset, byte value) {
+        writable(offset, 1).put((int) (offset & chunkMask), value);
+    }
+
+    public void putShort(long offset, short value) {
+        if (within(offset, 2))
+            writable(offset, 2).putShort((int) (offset & chunkMask), value);
+        else
+            putBytes(offset, value, 2);
+    }
+
+    public void putChar(long offset, char value) {
+        putShort(offset, (short) value);
+    }
+
+    public void putInt(long offset, int value) {
+        if (within(offset, 4))
+            writable(offset, 4).putInt((int) (offset & chunkMask), value);
+        else
+            putBytes(offset, value, 4);
+    }
+
+    public void putLong(long offset, long value) {
+        if (within(offset, 8))
+            writable(offset, 8).putLong((int) (offset & chunkMask), value);
+        else
+            putBytes(offset, value, 8);
+    }
+
+    /**
+     * Copies the given array into the storage from the given offset
+     *
+     * @param offset
+     * @param bytes
+     */
+    public void put(long offset, byte[] bytes) {
+        if (readOnly)
+            throw new IllegalStateException("Table storage is read only");
+
+        copy(offset, bytes, true);
+    }
+
+    /**
+     * Copies bytes between the storage and the array, chunk by chunk,
+     * on duplicates so the positions of the chunks are left as they are
+     */
+    private void copy(long offset, byte[] bytes, boolean put) {
+        if (bytes.length == 0)
+            return;
+
+        chunk(offset, bytes.length);
+        int done = 0;
+        while (done < bytes.length) {
+            long at = offset + done;
+            ByteBuffer chunk = chunk(at, 1).duplicate();
+            chunk.position((int) (at & chunkMask));
+            int length = Math.min(bytes.length - done, chunk.remaining());
+            if (put)
+                chunk.put(bytes, done, length);
+            else
+                chunk.get(bytes, done, length);
+            done += length;
+        }
+    }
+
+    private ByteBuffer writable(long offset, int bytes) {
+        if (readOnly)
+            throw new IllegalStateException("Table storage is read only");
+
+        return chunk(offset, bytes);
+    }
+
+    /**
+     * Reads a value laying across two chunks, big endian
+     */
+    private long getBytes(long offset, int bytes) {
+        long value = 0;
+        for (int b = 0; b < bytes; b++)
+            value = (value << 8) | (getByte(offset + b) & 0xFF);
+
+        return value;
+    }
+
+    /**
+     * Writes a value laying across two chunks, big endian
+     */
+    private void putBytes(long offset, long value, int bytes) {
+        for (int b = bytes - 1; b >= 0; b--) {
+            putByte(offset + b, (byte) value);
+            value >>>= 8;
+        }
+    }
+}